@@ -8,11 +8,16 @@ import com.intellij.lang.javascript.ecmascript6.TypeScriptUtil;
 import com.intellij.lang.javascript.psi.ecma6.ES6Decorator;
 import com.intellij.lang.javascript.psi.ecma6.TypeScriptClass;
 import com.intellij.lang.javascript.psi.util.JSStubBasedPsiTreeUtil;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.css.StylesheetFile;
 import com.intellij.psi.impl.source.resolve.FileContextUtil;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.SmartList;
 import com.intellij.util.containers.ContainerUtil;
 import one.util.streamex.StreamEx;
@@ -22,6 +27,7 @@ import org.angular2.lang.html.Angular2HtmlLanguage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.function.BiPredicate;
 
@@ -31,6 +37,11 @@ import static org.angular2.index.Angular2IndexingHandler.resolveComponentsFromIn
 
 public final class Angular2ComponentLocator {
 
+  private static final Key<CachedValue<List<TypeScriptClass>>> TEMPLATE_COMPONENT_CLASSES_KEY =
+    Key.create("angular2.template.component.classes");
+  private static final Key<CachedValue<List<TypeScriptClass>>> STYLESHEET_COMPONENT_CLASSES_KEY =
+    Key.create("angular2.stylesheet.component.classes");
+
   public static @Nullable TypeScriptClass findComponentClass(@NotNull PsiElement templateContext) {
     return ContainerUtil.getFirstItem(findComponentClasses(templateContext));
   }
@@ -53,13 +64,37 @@ public final class Angular2ComponentLocator {
         InjectedLanguageManager.getInstance(templateContext.getProject()).getInjectionHost(file.getOriginalFile())));
     }
     // external content
+    boolean stylesheet = isStylesheet(file);
     List<TypeScriptClass> result = new SmartList<>(
       StreamEx.of(Angular2FrameworkHandler.EP_NAME.getExtensionList())
         .toFlatList(h -> h.findAdditionalComponentClasses(hostFile)));
-    if (result.isEmpty() || isStylesheet(file)) {
-      result.addAll(resolveComponentsFromSimilarFile(hostFile));
+    if (result.isEmpty()) {
+      return getComponentClassesReferencingFile(hostFile, stylesheet);
+    }
+    if (stylesheet) {
+      result.addAll(getComponentClassesReferencingFile(hostFile, stylesheet));
     }
-    if (result.isEmpty() || isStylesheet(file)) {
+    return result;
+  }
+
+  /**
+   * The lookup is done for almost every element of an external template or stylesheet, so its result is cached. It depends only
+   * on component classes and on locations of files, so editing the template or the stylesheet itself keeps the cached value.
+   */
+  private static @NotNull List<@NotNull TypeScriptClass> getComponentClassesReferencingFile(@NotNull PsiFile hostFile,
+                                                                                          boolean stylesheet) {
+    return CachedValuesManager.getManager(hostFile.getProject()).getCachedValue(
+      hostFile, stylesheet ? STYLESHEET_COMPONENT_CLASSES_KEY : TEMPLATE_COMPONENT_CLASSES_KEY,
+      () -> CachedValueProvider.Result.create(Collections.unmodifiableList(findComponentClassesReferencingFile(hostFile, stylesheet)),
+                                              Angular2EntitiesProvider.getEntitiesModificationTracker(hostFile.getProject()),
+                                              VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS),
+      false);
+  }
+
+  private static @NotNull List<@NotNull TypeScriptClass> findComponentClassesReferencingFile(@NotNull PsiFile hostFile,
+                                                                                           boolean stylesheet) {
+    List<TypeScriptClass> result = new SmartList<>(resolveComponentsFromSimilarFile(hostFile));
+    if (result.isEmpty() || stylesheet) {
       result.addAll(resolveComponentsFromIndex(hostFile, dec -> hasFileReference(dec, hostFile)));
     }
     return result;
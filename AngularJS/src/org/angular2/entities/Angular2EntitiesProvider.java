@@ -1,6 +1,7 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.angular2.entities;
 
+import com.intellij.lang.javascript.JavascriptLanguage;
 import com.intellij.lang.javascript.psi.JSImplicitElementProvider;
 import com.intellij.lang.javascript.psi.ecma6.ES6Decorator;
 import com.intellij.lang.javascript.psi.ecma6.TypeScriptClass;
@@ -9,6 +10,7 @@ import com.intellij.lang.javascript.psi.ecmal4.JSAttributeList;
 import com.intellij.lang.javascript.psi.stubs.JSElementIndexingData;
 import com.intellij.lang.javascript.psi.stubs.JSImplicitElement;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
@@ -31,6 +33,8 @@ import org.angular2.entities.metadata.psi.Angular2MetadataModule;
 import org.angular2.entities.metadata.psi.Angular2MetadataPipe;
 import org.angular2.entities.source.*;
 import org.angular2.index.*;
+import org.angular2.lang.expr.Angular2Language;
+import org.angular2.lang.metadata.MetadataJsonLanguage;
 import org.angular2.lang.selector.Angular2DirectiveSimpleSelector;
 import org.angularjs.index.AngularIndexUtil;
 import org.jetbrains.annotations.NotNull;
@@ -58,6 +62,17 @@ public final class Angular2EntitiesProvider {
 
   public static final String TRANSFORM_METHOD = "transform";
 
+  /**
+   * Entities are declared in JavaScript and TypeScript sources, including .d.ts files of Ivy libraries, and in metadata.json files,
+   * so caches of them can outlive edits of templates and stylesheets. Angular expressions are a JavaScript dialect,
+   * but they don't declare entities.
+   */
+  public static @NotNull ModificationTracker getEntitiesModificationTracker(@NotNull Project project) {
+    return PsiModificationTracker.getInstance(project).forLanguages(
+      language -> language.isKindOf(JavascriptLanguage.INSTANCE) && !language.isKindOf(Angular2Language.INSTANCE)
+                  || language.is(MetadataJsonLanguage.INSTANCE));
+  }
+
   public static Angular2Entity getEntity(@Nullable PsiElement element) {
     if (element == null) {
       return null;
@@ -161,7 +176,7 @@ public final class Angular2EntitiesProvider {
           return result;
         })
         .groupingBy(p -> p.first, Collectors.mapping(p -> p.second, Collectors.toList())),
-      PsiModificationTracker.MODIFICATION_COUNT)
+      getEntitiesModificationTracker(project))
     );
   }
 
@@ -173,7 +188,7 @@ public final class Angular2EntitiesProvider {
         .distinct()
         .collect(toMap(Function.identity(),
                        name -> findPipes(project, name))),
-      PsiModificationTracker.MODIFICATION_COUNT)
+      getEntitiesModificationTracker(project))
     );
   }
 
@@ -189,7 +204,7 @@ public final class Angular2EntitiesProvider {
       getAllModules(project).forEach(
         module -> module.getAllExportedDeclarations().forEach(
           decl -> result.putValue(decl, module)));
-      return create(result, PsiModificationTracker.MODIFICATION_COUNT);
+      return create(result, getEntitiesModificationTracker(project));
     });
   }
 
@@ -199,7 +214,7 @@ public final class Angular2EntitiesProvider {
       getAllModules(project).forEach(
         module -> module.getDeclarations().forEach(
           decl -> result.putValue(decl, module)));
-      return create(result, PsiModificationTracker.MODIFICATION_COUNT);
+      return create(result, getEntitiesModificationTracker(project));
     });
   }
 
@@ -216,7 +231,7 @@ public final class Angular2EntitiesProvider {
         });
       processIvyEntities(project, NG_MODULE_INDEX_NAME, Angular2IvyModuleIndex.KEY, Angular2Module.class, result::add);
       processMetadataEntities(project, NG_MODULE_INDEX_NAME, Angular2MetadataModule.class, Angular2MetadataModuleIndex.KEY, result::add);
-      return create(result, PsiModificationTracker.MODIFICATION_COUNT);
+      return create(result, getEntitiesModificationTracker(project));
     });
   }
 
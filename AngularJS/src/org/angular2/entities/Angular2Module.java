@@ -1,8 +1,11 @@
 // Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.angular2.entities;
 
+import com.intellij.psi.util.PsiModificationTracker;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -28,6 +31,13 @@ public interface Angular2Module extends Angular2Entity, Angular2ImportsOwner {
   @NotNull
   Set<Angular2Declaration> getAllExportedDeclarations();
 
+  /**
+   * @return dependencies of the cached {@link #getExports()} result, for caches built from exports of several modules
+   */
+  default @NotNull Collection<?> getExportsDependencies() {
+    return Collections.singletonList(PsiModificationTracker.MODIFICATION_COUNT);
+  }
+
   /**
    * @see Angular2Component#getDeclarationsInScope()
    */
@@ -7,12 +7,12 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider.Result;
 import com.intellij.psi.util.CachedValuesManager;
-import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.Stack;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -85,10 +85,20 @@ public class Angular2ModuleResolver<T extends PsiElement> {
     return getResolvedModuleList(DECLARATIONS_KEY, Angular2Declaration.class).isFullyResolved;
   }
 
+  public @NotNull Collection<?> getExportsDependencies() {
+    return getResolvedModuleList(EXPORTS_KEY, Angular2Entity.class).dependencies;
+  }
+
+  /**
+   * The result depends only on exports of the modules visited, so it's not recalculated after unrelated changes,
+   * e.g. when typing in a component.
+   */
   public @NotNull Set<Angular2Declaration> getAllExportedDeclarations() {
     final T source = mySourceSupplier.get();
     return CachedValuesManager.getCachedValue(source, () -> {
       Set<Angular2Declaration> result = new HashSet<>();
+      Set<Object> dependencies = new HashSet<>();
+      dependencies.add(source);
       Angular2Module module = source instanceof Angular2Module
                               ? (Angular2Module)source
                               : Angular2EntitiesProvider.getModule(source);
@@ -103,10 +113,11 @@ public class Angular2ModuleResolver<T extends PsiElement> {
               m -> moduleQueue.push(m),
               declaration -> result.add(declaration)
             );
+            dependencies.addAll(current.getExportsDependencies());
           }
         }
       }
-      return Result.create(result, PsiModificationTracker.MODIFICATION_COUNT);
+      return Result.create(result, dependencies);
     });
   }
 
@@ -129,22 +140,25 @@ public class Angular2ModuleResolver<T extends PsiElement> {
   public static final class ResolvedEntitiesList<T extends Angular2Entity> {
     final Set<T> entities;
     final boolean isFullyResolved;
+    final Collection<?> dependencies;
 
-    private ResolvedEntitiesList(@NotNull Set<T> entities, boolean isFullyResolved) {
+    private ResolvedEntitiesList(@NotNull Set<T> entities, boolean isFullyResolved, @NotNull Collection<?> dependencies) {
       this.entities = Collections.unmodifiableSet(entities);
       this.isFullyResolved = isFullyResolved;
+      this.dependencies = dependencies;
     }
 
     public static <T extends Angular2Entity> Result<ResolvedEntitiesList<T>> createResult(@NotNull Set<T> entities,
                                                                                           boolean isFullyResolved,
                                                                                           @NotNull Object dependency) {
-      return Result.createSingleDependency(new ResolvedEntitiesList<>(entities, isFullyResolved), dependency);
+      return Result.createSingleDependency(
+        new ResolvedEntitiesList<>(entities, isFullyResolved, Collections.singletonList(dependency)), dependency);
     }
 
     public static <T extends Angular2Entity> Result<ResolvedEntitiesList<T>> createResult(@NotNull Set<T> entities,
                                                                                           boolean isFullyResolved,
                                                                                           @NotNull Collection<?> dependencies) {
-      return Result.create(new ResolvedEntitiesList<>(entities, isFullyResolved), dependencies);
+      return Result.create(new ResolvedEntitiesList<>(entities, isFullyResolved, new ArrayList<>(dependencies)), dependencies);
     }
   }
 }
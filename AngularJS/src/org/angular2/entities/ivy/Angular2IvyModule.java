@@ -10,6 +10,7 @@ import org.angular2.entities.*;
 import org.angular2.entities.Angular2ModuleResolver.ResolvedEntitiesList;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -48,6 +49,11 @@ public class Angular2IvyModule extends Angular2IvyEntity<Angular2IvySymbolDef.Mo
     return myModuleResolver.getAllExportedDeclarations();
   }
 
+  @Override
+  public @NotNull Collection<?> getExportsDependencies() {
+    return myModuleResolver.getExportsDependencies();
+  }
+
   @Override
   public boolean isScopeFullyResolved() {
     return myModuleResolver.isScopeFullyResolved();
@@ -13,6 +13,7 @@ import org.angular2.entities.Angular2ModuleResolver.ResolvedEntitiesList;
 import org.angular2.entities.metadata.stubs.Angular2MetadataModuleStub;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -46,6 +47,11 @@ public class Angular2MetadataModule extends Angular2MetadataEntity<Angular2Metad
     return myModuleResolver.getAllExportedDeclarations();
   }
 
+  @Override
+  public @NotNull Collection<?> getExportsDependencies() {
+    return myModuleResolver.getExportsDependencies();
+  }
+
   @Override
   public boolean isScopeFullyResolved() {
     return myModuleResolver.isScopeFullyResolved();
@@ -21,6 +21,7 @@ import org.angular2.entities.Angular2ModuleResolver.ResolvedEntitiesList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -59,6 +60,11 @@ public class Angular2SourceModule extends Angular2SourceEntity implements Angula
     return myModuleResolver.getAllExportedDeclarations();
   }
 
+  @Override
+  public @NotNull Collection<?> getExportsDependencies() {
+    return myModuleResolver.getExportsDependencies();
+  }
+
   @Override
   public boolean isScopeFullyResolved() {
     return myModuleResolver.isScopeFullyResolved();
@@ -15,10 +15,13 @@ import com.intellij.openapi.util.Comparing;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.include.FileIncludeManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.tree.TokenSet;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.CommonProcessors;
 import com.intellij.util.ObjectUtils;
@@ -60,45 +63,122 @@ public class AngularUiRouterDiagramBuilder {
     groupStates();
   }
 
+  /**
+   * Each state id is resolved once, and the found elements are grouped by their files. States are read from PSI once per defining file
+   * and cached until the file, templates used by its states or the set of files change, so after an edit only states of the edited
+   * files are read again.
+   */
   private void addStatesFromIndex() {
+    final Map<PsiFile, List<JSImplicitElement>> definingFiles = new LinkedHashMap<>();
     final Collection<String> stateIds = AngularIndexUtil.getAllKeys(AngularUiRouterStatesIndex.KEY, myProject);
     for (String id : stateIds) {
       if (id.startsWith(".")) continue;
-      final CommonProcessors.CollectProcessor<JSImplicitElement> processor = new CommonProcessors.CollectProcessor<>();
-      AngularIndexUtil.multiResolve(myProject, AngularUiRouterStatesIndex.KEY, id, processor);
-      for (JSImplicitElement element : processor.getResults()) {
-        final UiRouterState state = new UiRouterState(id, element.getContainingFile().getVirtualFile());
-        if (!element.getContainingFile().getLanguage().isKindOf(JavascriptLanguage.INSTANCE)
-            && PsiTreeUtil.getParentOfType(element, JSEmbeddedContent.class) != null) {
-          createRootTemplatesForEmbedded(element.getContainingFile());
+      AngularIndexUtil.multiResolve(myProject, AngularUiRouterStatesIndex.KEY, id, element -> {
+        final PsiFile file = element.getContainingFile();
+        if (file != null) {
+          definingFiles.computeIfAbsent(file, f -> new ArrayList<>()).add(element);
         }
+        return true;
+      });
+    }
+    for (Map.Entry<PsiFile, List<JSImplicitElement>> entry : definingFiles.entrySet()) {
+      final FileStates fileStates = getFileStates(entry.getKey(), entry.getValue());
+      for (UiRouterState state : fileStates.myStates) {
+        // states are modified when grouped, so the cached ones are copied
+        myStates.add(state.copy());
+      }
+      for (Map.Entry<VirtualFile, Template> templateEntry : fileStates.myTemplates.entrySet()) {
+        myTemplatesMap.putIfAbsent(templateEntry.getKey(), templateEntry.getValue());
+      }
+      myRootTemplates.putAll(fileStates.myRootTemplates);
+    }
+  }
+
+  /**
+   * @param elements state elements of the file found by {@link #addStatesFromIndex()}, they are up to date whenever the cached value
+   *                 is recomputed, since it depends on the file
+   */
+  private static @NotNull FileStates getFileStates(final @NotNull PsiFile file, final @NotNull List<JSImplicitElement> elements) {
+    return CachedValuesManager.getCachedValue(file, () -> {
+      final AngularUiRouterDiagramBuilder builder = new AngularUiRouterDiagramBuilder(file.getProject());
+      builder.addStatesFromElements(elements);
+
+      final Set<Object> dependencies = new HashSet<>();
+      dependencies.add(file);
+      dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+      final PsiManager psiManager = PsiManager.getInstance(file.getProject());
+      for (VirtualFile templateFile : builder.myTemplatesMap.keySet()) {
+        ContainerUtil.addIfNotNull(dependencies, psiManager.findFile(templateFile));
+      }
+      for (UiRouterState state : builder.myStates) {
+        addPointerFile(dependencies, state.getTemplatePointer());
+        if (state.hasViews()) {
+          for (UiView view : state.getViews()) {
+            addPointerFile(dependencies, view.getTemplatePointer());
+          }
+        }
+      }
+      return CachedValueProvider.Result.create(
+        new FileStates(builder.myStates, builder.myTemplatesMap, builder.myRootTemplates), dependencies);
+    });
+  }
+
+  private static void addPointerFile(final @NotNull Set<Object> dependencies,
+                                     final @Nullable SmartPsiElementPointer<PsiElement> pointer) {
+    if (pointer != null) {
+      ContainerUtil.addIfNotNull(dependencies, pointer.getContainingFile());
+    }
+  }
+
+  private void addStatesFromElements(final @NotNull List<JSImplicitElement> elements) {
+    for (JSImplicitElement element : elements) {
+      // elements are found by their qualified names, which are the state ids
+      final String id = element.getQualifiedName();
+      final UiRouterState state = new UiRouterState(id, element.getContainingFile().getVirtualFile());
+      if (!element.getContainingFile().getLanguage().isKindOf(JavascriptLanguage.INSTANCE)
+          && PsiTreeUtil.getParentOfType(element, JSEmbeddedContent.class) != null) {
+        createRootTemplatesForEmbedded(element.getContainingFile());
+      }
 
-        final JSCallExpression call = findWrappingCallExpression(element);
-        if (call != null) {
-          final JSReferenceExpression methodExpression = ObjectUtils.tryCast(call.getMethodExpression(), JSReferenceExpression.class);
-          if (methodExpression != null &&
-              methodExpression.getQualifier() != null &&
-              "state".equals(methodExpression.getReferenceName())) {
-            final JSExpression[] arguments = call.getArguments();
-            if (arguments.length > 0 && PsiTreeUtil.isAncestor(arguments[0], element.getNavigationElement(), false)) {
-              state.setPointer(mySmartPointerManager.createSmartPsiElementPointer(arguments[0]));
-
-              if (arguments.length > 1 && arguments[1] instanceof JSObjectLiteralExpression) {
-                final JSObjectLiteralExpression object = (JSObjectLiteralExpression)arguments[1];
+      final JSCallExpression call = findWrappingCallExpression(element);
+      if (call != null) {
+        final JSReferenceExpression methodExpression = ObjectUtils.tryCast(call.getMethodExpression(), JSReferenceExpression.class);
+        if (methodExpression != null &&
+            methodExpression.getQualifier() != null &&
+            "state".equals(methodExpression.getReferenceName())) {
+          final JSExpression[] arguments = call.getArguments();
+          if (arguments.length > 0 && PsiTreeUtil.isAncestor(arguments[0], element.getNavigationElement(), false)) {
+            state.setPointer(mySmartPointerManager.createSmartPsiElementPointer(arguments[0]));
+
+            if (arguments.length > 1 && arguments[1] instanceof JSObjectLiteralExpression) {
+              final JSObjectLiteralExpression object = (JSObjectLiteralExpression)arguments[1];
+              fillStateParameters(state, object);
+            }
+            else if (arguments[0] instanceof JSObjectLiteralExpression) {
+              final JSObjectLiteralExpression object = (JSObjectLiteralExpression)arguments[0];
+              final JSProperty name = object.findProperty("name");
+              if (name != null && PsiTreeUtil.isAncestor(name, element.getNavigationElement(), false)) {
                 fillStateParameters(state, object);
               }
-              else if (arguments[0] instanceof JSObjectLiteralExpression) {
-                final JSObjectLiteralExpression object = (JSObjectLiteralExpression)arguments[0];
-                final JSProperty name = object.findProperty("name");
-                if (name != null && PsiTreeUtil.isAncestor(name, element.getNavigationElement(), false)) {
-                  fillStateParameters(state, object);
-                }
-              }
             }
           }
         }
-        myStates.add(state);
       }
+      myStates.add(state);
+    }
+  }
+
+  private static final class FileStates {
+    private final @NotNull List<UiRouterState> myStates;
+    private final @NotNull Map<VirtualFile, Template> myTemplates;
+    private final @NotNull Map<VirtualFile, RootTemplate> myRootTemplates;
+
+    private FileStates(@NotNull List<UiRouterState> states,
+                       @NotNull Map<VirtualFile, Template> templates,
+                       @NotNull Map<VirtualFile, RootTemplate> rootTemplates) {
+      myStates = states;
+      myTemplates = templates;
+      myRootTemplates = rootTemplates;
     }
   }
 
@@ -7,6 +7,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -32,6 +33,24 @@ public class UiRouterState {
     myFile = file;
   }
 
+  /**
+   * @return a state with the same definition, without duplicate definitions
+   */
+  public @NotNull UiRouterState copy() {
+    final UiRouterState copy = new UiRouterState(myName, myFile);
+    copy.myUrl = myUrl;
+    copy.myTemplateUrl = myTemplateUrl;
+    copy.myHasTemplateDefined = myHasTemplateDefined;
+    copy.myParentName = myParentName;
+    copy.myViews = myViews;
+    copy.myPointer = myPointer;
+    copy.myIsAbstract = myIsAbstract;
+    copy.myTemplateFile = myTemplateFile;
+    copy.myTemplatePointer = myTemplatePointer;
+    copy.myGeneric = myGeneric;
+    return copy;
+  }
+
   public @NotNull String getName() {
     return myName;
   }
@@ -100,6 +119,10 @@ public class UiRouterState {
     return myFile;
   }
 
+  public @NotNull List<SmartPsiElementPointer<PsiElement>> getDuplicateDefinitions() {
+    return myDuplicateDefinitions == null ? Collections.emptyList() : myDuplicateDefinitions;
+  }
+
   public void addDuplicateDefinition(final @NotNull UiRouterState state) {
     if (myDuplicateDefinitions == null) myDuplicateDefinitions = new ArrayList<>();
     myDuplicateDefinitions.add(state.getPointer());
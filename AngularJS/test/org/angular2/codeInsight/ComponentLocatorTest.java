@@ -0,0 +1,41 @@
+// Copyright 2000-2022 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.codeInsight;
+
+import com.intellij.lang.javascript.psi.ecma6.TypeScriptClass;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import org.angular2.Angular2CodeInsightFixtureTestCase;
+import org.angular2.entities.Angular2ComponentLocator;
+import org.angular2.modules.Angular2TestModule;
+
+import java.util.List;
+
+public class ComponentLocatorTest extends Angular2CodeInsightFixtureTestCase {
+
+  public void testTemplateEditKeepsCachedComponents() {
+    Angular2TestModule.configureLink(myFixture, Angular2TestModule.ANGULAR_CORE_13_3_5);
+    PsiFile componentFile = myFixture.addFileToProject(
+      "app.component.ts",
+      "import {Component} from '@angular/core';\n" +
+      "@Component({selector: 'app-root', templateUrl: './app.component.html'})\n" +
+      "export class AppComponent {}\n");
+    myFixture.configureByText("app.component.html", "<div><caret></div>");
+    List<TypeScriptClass> components = Angular2ComponentLocator.findComponentClasses(myFixture.getFile());
+    assertSize(1, components);
+    assertEquals("AppComponent", components.get(0).getName());
+
+    myFixture.type("<span>text</span>");
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    assertSame(components, Angular2ComponentLocator.findComponentClasses(myFixture.getFile()));
+
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(componentFile);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      int offset = document.getText().indexOf("./app.component.html");
+      document.replaceString(offset, offset + "./app.component.html".length(), "./other.component.html");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+    assertEmpty(Angular2ComponentLocator.findComponentClasses(myFixture.getFile()));
+  }
+}
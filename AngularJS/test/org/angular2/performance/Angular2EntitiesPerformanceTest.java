@@ -0,0 +1,79 @@
+// Copyright 2000-2022 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.performance;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.containers.MultiMap;
+import org.angular2.Angular2CodeInsightFixtureTestCase;
+import org.angular2.entities.Angular2Declaration;
+import org.angular2.entities.Angular2EntitiesProvider;
+import org.angular2.entities.Angular2Module;
+import org.angular2.modules.Angular2TestModule;
+
+import java.util.List;
+
+public class Angular2EntitiesPerformanceTest extends Angular2CodeInsightFixtureTestCase {
+
+  private static final int MODULES_COUNT = 2000;
+  // each module exports the previous one within a group, so exported declarations of a module are collected transitively
+  private static final int EXPORTS_CHAIN_LENGTH = 50;
+
+  public void testTypingInComponentOfLargeWorkspace() {
+    Angular2TestModule.configureLink(myFixture, Angular2TestModule.ANGULAR_CORE_13_3_5);
+    for (int i = 0; i < MODULES_COUNT; i++) {
+      StringBuilder text = new StringBuilder("import {Component, NgModule} from '@angular/core';\n");
+      boolean exportsPrevious = i % EXPORTS_CHAIN_LENGTH != 0;
+      if (exportsPrevious) {
+        text.append("import {Module").append(i - 1).append("} from './module").append(i - 1).append("';\n");
+      }
+      text.append("@Component({selector: 'comp-").append(i).append("', template: '<div></div>'})\n")
+        .append("export class Component").append(i).append(" {}\n")
+        .append("@NgModule({declarations: [Component").append(i).append("], ")
+        .append("exports: [Component").append(i).append(exportsPrevious ? ", Module" + (i - 1) : "").append("]})\n")
+        .append("export class Module").append(i).append(" {}\n");
+      myFixture.addFileToProject("module" + i + ".ts", text.toString());
+    }
+    int last = MODULES_COUNT - 1;
+    myFixture.configureByText("app.component.ts",
+                              "import {Component, NgModule} from '@angular/core';\n" +
+                              "import {Module" + last + "} from './module" + last + "';\n" +
+                              "@Component({selector: 'app-root', template: '<comp-" + (last - 1) + "></comp-" + (last - 1) + ">'})\n" +
+                              "export class AppComponent {\n" +
+                              "  title = 'app';\n" +
+                              "  update() {\n" +
+                              "    this.title = '<caret>';\n" +
+                              "  }\n" +
+                              "}\n" +
+                              "@NgModule({declarations: [AppComponent], imports: [Module" + last + "]})\n" +
+                              "export class AppModule {}\n");
+    PsiFile template = myFixture.addFileToProject("app.component.html", "<div></div>");
+    myFixture.doHighlighting();
+    List<Angular2Module> modules = Angular2EntitiesProvider.getAllModules(getProject());
+    assertEquals(MODULES_COUNT + 1, modules.size());
+
+    // entities are declared in TypeScript, so an edit of a template doesn't rebuild the project-level lists and maps
+    MultiMap<Angular2Declaration, Angular2Module> declarationToModule = Angular2EntitiesProvider.getDeclarationToModuleMap(getProject());
+    MultiMap<Angular2Declaration, Angular2Module> exportedDeclarationToModule =
+      Angular2EntitiesProvider.getExportedDeclarationToModuleMap(getProject());
+    Document templateDocument = PsiDocumentManager.getInstance(getProject()).getDocument(template);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      templateDocument.insertString(templateDocument.getText().indexOf("</div>"), "text");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(templateDocument);
+    });
+    assertSame(modules, Angular2EntitiesProvider.getAllModules(getProject()));
+    assertSame(declarationToModule, Angular2EntitiesProvider.getDeclarationToModuleMap(getProject()));
+    assertSame(exportedDeclarationToModule, Angular2EntitiesProvider.getExportedDeclarationToModuleMap(getProject()));
+
+    PlatformTestUtil.startPerformanceTest(getTestName(false), 5_000, () -> {
+      for (int i = 0; i < 20; i++) {
+        myFixture.type("x");
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+        Angular2EntitiesProvider.getExportedDeclarationToModuleMap(getProject());
+        Angular2EntitiesProvider.getDeclarationToModuleMap(getProject());
+      }
+    }).attempts(1).assertTiming();
+  }
+}
@@ -4,16 +4,23 @@ import com.intellij.lang.javascript.psi.JSLiteralExpression;
 import com.intellij.lang.javascript.psi.JSProperty;
 import com.intellij.lang.javascript.psi.JSPsiNamedElementBase;
 import com.intellij.lang.javascript.psi.impl.JSOffsetBasedImplicitElement;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 import org.angularjs.AngularTestUtil;
+import org.angularjs.codeInsight.router.AngularUiRouterDiagramBuilder;
+import org.angularjs.codeInsight.router.UiRouterState;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Irina.Chernushina on 2/12/2016.
@@ -177,6 +184,57 @@ public class AngularUiRouterTest extends BasePlatformTestCase {
     checkNavigation(files[0], ".words", "two.words", "appStateWithNameInObject.js");
   }
 
+  public void testDiagramStatesAfterEditingOneFile() {
+    myFixture.copyFileToProject("angular.js");
+    myFixture.addFileToProject("first.js", getStatesFileText("one"));
+    final PsiFile second = myFixture.addFileToProject("second.js", getStatesFileText("two"));
+    Assert.assertEquals(Set.of("one", "two"), getDiagramStateNames(buildDiagram()));
+
+    final Document document = PsiDocumentManager.getInstance(getProject()).getDocument(second);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      final int offset = document.getText().indexOf("'two'");
+      document.replaceString(offset, offset + "'two'".length(), "'three'");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+    Assert.assertEquals(Set.of("one", "three"), getDiagramStateNames(buildDiagram()));
+  }
+
+  public void testDiagramStatesAreCopiedForGrouping() {
+    myFixture.copyFileToProject("angular.js");
+    final PsiFile file = myFixture.addFileToProject("states.js", getStatesFileText("one", "one"));
+
+    final UiRouterState first = buildDiagram().getDefiningFiles2States().get(file.getVirtualFile()).get("one");
+    Assert.assertEquals(1, first.getDuplicateDefinitions().size());
+    // states of the unchanged file are cached, the grouping of the next build must not see the duplicate added by the previous one
+    final UiRouterState second = buildDiagram().getDefiningFiles2States().get(file.getVirtualFile()).get("one");
+    Assert.assertNotSame(first, second);
+    Assert.assertEquals(1, second.getDuplicateDefinitions().size());
+  }
+
+  private @NotNull AngularUiRouterDiagramBuilder buildDiagram() {
+    final AngularUiRouterDiagramBuilder builder = new AngularUiRouterDiagramBuilder(getProject());
+    builder.build();
+    return builder;
+  }
+
+  private static @NotNull Set<String> getDiagramStateNames(@NotNull AngularUiRouterDiagramBuilder builder) {
+    final Set<String> names = new HashSet<>();
+    for (Map<String, UiRouterState> states : builder.getDefiningFiles2States().values()) {
+      names.addAll(states.keySet());
+    }
+    return names;
+  }
+
+  private static @NotNull String getStatesFileText(String @NotNull ... states) {
+    final StringBuilder text = new StringBuilder("angular.module('sample', ['ui.router'])\n" +
+                                                 "  .config(['$stateProvider', function ($stateProvider) {\n" +
+                                                 "    $stateProvider");
+    for (int i = 0; i < states.length; i++) {
+      text.append("\n      .state('").append(states[i]).append("', {url: '/").append(states[i]).append(i).append("'})");
+    }
+    return text.append(";\n  }]);\n").toString();
+  }
+
   private void checkNavigation(PsiFile file, String state, String referencedTextExpected, String appStatesFileName) {
     referencedTextExpected = referencedTextExpected == null ? state : referencedTextExpected;
     final PsiElement inObj = getElement(file, "ui-sref=\"" + state + "\"");
@@ -38,6 +38,10 @@ public class CfmlAttributeDescription implements Comparable<CfmlAttributeDescrip
     myValues = ArrayUtil.append(myValues, value);
   }
 
+  void setValues(String @Nullable [] values) {
+    myValues = values;
+  }
+
   public void setDescription(String description) {
     myDescription = description;
   }
@@ -54,6 +58,14 @@ public class CfmlAttributeDescription implements Comparable<CfmlAttributeDescrip
     return myDescription;
   }
 
+  String getNamePattern() {
+    return myNamePattern.pattern();
+  }
+
+  String getCompletionExample() {
+    return myCompletionExample;
+  }
+
   public boolean acceptName(String name) {
     return myNamePattern.matcher(name).matches();
   }
@@ -0,0 +1,199 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.coldFusion.model.info;
+
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of {@link CfmlLangInfo.CfmlLangDictionary}. All strings of a dictionary are written once into a table
+ * at the start of the stream and referenced by index afterwards, so reading does no XML parsing and no duplicate allocations.
+ */
+final class CfmlLangDictionaryStorage {
+  private static final int VERSION = 1;
+
+  private CfmlLangDictionaryStorage() {
+  }
+
+  static void write(@NotNull CfmlLangInfo.CfmlLangDictionary dictionary, @NotNull DataOutput out) throws IOException {
+    StringTable strings = new StringTable();
+    ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    DataOutputStream body = new DataOutputStream(bodyBytes);
+
+    writeStrings(body, strings, dictionary.myPredefinedFunctions);
+    writeStrings(body, strings, dictionary.myPredefinedFunctionsInLowCase);
+    writeStrings(body, strings, dictionary.myVariableScopes);
+    strings.write(body, dictionary.myOnlineDocumentationLink);
+
+    DataInputOutputUtil.writeINT(body, dictionary.myPredefinedVariables.size());
+    for (Map.Entry<String, Integer> entry : dictionary.myPredefinedVariables.entrySet()) {
+      strings.write(body, entry.getKey());
+      DataInputOutputUtil.writeINT(body, entry.getValue());
+    }
+
+    DataInputOutputUtil.writeINT(body, dictionary.myTagAttributes.size());
+    for (Map.Entry<String, CfmlTagDescription> entry : dictionary.myTagAttributes.entrySet()) {
+      CfmlTagDescription tag = entry.getValue();
+      strings.write(body, entry.getKey());
+      strings.write(body, tag.getName());
+      strings.write(body, tag.getDescription());
+      body.writeByte((tag.isSingle() ? 1 : 0) | (tag.isEndTagRequired() ? 2 : 0));
+      DataInputOutputUtil.writeINT(body, tag.getAttributes().size());
+      for (CfmlAttributeDescription attribute : tag.getAttributes()) {
+        strings.write(body, attribute.getNamePattern());
+        strings.write(body, attribute.getCompletionExample());
+        strings.write(body, attribute.getDescription());
+        DataInputOutputUtil.writeINT(body, attribute.getType());
+        body.writeBoolean(attribute.isRequired());
+        writeStrings(body, strings, attribute.getValues());
+      }
+    }
+
+    DataInputOutputUtil.writeINT(body, dictionary.myFunctionParameters.size());
+    for (Map.Entry<String, CfmlFunctionDescription> entry : dictionary.myFunctionParameters.entrySet()) {
+      CfmlFunctionDescription function = entry.getValue();
+      strings.write(body, entry.getKey());
+      strings.write(body, function.getName());
+      strings.write(body, function.getReturnType());
+      strings.write(body, function.getDescription());
+      DataInputOutputUtil.writeINT(body, function.getParameters().size());
+      for (CfmlFunctionDescription.CfmlParameterDescription parameter : function.getParameters()) {
+        strings.write(body, parameter.getName());
+        strings.write(body, parameter.getType());
+        strings.write(body, parameter.getDescription());
+        body.writeBoolean(parameter.isRequired());
+      }
+    }
+
+    DataInputOutputUtil.writeINT(out, VERSION);
+    DataInputOutputUtil.writeINT(out, strings.myList.size());
+    for (String string : strings.myList) {
+      IOUtil.writeUTF(out, string);
+    }
+    body.flush();
+    out.write(bodyBytes.toByteArray());
+  }
+
+  static @Nullable CfmlLangInfo.CfmlLangDictionary read(@NotNull DataInput in) throws IOException {
+    if (DataInputOutputUtil.readINT(in) != VERSION) return null;
+
+    String[] strings = new String[DataInputOutputUtil.readINT(in)];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = IOUtil.readUTF(in);
+    }
+
+    CfmlLangInfo.CfmlLangDictionary dictionary = new CfmlLangInfo.CfmlLangDictionary();
+    dictionary.myPredefinedFunctions = readStrings(in, strings);
+    dictionary.myPredefinedFunctionsInLowCase = readStrings(in, strings);
+    dictionary.myVariableScopes = readStrings(in, strings);
+    dictionary.myOnlineDocumentationLink = readString(in, strings);
+
+    int variableCount = DataInputOutputUtil.readINT(in);
+    dictionary.myPredefinedVariables = new HashMap<>(variableCount);
+    for (int i = 0; i < variableCount; i++) {
+      dictionary.myPredefinedVariables.put(readString(in, strings), DataInputOutputUtil.readINT(in));
+    }
+
+    int tagCount = DataInputOutputUtil.readINT(in);
+    dictionary.myTagAttributes = new HashMap<>(tagCount);
+    for (int i = 0; i < tagCount; i++) {
+      String key = readString(in, strings);
+      String name = readString(in, strings);
+      String description = readString(in, strings);
+      byte flags = in.readByte();
+      CfmlTagDescription tag = new CfmlTagDescription(name, (flags & 1) != 0, (flags & 2) != 0);
+      tag.setDescription(description);
+      int attributeCount = DataInputOutputUtil.readINT(in);
+      for (int j = 0; j < attributeCount; j++) {
+        String pattern = readString(in, strings);
+        String completionExample = readString(in, strings);
+        String attributeDescription = readString(in, strings);
+        int type = DataInputOutputUtil.readINT(in);
+        boolean required = in.readBoolean();
+        CfmlAttributeDescription attribute =
+          new CfmlAttributeDescription(pattern, type, required, attributeDescription, completionExample);
+        attribute.setValues(readStrings(in, strings));
+        tag.addAttribute(attribute);
+      }
+      dictionary.myTagAttributes.put(key, tag);
+    }
+
+    int functionCount = DataInputOutputUtil.readINT(in);
+    dictionary.myFunctionParameters = new HashMap<>(functionCount);
+    for (int i = 0; i < functionCount; i++) {
+      String key = readString(in, strings);
+      CfmlFunctionDescription function = new CfmlFunctionDescription(readString(in, strings), readString(in, strings));
+      function.setDescription(readString(in, strings));
+      int parameterCount = DataInputOutputUtil.readINT(in);
+      for (int j = 0; j < parameterCount; j++) {
+        String name = readString(in, strings);
+        String type = readString(in, strings);
+        String description = readString(in, strings);
+        CfmlFunctionDescription.CfmlParameterDescription parameter =
+          new CfmlFunctionDescription.CfmlParameterDescription(name, type, in.readBoolean());
+        parameter.setDescription(description);
+        function.addParameter(parameter);
+      }
+      dictionary.myFunctionParameters.put(key, function);
+    }
+
+    return dictionary;
+  }
+
+  private static void writeStrings(DataOutput out, StringTable strings, String @Nullable [] values) throws IOException {
+    if (values == null) {
+      DataInputOutputUtil.writeINT(out, -1);
+      return;
+    }
+    DataInputOutputUtil.writeINT(out, values.length);
+    for (String value : values) {
+      strings.write(out, value);
+    }
+  }
+
+  private static String @Nullable [] readStrings(DataInput in, String[] strings) throws IOException {
+    int count = DataInputOutputUtil.readINT(in);
+    if (count < 0) return null;
+    String[] result = new String[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = readString(in, strings);
+    }
+    return result;
+  }
+
+  private static @Nullable String readString(DataInput in, String[] strings) throws IOException {
+    int index = DataInputOutputUtil.readINT(in);
+    return index < 0 ? null : strings[index];
+  }
+
+  private static final class StringTable {
+    private final Object2IntOpenHashMap<String> myIndices = new Object2IntOpenHashMap<>();
+    private final List<String> myList = new ArrayList<>();
+
+    private StringTable() {
+      myIndices.defaultReturnValue(-1);
+    }
+
+    private void write(DataOutput out, @Nullable String value) throws IOException {
+      if (value == null) {
+        DataInputOutputUtil.writeINT(out, -1);
+        return;
+      }
+      int index = myIndices.getInt(value);
+      if (index < 0) {
+        index = myList.size();
+        myList.add(value);
+        myIndices.put(value, index);
+      }
+      DataInputOutputUtil.writeINT(out, index);
+    }
+  }
+}
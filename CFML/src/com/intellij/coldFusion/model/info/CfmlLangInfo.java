@@ -3,8 +3,16 @@ package com.intellij.coldFusion.model.info;
 
 import com.intellij.coldFusion.UI.config.CfmlProjectConfiguration;
 import com.intellij.coldFusion.model.CfmlLanguage;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.application.ApplicationInfo;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.BuildNumber;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.reference.SoftReference;
 import com.intellij.util.text.LineReader;
@@ -13,20 +21,26 @@ import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.XMLReaderFactory;
 
-import java.io.InputStream;
+import java.io.*;
 import java.lang.ref.Reference;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author vnikolaenko
  */
 public class CfmlLangInfo {
+  private static final String PLUGIN_ID = "CFML Support";
+  private static final Map<String, Reference<CfmlLangDictionary>> ourDictionaries = new ConcurrentHashMap<>();
+
   private final Project myProject;
-  private Reference<CfmlLangDictionary> myCFDictionary;
-  private String myCFDictionaryLevel;
 
   private static final class InstanceWithoutApplication {
     static CfmlLangInfo instanceWithoutApplication = new CfmlLangInfo(null);
@@ -46,6 +60,9 @@ public class CfmlLangInfo {
   }
 
   public static class CfmlLangDictionary {
+    CfmlLangDictionary() {
+    }
+
     public CfmlLangDictionary(String scopesFileName, String tagsFileName) {
       if (StringUtil.isEmpty(scopesFileName) || StringUtil.isEmpty(tagsFileName)) {
         return;
@@ -78,27 +95,89 @@ public class CfmlLangInfo {
     public String myOnlineDocumentationLink;
   }
 
-  private CfmlLangDictionary getProjectDictionary() {
-    String languageLevel = getLanguageLevel();
-    CfmlLangDictionary dictionary;
+  /**
+   * Loads the dictionary from its compiled form in the system directory, compiling it there from the bundled XML first if needed.
+   * Compiled files are named after the IDE build and the plugin version, so an updated plugin never picks up a stale dictionary.
+   */
+  static CfmlLangDictionary loadDictionary(String scopesFileName, String tagsFileName) {
+    Path compiled;
+    try {
+      compiled = getCompiledDictionaryPath(scopesFileName, tagsFileName);
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot read CFML dictionary " + tagsFileName, e);
+      return new CfmlLangDictionary(scopesFileName, tagsFileName);
+    }
+    if (compiled == null) {
+      return new CfmlLangDictionary(scopesFileName, tagsFileName);
+    }
 
-    if (Objects.equals(myCFDictionaryLevel, languageLevel)) {
-      dictionary = SoftReference.dereference(myCFDictionary);
-      if (dictionary != null) return dictionary;
+    if (Files.isRegularFile(compiled)) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(compiled)))) {
+        CfmlLangDictionary dictionary = CfmlLangDictionaryStorage.read(in);
+        if (dictionary != null) return dictionary;
+      }
+      catch (IOException | RuntimeException e) {
+        LOG.info("Cannot read compiled CFML dictionary " + compiled, e);
+      }
     }
 
-    synchronized (CfmlLangInfo.class) {
-      dictionary = SoftReference.dereference(myCFDictionary);
-      if (dictionary == null || !Objects.equals(myCFDictionaryLevel, languageLevel)) {
-        dictionary = new CfmlLangDictionary("scopes.txt", languageLevel);
-        myCFDictionary = new SoftReference<>(dictionary);
-        myCFDictionaryLevel = languageLevel;
+    CfmlLangDictionary dictionary = new CfmlLangDictionary(scopesFileName, tagsFileName);
+    try {
+      Files.createDirectories(compiled.getParent());
+      Path temp = Files.createTempFile(compiled.getParent(), compiled.getFileName().toString(), ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        CfmlLangDictionaryStorage.write(dictionary, out);
       }
+      Files.move(temp, compiled, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException e) {
+      LOG.info("Cannot write compiled CFML dictionary " + compiled, e);
     }
+    return dictionary;
+  }
+
+  /**
+   * @return null if there is no application to take the build number from, e.g. when used by a standalone tool
+   */
+  private static @Nullable Path getCompiledDictionaryPath(String scopesFileName, String tagsFileName) throws IOException {
+    if (ApplicationManager.getApplication() == null) return null;
+    BuildNumber build = ApplicationInfo.getInstance().getBuild();
+    IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.findId(PLUGIN_ID));
+    StringBuilder key = new StringBuilder(build.asString());
+    if (plugin != null) {
+      key.append('-').append(plugin.getVersion());
+    }
+    if (build.isSnapshot()) {
+      // bundled files may change without a version change in development builds
+      for (String fileName : new String[]{scopesFileName, tagsFileName}) {
+        URL url = CfmlLangInfo.class.getResource(fileName);
+        if (url == null) throw new FileNotFoundException(fileName);
+        key.append('-').append(url.openConnection().getLastModified());
+      }
+    }
+    String name = FileUtil.getNameWithoutExtension(tagsFileName) + "." + FileUtil.sanitizeFileName(key.toString()) + ".bin";
+    return Paths.get(PathManager.getSystemPath(), "cfml", name);
+  }
 
+  private static CfmlLangDictionary getDictionary(String languageLevel) {
+    CfmlLangDictionary dictionary = SoftReference.dereference(ourDictionaries.get(languageLevel));
+    if (dictionary != null) return dictionary;
+
+    synchronized (ourDictionaries) {
+      dictionary = SoftReference.dereference(ourDictionaries.get(languageLevel));
+      if (dictionary == null) {
+        dictionary = loadDictionary("scopes.txt", languageLevel);
+        ourDictionaries.put(languageLevel, new SoftReference<>(dictionary));
+      }
+    }
     return dictionary;
   }
 
+  private CfmlLangDictionary getProjectDictionary() {
+    return getDictionary(getLanguageLevel());
+  }
+
   public String getLanguageLevel() {
     if (myProject == null) return CfmlLanguage.CF10;
     CfmlProjectConfiguration.State state = CfmlProjectConfiguration.getInstance(myProject).getState();
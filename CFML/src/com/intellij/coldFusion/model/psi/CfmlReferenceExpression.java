@@ -8,11 +8,14 @@ import com.intellij.coldFusion.model.CfmlUtil;
 import com.intellij.coldFusion.model.files.CfmlFile;
 import com.intellij.coldFusion.model.lexer.CfmlTokenTypes;
 import com.intellij.coldFusion.model.lexer.CfscriptTokenTypes;
+import com.intellij.coldFusion.model.psi.stubs.CfmlIndex;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.diagnostic.Attachment;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.CheckUtil;
 import com.intellij.psi.scope.PsiScopeProcessor;
@@ -190,7 +193,7 @@ public class CfmlReferenceExpression extends AbstractQualifiedReference<CfmlRefe
       }
     }
     if (results.isEmpty()) {
-      return ResolveResult.EMPTY_ARRAY;
+      return resolveInOtherFiles(referenceName);
     }
     // resolve to truly declaration if found, otherwise resolve to the nearest assignment
     if (results.size() > 1) {
@@ -203,6 +206,43 @@ public class CfmlReferenceExpression extends AbstractQualifiedReference<CfmlRefe
     return new ResolveResult[]{results.get(0)};
   }
 
+  /**
+   * Looks for user-defined functions in the nearest template related to this one by {@code cfinclude} and for variables of shared
+   * scopes assigned anywhere in the project; candidate files are found by indexes, so only those get parsed.
+   */
+  private ResolveResult @NotNull [] resolveInOtherFiles(@NotNull String referenceName) {
+    VirtualFile file = getContainingFile().getOriginalFile().getVirtualFile();
+    if (file == null || DumbService.isDumb(getProject())) {
+      return ResolveResult.EMPTY_ARRAY;
+    }
+
+    CfmlIndex index = CfmlIndex.getInstance(getProject());
+    PsiElement scope = getScope();
+    List<ResolveResult> results = new ArrayList<>();
+    if (scope == null && getQualifier() == null && getParent() instanceof CfmlFunctionCallExpression) {
+      if (CfmlUtil.isPredefinedFunction(referenceName, getProject())) {
+        return ResolveResult.EMPTY_ARRAY;
+      }
+      Collection<VirtualFile> candidates = index.getFilesWithFunction(referenceName);
+      VirtualFile nearest = candidates.isEmpty() ? null : index.getNearestIncludeRelatedFile(file, candidates);
+      PsiFile psiFile = nearest != null ? getManager().findFile(nearest) : null;
+      if (psiFile instanceof CfmlFile) {
+        for (CfmlFunction function : ((CfmlFile)psiFile).getGlobalFunctions()) {
+          if (referenceName.equalsIgnoreCase(function.getName())) {
+            results.add(new PsiElementResolveResult(function));
+          }
+        }
+      }
+    }
+    else if (scope != null) {
+      // a shared-scope variable may be assigned in several templates, all of them are equally valid targets
+      for (CfmlVariable variable : index.getScopedVariableAssignments(scope.getText(), referenceName)) {
+        results.add(new PsiElementResolveResult(variable));
+      }
+    }
+    return results.toArray(ResolveResult.EMPTY_ARRAY);
+  }
+
   @Override
   @NotNull
   protected CfmlReferenceExpression parseReference(String newText) {
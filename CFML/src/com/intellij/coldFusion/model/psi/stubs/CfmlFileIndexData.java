@@ -0,0 +1,98 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.coldFusion.model.psi.stubs;
+
+import com.intellij.coldFusion.model.files.CfmlFile;
+import com.intellij.coldFusion.model.parsers.CfmlElementTypes;
+import com.intellij.coldFusion.model.psi.*;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.PathUtil;
+import com.intellij.util.indexing.FileContent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Names collected in a single PSI pass over a CFML file and shared by {@link CfmlFunctionIndex}, {@link CfmlIncludeIndex}
+ * and {@link CfmlScopedVariableIndex}. All keys are lower-cased, as CFML names are case-insensitive.
+ */
+final class CfmlFileIndexData {
+  private static final Key<CfmlFileIndexData> INDEX_DATA_KEY = Key.create("cfml.file.index.data");
+
+  /**
+   * Scopes shared between templates of an application; variables of other scopes are not visible across files.
+   */
+  static final Set<String> SHARED_SCOPES = Set.of("application", "request", "session", "server");
+
+  final Map<String, Void> functions = new HashMap<>();
+  final Map<String, Void> includes = new HashMap<>();
+  final Map<String, Void> scopedVariables = new HashMap<>();
+
+  static @NotNull CfmlFileIndexData get(@NotNull FileContent content) {
+    CfmlFileIndexData data = content.getUserData(INDEX_DATA_KEY);
+    if (data == null) {
+      data = compute(content.getPsiFile());
+      content.putUserData(INDEX_DATA_KEY, data);
+    }
+    return data;
+  }
+
+  private static CfmlFileIndexData compute(PsiFile psiFile) {
+    CfmlFileIndexData data = new CfmlFileIndexData();
+    if (!(psiFile instanceof CfmlFile)) {
+      return data;
+    }
+
+    psiFile.accept(new CfmlRecursiveElementVisitor() {
+      @Override
+      public void visitCfmlFunction(CfmlFunction function) {
+        String name = function.getName();
+        if (StringUtil.isNotEmpty(name) && PsiTreeUtil.getParentOfType(function, CfmlComponent.class) == null) {
+          data.functions.put(StringUtil.toLowerCase(name), null);
+        }
+        super.visitCfmlFunction(function);
+      }
+
+      @Override
+      public void visitElement(@NotNull PsiElement element) {
+        if (element instanceof CfmlTag && "cfinclude".equalsIgnoreCase(((CfmlTag)element).getTagName())) {
+          addInclude(CfmlPsiUtil.getPureAttributeValue((CfmlTag)element, "template"));
+        }
+        else if (element.getNode().getElementType() == CfmlElementTypes.INCLUDEEXPRESSION) {
+          CfmlStringLiteralExpression path = PsiTreeUtil.getChildOfType(element, CfmlStringLiteralExpression.class);
+          addInclude(path != null ? path.getValue() : null);
+        }
+        else if (element instanceof CfmlAssignmentExpression) {
+          CfmlReferenceExpression variable = ((CfmlAssignmentExpression)element).getAssignedVariableElement();
+          PsiElement scope = variable != null ? variable.getScope() : null;
+          String name = variable != null ? variable.getReferenceName() : null;
+          if (scope != null && SHARED_SCOPES.contains(StringUtil.toLowerCase(scope.getText())) && StringUtil.isNotEmpty(name)) {
+            data.scopedVariables.put(getScopedVariableKey(scope.getText(), name), null);
+          }
+        }
+        super.visitElement(element);
+      }
+
+      private void addInclude(@Nullable String template) {
+        if (StringUtil.isNotEmpty(template) && !template.contains("#")) {  // skip dynamic paths
+          data.includes.put(getIncludeKey(template), null);
+        }
+      }
+    });
+    return data;
+  }
+
+  static @NotNull String getIncludeKey(@NotNull String template) {
+    return StringUtil.toLowerCase(PathUtil.getFileName(template.replace('\\', '/')));
+  }
+
+  static @NotNull String getScopedVariableKey(@NotNull String scope, @NotNull String name) {
+    return StringUtil.toLowerCase(scope + "." + name);
+  }
+}
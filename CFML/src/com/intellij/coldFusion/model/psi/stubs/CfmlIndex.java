@@ -1,7 +1,11 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.intellij.coldFusion.model.psi.stubs;
 
+import com.intellij.coldFusion.model.files.CfmlFile;
+import com.intellij.coldFusion.model.psi.CfmlAssignmentExpression;
 import com.intellij.coldFusion.model.psi.CfmlComponent;
+import com.intellij.coldFusion.model.psi.CfmlReferenceExpression;
+import com.intellij.coldFusion.model.psi.CfmlVariable;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
@@ -10,10 +14,15 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StubIndex;
 import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.util.PsiUtilCore;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.FileBasedIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -24,6 +33,7 @@ public abstract class CfmlIndex implements Disposable {
   private static final Logger LOG = Logger.getInstance(CfmlIndex.class);
   private static final Key<GlobalSearchScope> MY_SCOPE_KEY = Key.create("default.cfml.scope");
   private static final Map<Project, CfmlIndex> managers = new HashMap<>();
+  private static final int MAX_INCLUDE_RELATED_FILES = 1000;
   private final Project project;
 
   private CfmlIndex(Project project) {
@@ -91,6 +101,73 @@ public abstract class CfmlIndex implements Disposable {
     return StubIndex.getInstance().getAllKeys(CfmlInterfaceIndex.KEY, project);
   }
 
+  /**
+   * Returns the one of the candidates nearest to the given template by {@code cfinclude} in either direction, transitively,
+   * or null if none of them is related to it. The template itself is the nearest. Templates at the same distance are ordered
+   * by path, so the result doesn't depend on index order. Included templates are matched by file name only.
+   */
+  @Nullable
+  public VirtualFile getNearestIncludeRelatedFile(@NotNull VirtualFile file, @NotNull Collection<VirtualFile> candidates) {
+    FileBasedIndex index = FileBasedIndex.getInstance();
+    GlobalSearchScope scope = getSearchScope();
+    Set<VirtualFile> visited = new HashSet<>();
+    List<VirtualFile> level = Collections.singletonList(file);
+    visited.add(file);
+    while (!level.isEmpty() && visited.size() < MAX_INCLUDE_RELATED_FILES) {
+      for (VirtualFile current : level) {
+        if (candidates.contains(current)) return current;
+      }
+
+      List<VirtualFile> next = new ArrayList<>();
+      for (VirtualFile current : level) {
+        List<VirtualFile> related = new ArrayList<>(index.getContainingFiles(CfmlIncludeIndex.NAME, StringUtil.toLowerCase(current.getName()), scope));
+        for (String included : index.getFileData(CfmlIncludeIndex.NAME, current, project).keySet()) {
+          related.addAll(FilenameIndex.getVirtualFilesByName(included, false, scope));
+        }
+        for (VirtualFile relatedFile : related) {
+          if (visited.add(relatedFile)) {
+            next.add(relatedFile);
+          }
+        }
+      }
+      next.sort(Comparator.comparing(VirtualFile::getPath));
+      level = next;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the files which declare a function with the given name outside of a component.
+   */
+  @NotNull
+  public Collection<VirtualFile> getFilesWithFunction(@NotNull String name) {
+    return FileBasedIndex.getInstance().getContainingFiles(CfmlFunctionIndex.NAME, StringUtil.toLowerCase(name), getSearchScope());
+  }
+
+  /**
+   * Returns assignments of a variable in one of the scopes shared between templates ({@code application}, {@code request} etc.).
+   */
+  @NotNull
+  public Collection<CfmlVariable> getScopedVariableAssignments(@NotNull String scope, @NotNull String name) {
+    if (!CfmlFileIndexData.SHARED_SCOPES.contains(StringUtil.toLowerCase(scope))) return Collections.emptyList();
+
+    List<CfmlVariable> result = new ArrayList<>();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    String key = CfmlFileIndexData.getScopedVariableKey(scope, name);
+    for (VirtualFile file : FileBasedIndex.getInstance().getContainingFiles(CfmlScopedVariableIndex.NAME, key, getSearchScope())) {
+      PsiFile psiFile = psiManager.findFile(file);
+      if (!(psiFile instanceof CfmlFile)) continue;
+      for (CfmlAssignmentExpression assignment : PsiTreeUtil.findChildrenOfType(psiFile, CfmlAssignmentExpression.class)) {
+        CfmlReferenceExpression variable = assignment.getAssignedVariableElement();
+        PsiElement variableScope = variable != null ? variable.getScope() : null;
+        if (variableScope != null && scope.equalsIgnoreCase(variableScope.getText()) && name.equalsIgnoreCase(variable.getReferenceName())) {
+          ContainerUtil.addIfNotNull(result, assignment.getAssignedVariable());
+        }
+      }
+    }
+    return result;
+  }
+
   @Override
   public void dispose() {
     managers.remove(project);
@@ -0,0 +1,45 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.coldFusion.model.psi.stubs;
+
+import com.intellij.coldFusion.model.files.CfmlFileType;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Variables assigned in scopes shared between templates, keyed by {@code scope.name}.
+ */
+public class CfmlScopedVariableIndex extends ScalarIndexExtension<String> {
+  public static final ID<String, Void> NAME = ID.create("cfml.scoped.variable");
+
+  @Override
+  public @NotNull ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @Override
+  public @NotNull DataIndexer<String, Void, FileContent> getIndexer() {
+    return inputData -> CfmlFileIndexData.get(inputData).scopedVariables;
+  }
+
+  @Override
+  public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public int getVersion() {
+    return 0;
+  }
+
+  @Override
+  public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(CfmlFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+}
@@ -522,5 +522,30 @@ public class CfscriptResolveTest extends JavaCodeInsightFixtureTestCase {
     assertEquals("ComponentName", assertInstanceOf(element.getParent(), CfmlComponent.class).getName());
   }
 
-
+  public void testResolveFunctionFromIncludedTemplate() {
+    myFixture.addFileToProject("utils.cfm", "<cffunction name=\"formatTitle\"></cffunction>");
+    myFixture.configureByText("page.cfm", "<cfinclude template=\"utils.cfm\"><cfset title = format<caret>Title()>");
+    PsiElement element = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset()).resolve();
+    assertEquals("formatTitle", assertInstanceOf(element, CfmlFunction.class).getName());
+    assertEquals("utils.cfm", element.getContainingFile().getName());
+  }
+
+  public void testResolveFunctionFromNearestIncludedTemplate() {
+    myFixture.addFileToProject("unrelated.cfm", "<cffunction name=\"formatTitle\"></cffunction>");
+    myFixture.addFileToProject("layout.cfm", "<cfinclude template=\"deep.cfm\">");
+    myFixture.addFileToProject("deep.cfm", "<cffunction name=\"formatTitle\"></cffunction>");
+    myFixture.addFileToProject("near.cfm", "<cffunction name=\"formatTitle\"></cffunction>");
+    myFixture.configureByText("page.cfm", "<cfinclude template=\"layout.cfm\"><cfinclude template=\"near.cfm\">" +
+                                          "<cfset title = format<caret>Title()>");
+    PsiElement element = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset()).resolve();
+    assertEquals("near.cfm", assertInstanceOf(element, CfmlFunction.class).getContainingFile().getName());
+  }
+
+  public void testResolveApplicationVariableFromOtherTemplate() {
+    myFixture.addFileToProject("Application.cfm", "<cfset application.dsn = \"main\">");
+    myFixture.configureByText("page.cfm", "<cfset source = application.d<caret>sn>");
+    PsiElement element = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset()).resolve();
+    assertInstanceOf(element, CfmlVariable.class);
+    assertEquals("Application.cfm", element.getContainingFile().getName());
+  }
 }
@@ -0,0 +1,85 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.coldFusion.model.info;
+
+import com.intellij.coldFusion.model.CfmlLanguage;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.ArrayUtilRt;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.*;
+import java.util.Arrays;
+
+public class CfmlLangDictionaryStorageTest extends BasePlatformTestCase {
+  public void testRoundTrip() throws IOException {
+    for (String level : new String[]{CfmlLanguage.CF8, CfmlLanguage.CF9, CfmlLanguage.CF10, CfmlLanguage.CF11, CfmlLanguage.RAILO, CfmlLanguage.LUCEE}) {
+      CfmlLangInfo.CfmlLangDictionary parsed = new CfmlLangInfo.CfmlLangDictionary("scopes.txt", level);
+      CfmlLangInfo.CfmlLangDictionary loaded = roundTrip(parsed);
+
+      assertOrderedEquals(loaded.myPredefinedFunctions, parsed.myPredefinedFunctions);
+      assertOrderedEquals(loaded.myPredefinedFunctionsInLowCase, parsed.myPredefinedFunctionsInLowCase);
+      assertOrderedEquals(loaded.myVariableScopes, parsed.myVariableScopes);
+      assertEquals(parsed.myPredefinedVariables, loaded.myPredefinedVariables);
+      assertEquals(parsed.myOnlineDocumentationLink, loaded.myOnlineDocumentationLink);
+
+      assertEquals(parsed.myTagAttributes.keySet(), loaded.myTagAttributes.keySet());
+      for (String name : parsed.myTagAttributes.keySet()) {
+        CfmlTagDescription expected = parsed.myTagAttributes.get(name), actual = loaded.myTagAttributes.get(name);
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.isSingle(), actual.isSingle());
+        assertEquals(expected.isEndTagRequired(), actual.isEndTagRequired());
+        assertEquals(expected.getAttributes().toString(), actual.getAttributes().toString());
+      }
+
+      assertEquals(parsed.myFunctionParameters.keySet(), loaded.myFunctionParameters.keySet());
+      for (String name : parsed.myFunctionParameters.keySet()) {
+        CfmlFunctionDescription expected = parsed.myFunctionParameters.get(name), actual = loaded.myFunctionParameters.get(name);
+        assertEquals(expected.getPresentableText(), actual.getPresentableText());
+        assertEquals(expected.getDescription(), actual.getDescription());
+      }
+    }
+  }
+
+  public void testAttributeValues() throws IOException {
+    CfmlLangInfo.CfmlLangDictionary dictionary = new CfmlLangInfo.CfmlLangDictionary("scopes.txt", CfmlLanguage.CF11);
+    CfmlTagDescription tag = new CfmlTagDescription("cftest", true, false);
+    CfmlAttributeDescription noValues = new CfmlAttributeDescription("none", 0, false, null);
+    CfmlAttributeDescription emptyValues = new CfmlAttributeDescription("empty", 0, false, null);
+    emptyValues.setValues(ArrayUtilRt.EMPTY_STRING_ARRAY);
+    CfmlAttributeDescription values = new CfmlAttributeDescription("some", 0, false, null);
+    values.addValue("yes");
+    values.addValue("no");
+    tag.addAttribute(noValues);
+    tag.addAttribute(emptyValues);
+    tag.addAttribute(values);
+    dictionary.myTagAttributes.put("cftest", tag);
+
+    CfmlTagDescription loaded = roundTrip(dictionary).myTagAttributes.get("cftest");
+    assertNull(findAttribute(loaded, "none").getValues());
+    assertEmpty(findAttribute(loaded, "empty").getValues());
+    assertOrderedEquals(findAttribute(loaded, "some").getValues(), "yes", "no");
+  }
+
+  public void testCompiledDictionaryLoadingPerformance() {
+    CfmlLangInfo.loadDictionary("scopes.txt", CfmlLanguage.CF11);  // compile
+    PlatformTestUtil.startPerformanceTest("Loading compiled CFML dictionary", 300, () -> {
+      CfmlLangInfo.CfmlLangDictionary dictionary = CfmlLangInfo.loadDictionary("scopes.txt", CfmlLanguage.CF11);
+      assertTrue(Arrays.asList(dictionary.myPredefinedFunctionsInLowCase).contains("arrayappend"));
+    }).assertTiming();
+  }
+
+  private static CfmlAttributeDescription findAttribute(CfmlTagDescription tag, String name) {
+    for (CfmlAttributeDescription attribute : tag.getAttributes()) {
+      if (name.equals(attribute.getName())) return attribute;
+    }
+    fail("No attribute " + name);
+    return null;
+  }
+
+  private static CfmlLangInfo.CfmlLangDictionary roundTrip(CfmlLangInfo.CfmlLangDictionary dictionary) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      CfmlLangDictionaryStorage.write(dictionary, out);
+    }
+    return CfmlLangDictionaryStorage.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+}
@@ -48,6 +48,7 @@ import com.intellij.util.*;
 import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.lang.dart.DartBundle;
 import com.jetbrains.lang.dart.DartFileType;
+import com.jetbrains.lang.dart.analyzer.DartServerRequestCoalescer.PendingRequest;
 import com.jetbrains.lang.dart.assists.DartQuickAssistIntention;
 import com.jetbrains.lang.dart.assists.DartQuickAssistIntentionListener;
 import com.jetbrains.lang.dart.fixes.DartQuickFix;
@@ -147,6 +148,7 @@ public final class DartAnalysisServerService implements Disposable {
   @NotNull private final Queue<SearchResultsSet> mySearchResultSets = new LinkedList<>();
 
   @NotNull private final DartServerData myServerData;
+  @NotNull private final DartServerRequestCoalescer myRequestCoalescer = new DartServerRequestCoalescer();
 
   private volatile boolean myAnalysisInProgress;
   private volatile boolean myPubListInProgress;
@@ -434,6 +436,14 @@ public final class DartAnalysisServerService implements Disposable {
            : FileOffsetsManager.getInstance().getOriginalOffset(file, convertedOffset);
   }
 
+  /**
+   * Modification stamp of the file content that is or is about to be visible to the server: the document if the file has one, the file otherwise.
+   */
+  private static long getFileStamp(@NotNull final VirtualFile file) {
+    final Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+    return document != null ? document.getModificationStamp() : file.getModificationStamp();
+  }
+
   public int[] getConvertedOffsets(@NotNull final VirtualFile file, final int[] _offsets) {
     final int[] offsets = new int[_offsets.length];
     for (int i = 0; i < _offsets.length; i++) {
@@ -764,6 +774,20 @@ public final class DartAnalysisServerService implements Disposable {
     return myServerVersion;
   }
 
+  /**
+   * @return number of requests sent to the server that callers are waiting for and that haven't been responded yet
+   */
+  public int getRequestsInFlightCount() {
+    return myRequestCoalescer.getInFlightRequestCount();
+  }
+
+  /**
+   * @return average response time in milliseconds for the given server method, like {@code analysis_getHover}, or -1 if unknown
+   */
+  public long getAverageResponseTime(@NonNls @NotNull String method) {
+    return myRequestCoalescer.getAverageLatency(method);
+  }
+
   @NotNull
   public Project getProject() {
     return myProject;
@@ -1050,30 +1074,29 @@ public final class DartAnalysisServerService implements Disposable {
     }
 
     final String filePath = FileUtil.toSystemDependentName(file.getPath());
-    final List<HoverInformation> result = new ArrayList<>();
-
-    final CountDownLatch latch = new CountDownLatch(1);
     final int offset = getOriginalOffset(file, _offset);
-    server.analysis_getHover(filePath, offset, new GetHoverConsumer() {
-      @Override
-      public void computedHovers(HoverInformation[] hovers) {
-        Collections.addAll(result, hovers);
-        latch.countDown();
-      }
+    final PendingRequest<HoverInformation[]> request =
+      myRequestCoalescer.send("analysis_getHover", filePath, getFileStamp(file), true, Collections.singletonList(offset), pending ->
+        server.analysis_getHover(filePath, offset, new GetHoverConsumer() {
+          @Override
+          public void computedHovers(HoverInformation[] hovers) {
+            pending.complete(hovers);
+          }
 
-      @Override
-      public void onError(RequestError error) {
-        logError("analysis_getHover()", filePath, error);
-        latch.countDown();
-      }
-    });
+          @Override
+          public void onError(RequestError error) {
+            logError("analysis_getHover()", filePath, error);
+            pending.complete(null);
+          }
+        }));
 
-    awaitForLatchCheckingCanceled(server, latch, GET_HOVER_TIMEOUT);
+    awaitForLatchCheckingCanceled(server, request.getLatch(), GET_HOVER_TIMEOUT);
 
-    if (latch.getCount() > 0) {
+    if (!request.isDone()) {
       logTookTooLongMessage("analysis_getHover", GET_HOVER_TIMEOUT, filePath);
     }
-    return result;
+    final HoverInformation[] hovers = request.getResult();
+    return hovers != null ? new ArrayList<>(Arrays.asList(hovers)) : new ArrayList<>();
   }
 
   @Nullable
@@ -1086,46 +1109,45 @@ public final class DartAnalysisServerService implements Disposable {
     }
 
     final String filePath = FileUtil.toSystemDependentName(file.getPath());
-    final Ref<List<DartServerData.DartNavigationRegion>> resultRef = Ref.create();
-
-    final CountDownLatch latch = new CountDownLatch(1);
     LOG.debug("analysis_getNavigation(" + filePath + ")");
 
     final int offset = getOriginalOffset(file, _offset);
-    server.analysis_getNavigation(filePath, offset, length, new GetNavigationConsumer() {
-      @Override
-      public void computedNavigation(final List<NavigationRegion> regions) {
-        final List<DartServerData.DartNavigationRegion> dartRegions = new ArrayList<>(regions.size());
-        for (NavigationRegion region : regions) {
-          if (region.getLength() > 0) {
-            dartRegions.add(DartServerData.createDartNavigationRegion(DartAnalysisServerService.this, file, region));
-          }
-        }
+    final PendingRequest<List<DartServerData.DartNavigationRegion>> request =
+      myRequestCoalescer.send("analysis_getNavigation", filePath, getFileStamp(file), false, Arrays.asList(offset, length), pending ->
+        server.analysis_getNavigation(filePath, offset, length, new GetNavigationConsumer() {
+          @Override
+          public void computedNavigation(final List<NavigationRegion> regions) {
+            final List<DartServerData.DartNavigationRegion> dartRegions = new ArrayList<>(regions.size());
+            for (NavigationRegion region : regions) {
+              if (region.getLength() > 0) {
+                dartRegions.add(DartServerData.createDartNavigationRegion(DartAnalysisServerService.this, file, region));
+              }
+            }
 
-        resultRef.set(dartRegions);
-        latch.countDown();
-      }
+            pending.complete(dartRegions);
+          }
 
-      @Override
-      public void onError(final RequestError error) {
-        if (RequestErrorCode.GET_NAVIGATION_INVALID_FILE.equals(error.getCode())) {
-          LOG.info(getShortErrorMessage("analysis_getNavigation()", filePath, error));
-        }
-        else {
-          logError("analysis_getNavigation()", filePath, error);
-        }
+          @Override
+          public void onError(final RequestError error) {
+            if (RequestErrorCode.GET_NAVIGATION_INVALID_FILE.equals(error.getCode())) {
+              LOG.info(getShortErrorMessage("analysis_getNavigation()", filePath, error));
+            }
+            else {
+              logError("analysis_getNavigation()", filePath, error);
+            }
 
-        latch.countDown();
-      }
-    });
+            pending.complete(null);
+          }
+        }));
 
-    awaitForLatchCheckingCanceled(server, latch, GET_NAVIGATION_TIMEOUT);
+    awaitForLatchCheckingCanceled(server, request.getLatch(), GET_NAVIGATION_TIMEOUT);
 
-    if (latch.getCount() > 0) {
+    if (!request.isDone()) {
       logTookTooLongMessage("analysis_getNavigation", GET_NAVIGATION_TIMEOUT, filePath);
     }
 
-    return resultRef.get();
+    final List<DartServerData.DartNavigationRegion> result = request.getResult();
+    return result != null ? new ArrayList<>(result) : null;
   }
 
   @NotNull
@@ -1136,32 +1158,32 @@ public final class DartAnalysisServerService implements Disposable {
     }
 
     final String filePath = FileUtil.toSystemDependentName(file.getPath());
-    final List<SourceChange> results = new ArrayList<>();
-    final CountDownLatch latch = new CountDownLatch(1);
     final int offset = getOriginalOffset(file, _offset);
     final int length = getOriginalOffset(file, _offset + _length) - offset;
-    server.edit_getAssists(filePath, offset, length, new GetAssistsConsumer() {
-      @Override
-      public void computedSourceChanges(List<SourceChange> sourceChanges) {
-        results.addAll(sourceChanges);
-        latch.countDown();
-      }
+    final PendingRequest<List<SourceChange>> request =
+      myRequestCoalescer.send("edit_getAssists", filePath, getFileStamp(file), true, Arrays.asList(offset, length), pending ->
+        server.edit_getAssists(filePath, offset, length, new GetAssistsConsumer() {
+          @Override
+          public void computedSourceChanges(List<SourceChange> sourceChanges) {
+            pending.complete(sourceChanges);
+          }
 
-      @Override
-      public void onError(final RequestError error) {
-        logError("edit_getAssists()", filePath, error);
-        latch.countDown();
-      }
-    });
+          @Override
+          public void onError(final RequestError error) {
+            logError("edit_getAssists()", filePath, error);
+            pending.complete(null);
+          }
+        }));
 
     final long timeout = ApplicationManager.getApplication().isDispatchThread() ? GET_ASSISTS_TIMEOUT_EDT : GET_ASSISTS_TIMEOUT;
 
-    awaitForLatchCheckingCanceled(server, latch, timeout);
+    awaitForLatchCheckingCanceled(server, request.getLatch(), timeout);
 
-    if (latch.getCount() > 0) {
+    if (!request.isDone()) {
       logTookTooLongMessage("edit_getAssists", timeout, filePath);
     }
-    return results;
+    final List<SourceChange> results = request.getResult();
+    return results != null ? new ArrayList<>(results) : new ArrayList<>();
   }
 
   public boolean edit_isPostfixCompletionApplicable(VirtualFile file, int _offset, String key) {
@@ -1268,29 +1290,29 @@ public final class DartAnalysisServerService implements Disposable {
     }
 
     final String filePath = FileUtil.toSystemDependentName(file.getPath());
-    final Ref<SourceChange> resultRef = Ref.create();
-    final CountDownLatch latch = new CountDownLatch(1);
     final int offset = getOriginalOffset(file, _offset);
-    server.edit_getStatementCompletion(filePath, offset, new GetStatementCompletionConsumer() {
-      @Override
-      public void computedSourceChange(SourceChange sourceChange) {
-        resultRef.set(sourceChange);
-        latch.countDown();
-      }
+    final PendingRequest<SourceChange> request =
+      myRequestCoalescer.send("edit_getStatementCompletion", filePath, getFileStamp(file),
+                              false, Collections.singletonList(offset), pending ->
+        server.edit_getStatementCompletion(filePath, offset, new GetStatementCompletionConsumer() {
+          @Override
+          public void computedSourceChange(SourceChange sourceChange) {
+            pending.complete(sourceChange);
+          }
 
-      @Override
-      public void onError(RequestError error) {
-        latch.countDown();
-        logError("edit_getStatementCompletion()", filePath, error);
-      }
-    });
+          @Override
+          public void onError(RequestError error) {
+            pending.complete(null);
+            logError("edit_getStatementCompletion()", filePath, error);
+          }
+        }));
 
-    awaitForLatchCheckingCanceled(server, latch, STATEMENT_COMPLETION_TIMEOUT);
+    awaitForLatchCheckingCanceled(server, request.getLatch(), STATEMENT_COMPLETION_TIMEOUT);
 
-    if (latch.getCount() > 0) {
+    if (!request.isDone()) {
       logTookTooLongMessage("edit_getStatementCompletion", STATEMENT_COMPLETION_TIMEOUT, filePath);
     }
-    return resultRef.get();
+    return request.getResult();
   }
 
   public void diagnostic_getServerPort(GetServerPortConsumer consumer) {
@@ -1317,27 +1339,29 @@ public final class DartAnalysisServerService implements Disposable {
     }
 
     final String filePath = FileUtil.toSystemDependentName(file.getPath());
-    final CountDownLatch latch = new CountDownLatch(1);
     final int offset = getOriginalOffset(file, _offset);
-    server.edit_getFixes(filePath, offset, new GetFixesConsumer() {
-      @Override
-      public void computedFixes(final List<AnalysisErrorFixes> fixes) {
-        consumer.consume(fixes);
-        latch.countDown();
-      }
+    final PendingRequest<List<AnalysisErrorFixes>> request =
+      myRequestCoalescer.send("edit_getFixes", filePath, getFileStamp(file), false, Collections.singletonList(offset), pending ->
+        server.edit_getFixes(filePath, offset, new GetFixesConsumer() {
+          @Override
+          public void computedFixes(final List<AnalysisErrorFixes> fixes) {
+            pending.complete(fixes);
+          }
 
-      @Override
-      public void onError(final RequestError error) {
-        logError("edit_getFixes()", filePath, error);
-        latch.countDown();
-      }
-    });
+          @Override
+          public void onError(final RequestError error) {
+            logError("edit_getFixes()", filePath, error);
+            pending.complete(null);
+          }
+        }));
+    // each consumer gets its own list, so that it can't affect the others that share the same response
+    request.whenCompleted(fixes -> consumer.consume(new ArrayList<>(fixes)));
 
     final long timeout = ApplicationManager.getApplication().isDispatchThread() ? GET_FIXES_TIMEOUT_EDT : GET_FIXES_TIMEOUT;
 
-    awaitForLatchCheckingCanceled(server, latch, timeout);
+    awaitForLatchCheckingCanceled(server, request.getLatch(), timeout);
 
-    if (latch.getCount() > 0) {
+    if (!request.isDone()) {
       logTookTooLongMessage("edit_getFixes", timeout, filePath);
     }
   }
@@ -1448,28 +1472,28 @@ public final class DartAnalysisServerService implements Disposable {
     }
 
     final String filePath = FileUtil.toSystemDependentName(file.getPath());
-    final Ref<Pair<String, SourceChange>> resultRef = new Ref<>();
-    final CountDownLatch latch = new CountDownLatch(1);
     final int offset = getOriginalOffset(file, _offset);
-    server.completion_getSuggestionDetails(filePath, id, label, offset, new GetSuggestionDetailsConsumer() {
-      @Override
-      public void computedDetails(String completion, SourceChange change) {
-        resultRef.set(new Pair<>(completion, change));
-        latch.countDown();
-      }
+    final PendingRequest<Pair<String, SourceChange>> request =
+      myRequestCoalescer.send("completion_getSuggestionDetails", filePath, getFileStamp(file),
+                              false, Arrays.asList(id, label, offset), pending ->
+        server.completion_getSuggestionDetails(filePath, id, label, offset, new GetSuggestionDetailsConsumer() {
+          @Override
+          public void computedDetails(String completion, SourceChange change) {
+            pending.complete(new Pair<>(completion, change));
+          }
 
-      @Override
-      public void onError(RequestError requestError) {
-        latch.countDown();
-      }
-    });
+          @Override
+          public void onError(RequestError requestError) {
+            pending.complete(null);
+          }
+        }));
 
-    awaitForLatchCheckingCanceled(server, latch, GET_SUGGESTION_DETAILS_TIMEOUT);
+    awaitForLatchCheckingCanceled(server, request.getLatch(), GET_SUGGESTION_DETAILS_TIMEOUT);
 
-    if (latch.getCount() > 0) {
+    if (!request.isDone()) {
       logTookTooLongMessage("completion_getSuggestionDetails", GET_SUGGESTION_DETAILS_TIMEOUT, filePath);
     }
-    return resultRef.get();
+    return request.getResult();
   }
 
   public @Nullable Pair<String, SourceChange> completion_getSuggestionDetails2(@NotNull VirtualFile file,
@@ -1482,28 +1506,28 @@ public final class DartAnalysisServerService implements Disposable {
     }
 
     final String filePath = FileUtil.toSystemDependentName(file.getPath());
-    final Ref<Pair<String, SourceChange>> resultRef = new Ref<>();
-    final CountDownLatch latch = new CountDownLatch(1);
     final int offset = getOriginalOffset(file, _offset);
-    server.completion_getSuggestionDetails2(filePath, offset, completion, libraryUri, new GetSuggestionDetailsConsumer2() {
-      @Override
-      public void computedDetails(String completion, SourceChange change) {
-        resultRef.set(new Pair<>(completion, change));
-        latch.countDown();
-      }
+    final PendingRequest<Pair<String, SourceChange>> request =
+      myRequestCoalescer.send("completion_getSuggestionDetails2", filePath, getFileStamp(file),
+                              false, Arrays.asList(offset, completion, libraryUri), pending ->
+        server.completion_getSuggestionDetails2(filePath, offset, completion, libraryUri, new GetSuggestionDetailsConsumer2() {
+          @Override
+          public void computedDetails(String completion, SourceChange change) {
+            pending.complete(new Pair<>(completion, change));
+          }
 
-      @Override
-      public void onError(RequestError requestError) {
-        latch.countDown();
-      }
-    });
+          @Override
+          public void onError(RequestError requestError) {
+            pending.complete(null);
+          }
+        }));
 
-    awaitForLatchCheckingCanceled(server, latch, GET_SUGGESTION_DETAILS2_TIMEOUT);
+    awaitForLatchCheckingCanceled(server, request.getLatch(), GET_SUGGESTION_DETAILS2_TIMEOUT);
 
-    if (latch.getCount() > 0) {
+    if (!request.isDone()) {
       logTookTooLongMessage("completion_getSuggestionDetails2", GET_SUGGESTION_DETAILS2_TIMEOUT, filePath);
     }
-    return resultRef.get();
+    return request.getResult();
   }
 
 
@@ -2266,6 +2290,7 @@ public final class DartAnalysisServerService implements Disposable {
       myVisibleFiles.clear();
       myChangedDocuments.clear();
       myServerData.clearData();
+      myRequestCoalescer.clear();
       myRootsHandler.onServerStopped();
 
       if (myProject.isOpen() && !myProject.isDisposed()) {
@@ -0,0 +1,235 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.Consumer;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sits in front of request/response style Analysis Server requests that callers wait for synchronously.
+ * <ul>
+ * <li>A request equal to one that is still in flight (same method, file, file content version, offset and arguments) is not sent again,
+ * the caller waits for the response to the request that has already been sent.</li>
+ * <li>Requests that follow the caret (hover, assists) supersede earlier requests of the same kind for the same file:
+ * Analysis Server can't cancel a request, but callers waiting for a superseded one stop waiting and get no result.</li>
+ * </ul>
+ * Number of requests in flight and average response time per method are available for diagnostics and are logged in debug mode.
+ */
+final class DartServerRequestCoalescer {
+  private static final Logger LOG = Logger.getInstance(DartServerRequestCoalescer.class);
+
+  // a request without response for that long is not waited for by anyone anymore, an equal request is sent again
+  private static final long ABANDONED_REQUEST_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+  private final long myAbandonedRequestTimeout;
+  private final Map<List<Object>, PendingRequest<?>> myPendingRequests = new ConcurrentHashMap<>();
+  private final Map<String, Latency> myLatencies = new ConcurrentHashMap<>();
+
+  DartServerRequestCoalescer() {
+    this(ABANDONED_REQUEST_TIMEOUT);
+  }
+
+  DartServerRequestCoalescer(long abandonedRequestTimeout) {
+    myAbandonedRequestTimeout = abandonedRequestTimeout;
+  }
+
+  /**
+   * @param method          Analysis Server method name, like {@code analysis_getHover}
+   * @param filePath        file the request is about
+   * @param fileStamp       modification stamp of the file content the request is about, so that requests made
+   *                        before and after an edit are never coalesced
+   * @param supersedesOther if {@code true} then other requests in flight with the same {@code method} and {@code filePath}
+   *                        but different {@code args} are superseded by this one
+   * @param args            everything else that makes the response different: offset, length, etc.
+   * @param sender          sends the request to the server; it must call {@link PendingRequest#complete} when the response
+   *                        (or an error) is received. Not called if an equal request is already in flight.
+   */
+  @NotNull
+  <T> PendingRequest<T> send(@NonNls @NotNull String method,
+                             @NotNull String filePath,
+                             long fileStamp,
+                             boolean supersedesOther,
+                             @NotNull List<?> args,
+                             @NotNull Consumer<? super PendingRequest<T>> sender) {
+    final List<Object> key = new ArrayList<>(args.size() + 3);
+    key.add(method);
+    key.add(filePath);
+    key.add(fileStamp);
+    key.addAll(args);
+
+    if (supersedesOther) {
+      for (PendingRequest<?> request : myPendingRequests.values()) {
+        if (request.myMethod.equals(method) && request.myFilePath.equals(filePath) && !request.myKey.equals(key)) {
+          request.supersede();
+        }
+      }
+    }
+
+    final PendingRequest<T> request = new PendingRequest<>(this, key, method, filePath);
+    //noinspection unchecked
+    final PendingRequest<T> existing = (PendingRequest<T>)myPendingRequests.putIfAbsent(key, request);
+    if (existing != null) {
+      if (System.currentTimeMillis() - existing.myStartTime < myAbandonedRequestTimeout) {
+        LOG.debug(method + "(" + filePath + ") is already in flight, waiting for its response");
+        return existing;
+      }
+
+      existing.supersede();
+      myPendingRequests.put(key, request);
+    }
+
+    sender.consume(request);
+    return request;
+  }
+
+  /**
+   * Called when the server is stopped: responses to the requests in flight will never come.
+   */
+  void clear() {
+    for (PendingRequest<?> request : myPendingRequests.values()) {
+      request.supersede();
+    }
+  }
+
+  int getInFlightRequestCount() {
+    return myPendingRequests.size();
+  }
+
+  /**
+   * @return average time in milliseconds between sending a request with the given method and receiving its response, or -1 if unknown
+   */
+  long getAverageLatency(@NonNls @NotNull String method) {
+    final Latency latency = myLatencies.get(method);
+    return latency == null ? -1 : latency.getAverage();
+  }
+
+  private void onDone(@NotNull PendingRequest<?> request, boolean responded) {
+    myPendingRequests.remove(request.myKey, request);
+    if (!responded) return;
+
+    final long time = System.currentTimeMillis() - request.myStartTime;
+    final Latency latency = myLatencies.computeIfAbsent(request.myMethod, __ -> new Latency());
+    latency.add(time);
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(request.myMethod + "(" + request.myFilePath + ") took " + time + "ms, average " + latency.getAverage() +
+                "ms, requests in flight: " + myPendingRequests.size());
+    }
+  }
+
+  static final class PendingRequest<T> {
+    private final @NotNull DartServerRequestCoalescer myCoalescer;
+    private final @NotNull List<Object> myKey;
+    private final @NotNull String myMethod;
+    private final @NotNull String myFilePath;
+    private final long myStartTime = System.currentTimeMillis();
+    private final CountDownLatch myLatch = new CountDownLatch(1);
+    private final List<Consumer<? super T>> myResultConsumers = new ArrayList<>();
+    private volatile @Nullable T myResult;
+    private volatile boolean mySuperseded;
+
+    private PendingRequest(@NotNull DartServerRequestCoalescer coalescer,
+                           @NotNull List<Object> key,
+                           @NotNull String method,
+                           @NotNull String filePath) {
+      myCoalescer = coalescer;
+      myKey = key;
+      myMethod = method;
+      myFilePath = filePath;
+    }
+
+    /**
+     * @param result server response, {@code null} in case of error
+     */
+    void complete(@Nullable T result) {
+      final List<Consumer<? super T>> consumers;
+      synchronized (myResultConsumers) {
+        if (isDone()) return;
+        myResult = result;
+        myLatch.countDown();
+        consumers = new ArrayList<>(myResultConsumers);
+        myResultConsumers.clear();
+      }
+
+      myCoalescer.onDone(this, true);
+
+      if (result != null) {
+        for (Consumer<? super T> consumer : consumers) {
+          consumer.consume(result);
+        }
+      }
+    }
+
+    private void supersede() {
+      synchronized (myResultConsumers) {
+        if (isDone()) return;
+        mySuperseded = true;
+        myLatch.countDown();
+        myResultConsumers.clear();
+      }
+
+      myCoalescer.onDone(this, false);
+    }
+
+    /**
+     * {@code consumer} is notified about a non-null result immediately if the response has already been received, or later when it is received.
+     * It is not notified if the request is superseded.
+     */
+    void whenCompleted(@NotNull Consumer<? super T> consumer) {
+      synchronized (myResultConsumers) {
+        if (!isDone()) {
+          myResultConsumers.add(consumer);
+          return;
+        }
+      }
+
+      final T result = myResult;
+      if (!mySuperseded && result != null) {
+        consumer.consume(result);
+      }
+    }
+
+    @NotNull
+    CountDownLatch getLatch() {
+      return myLatch;
+    }
+
+    boolean isDone() {
+      return myLatch.getCount() == 0;
+    }
+
+    boolean isSuperseded() {
+      return mySuperseded;
+    }
+
+    @Nullable
+    T getResult() {
+      return mySuperseded ? null : myResult;
+    }
+  }
+
+  private static final class Latency {
+    private final AtomicLong myCount = new AtomicLong();
+    private final AtomicLong myTotalTime = new AtomicLong();
+
+    private void add(long time) {
+      myTotalTime.addAndGet(time);
+      myCount.incrementAndGet();
+    }
+
+    private long getAverage() {
+      final long count = myCount.get();
+      return count == 0 ? -1 : myTotalTime.get() / count;
+    }
+  }
+}
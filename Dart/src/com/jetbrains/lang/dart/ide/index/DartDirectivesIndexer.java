@@ -0,0 +1,248 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.index;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.tree.IElementType;
+import com.jetbrains.lang.dart.DartComponentType;
+import com.jetbrains.lang.dart.lexer.DartLexer;
+import com.jetbrains.lang.dart.util.DartPsiImplUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.jetbrains.lang.dart.DartTokenTypes.*;
+import static com.jetbrains.lang.dart.DartTokenTypesSets.*;
+import static com.jetbrains.lang.dart.ide.index.DartImportOrExportInfo.Kind;
+
+/**
+ * Collects library name, 'part of' flag, imports, exports and part URIs of a Dart file using the lexer only.
+ * Directives are top-level statements that are easy to recognize in the token stream, so indexes that need nothing
+ * but directives don't have to wait for the file to be parsed.
+ * The result is expected to match what {@link DartIndexUtil#indexFile} collects from PSI for the same file.
+ */
+final class DartDirectivesIndexer {
+  private final @NotNull CharSequence myText;
+  private final @NotNull Lexer myLexer = new DartLexer();
+  private final @NotNull DartFileIndexData myResult = new DartFileIndexData();
+
+  private DartDirectivesIndexer(@NotNull CharSequence text) {
+    myText = text;
+  }
+
+  static @NotNull DartFileIndexData indexDirectives(@NotNull CharSequence text) {
+    final DartDirectivesIndexer indexer = new DartDirectivesIndexer(text);
+    indexer.run();
+    return indexer.myResult;
+  }
+
+  private void run() {
+    myLexer.start(myText);
+
+    int depth = 0;
+    boolean statementStart = true;
+
+    IElementType type;
+    while ((type = tokenType()) != null) {
+      if (depth == 0 && statementStart) {
+        if (type == AT) {
+          skipMetadata();
+          continue;
+        }
+        if (type == LIBRARY || type == IMPORT || type == EXPORT || type == PART) {
+          processDirective(type);
+          continue;
+        }
+      }
+
+      statementStart = false;
+      if (type == LBRACE || type == LPAREN || type == LBRACKET) {
+        depth++;
+      }
+      else if (type == RBRACE || type == RPAREN || type == RBRACKET) {
+        depth = Math.max(0, depth - 1);
+        statementStart = depth == 0 && type == RBRACE;
+      }
+      else if (type == SEMICOLON) {
+        statementStart = depth == 0;
+      }
+      myLexer.advance();
+    }
+  }
+
+  /**
+   * Returns the type of the current token skipping whitespaces and comments
+   */
+  private @Nullable IElementType tokenType() {
+    IElementType type = myLexer.getTokenType();
+    while (type == WHITE_SPACE || COMMENTS.contains(type)) {
+      myLexer.advance();
+      type = myLexer.getTokenType();
+    }
+    return type;
+  }
+
+  private @NotNull String tokenText() {
+    return myText.subSequence(myLexer.getTokenStart(), myLexer.getTokenEnd()).toString();
+  }
+
+  private static boolean isId(@Nullable IElementType type) {
+    return type == IDENTIFIER || BUILT_IN_IDENTIFIERS.contains(type);
+  }
+
+  /**
+   * Tokens that can't appear inside a directive; a directive without ';' ends at any of them
+   */
+  private static boolean isOutsideOfDirective(@Nullable IElementType type) {
+    return type == null ||
+           type == LBRACE || type == RBRACE || type == AT ||
+           type == LIBRARY || type == IMPORT || type == EXPORT || type == PART;
+  }
+
+  private void skipMetadata() {
+    myLexer.advance(); // '@'
+    while (isId(tokenType()) || tokenType() == DOT) {
+      myLexer.advance();
+    }
+    if (tokenType() == LPAREN) {
+      skipParentheses();
+    }
+  }
+
+  private void skipParentheses() {
+    int depth = 0;
+    IElementType type;
+    while ((type = tokenType()) != null) {
+      if (type == LPAREN) depth++;
+      if (type == RPAREN) depth--;
+      myLexer.advance();
+      if (depth == 0) return;
+    }
+  }
+
+  private void processDirective(@NotNull IElementType keyword) {
+    myLexer.advance();
+
+    if (keyword == LIBRARY) {
+      processLibraryStatement();
+    }
+    else if (keyword == PART) {
+      if (tokenType() == OF) {
+        myResult.setIsPart(true);
+      }
+      else {
+        final String uri = readUri();
+        if (uri != null) {
+          myResult.addPartUri(uri);
+        }
+      }
+    }
+    else {
+      processImportOrExportStatement(keyword == IMPORT ? Kind.Import : Kind.Export);
+    }
+
+    skipToDirectiveEnd();
+  }
+
+  private void processLibraryStatement() {
+    final StringBuilder name = new StringBuilder();
+    IElementType type;
+    while ((type = tokenType()) == DOT || isId(type)) {
+      if (type != DOT) {
+        if (name.length() > 0) {
+          name.append('.');
+        }
+        name.append(tokenText());
+      }
+      myLexer.advance();
+    }
+
+    // same as PsiTreeUtil.getChildOfType(psiFile, DartLibraryStatement.class): the first library statement wins
+    if (name.length() > 0 && myResult.getLibraryName() == null) {
+      myResult.setLibraryName(name.toString());
+    }
+  }
+
+  private void processImportOrExportStatement(@NotNull Kind kind) {
+    final String uri = readUri();
+    if (uri == null) return;
+
+    String importPrefix = null;
+    final Set<String> showComponentNames = new HashSet<>();
+    final Set<String> hideComponentNames = new HashSet<>();
+    Set<String> combinatorNames = null;
+
+    IElementType type;
+    while ((type = tokenType()) != SEMICOLON && !isOutsideOfDirective(type)) {
+      if (type == IF) {
+        // configurable import: if (dart.library.io) 'io_impl.dart'
+        myLexer.advance();
+        if (tokenType() == LPAREN) {
+          skipParentheses();
+        }
+        readUri();
+        continue;
+      }
+
+      if (type == AS && kind == Kind.Import) {
+        myLexer.advance();
+        if (isId(tokenType())) {
+          importPrefix = tokenText();
+          myLexer.advance();
+        }
+        continue;
+      }
+
+      if (type == SHOW) {
+        combinatorNames = showComponentNames;
+      }
+      else if (type == HIDE) {
+        combinatorNames = hideComponentNames;
+      }
+      else if (combinatorNames != null && isId(type)) {
+        combinatorNames.add(tokenText());
+      }
+      myLexer.advance();
+    }
+
+    myResult.addImportInfo(new DartImportOrExportInfo(kind, uri, importPrefix, showComponentNames, hideComponentNames));
+    myResult.addComponentInfo(importPrefix, new DartComponentInfo(DartComponentType.LABEL, null));
+  }
+
+  /**
+   * Reads a string literal at the current position and returns its unquoted value, the same way
+   * {@link DartPsiImplUtil#getUriString} does for the uri element.
+   */
+  private @Nullable String readUri() {
+    final IElementType type = tokenType();
+    final int start = myLexer.getTokenStart();
+
+    if (type == RAW_SINGLE_QUOTED_STRING || type == RAW_TRIPLE_QUOTED_STRING) {
+      myLexer.advance();
+    }
+    else if (type == OPEN_QUOTE) {
+      myLexer.advance();
+      IElementType next;
+      while ((next = myLexer.getTokenType()) != null && next != SEMICOLON) {
+        myLexer.advance();
+        if (next == CLOSING_QUOTE) break;
+      }
+    }
+    else {
+      return null;
+    }
+
+    final int end = myLexer.getTokenType() == null ? myText.length() : myLexer.getTokenStart();
+    final String quotedString = myText.subSequence(start, end).toString().trim();
+    return DartPsiImplUtil.getUnquotedDartStringAndItsRange(quotedString).first;
+  }
+
+  private void skipToDirectiveEnd() {
+    IElementType type;
+    while (!isOutsideOfDirective(type = tokenType())) {
+      myLexer.advance();
+      if (type == SEMICOLON) return;
+    }
+  }
+}
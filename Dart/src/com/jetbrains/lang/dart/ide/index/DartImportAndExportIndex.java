@@ -38,7 +38,7 @@ public final class DartImportAndExportIndex extends SingleEntryFileBasedIndexExt
       @Nullable
       @Override
       protected List<DartImportOrExportInfo> computeValue(@NotNull FileContent inputData) {
-        return DartIndexUtil.indexFile(inputData).getImportAndExportInfos();
+        return DartIndexUtil.indexDirectives(inputData).getImportAndExportInfos();
       }
     };
   }
@@ -19,10 +19,14 @@ import static com.jetbrains.lang.dart.ide.index.DartImportOrExportInfo.Kind;
 
 public final class DartIndexUtil {
   // inc when change parser
-  public static final int INDEX_VERSION = 25;
+  public static final int INDEX_VERSION = 26;
 
   private static final Key<DartFileIndexData> ourDartCachesData = Key.create("dart.caches.index.data");
+  private static final Key<DartFileIndexData> ourDartDirectivesData = Key.create("dart.caches.index.directives.data");
 
+  /**
+   * Computes index data for the file once and shares it between all Dart indexes that are updated with the same file content.
+   */
   public static DartFileIndexData indexFile(FileContent content) {
     DartFileIndexData indexData = content.getUserData(ourDartCachesData);
     if (indexData != null) return indexData;
@@ -31,12 +35,33 @@ public final class DartIndexUtil {
       indexData = content.getUserData(ourDartCachesData);
       if (indexData != null) return indexData;
       indexData = indexFileRoots(content.getPsiFile());
+      content.putUserData(ourDartCachesData, indexData);
     }
 
     return indexData;
   }
 
-  private static DartFileIndexData indexFileRoots(PsiFile psiFile) {
+  /**
+   * Same as {@link #indexFile(FileContent)} but only library name, 'part of' flag, imports, exports and part URIs are guaranteed
+   * to be filled in. Unless the full data has already been computed for this content, the file is not parsed: see {@link DartDirectivesIndexer}.
+   */
+  public static DartFileIndexData indexDirectives(FileContent content) {
+    DartFileIndexData indexData = content.getUserData(ourDartCachesData);
+    if (indexData != null) return indexData;
+    indexData = content.getUserData(ourDartDirectivesData);
+    if (indexData != null) return indexData;
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized (content) {
+      indexData = content.getUserData(ourDartDirectivesData);
+      if (indexData != null) return indexData;
+      indexData = DartDirectivesIndexer.indexDirectives(content.getContentAsText());
+      content.putUserData(ourDartDirectivesData, indexData);
+    }
+
+    return indexData;
+  }
+
+  static DartFileIndexData indexFileRoots(PsiFile psiFile) {
     DartFileIndexData result = new DartFileIndexData();
 
     final DartLibraryStatement libraryStatement = PsiTreeUtil.getChildOfType(psiFile, DartLibraryStatement.class);
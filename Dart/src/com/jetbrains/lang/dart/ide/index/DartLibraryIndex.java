@@ -186,7 +186,7 @@ const Map<String, LibraryInfo> LIBRARIES = const {
     @Override
     @NotNull
     public Map<String, Void> map(@NotNull final FileContent inputData) {
-      final DartFileIndexData indexData = DartIndexUtil.indexFile(inputData);
+      final DartFileIndexData indexData = DartIndexUtil.indexDirectives(inputData);
 
       return indexData.isPart() || indexData.getLibraryName() == null ? Collections.emptyMap()
                                                                       : Collections.singletonMap(indexData.getLibraryName(), null);
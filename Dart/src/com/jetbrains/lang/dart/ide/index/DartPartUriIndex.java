@@ -33,7 +33,7 @@ public class DartPartUriIndex extends SingleEntryFileBasedIndexExtension<List<St
       @Nullable
       @Override
       protected List<String> computeValue(@NotNull FileContent inputData) {
-        return DartIndexUtil.indexFile(inputData).getPartUris();
+        return DartIndexUtil.indexDirectives(inputData).getPartUris();
       }
     };
   }
@@ -0,0 +1,99 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.runner.server.vmService;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Maps token positions of a script to zero-based lines and columns. Kept as sorted primitive arrays: a table of a large
+ * library has tens of thousands of entries, which as boxed map entries cost more than the script source itself.
+ */
+final class DartTokenPosTable {
+  private final int[] myTokenPositions;
+  private final int[] myLines;
+  private final int[] myColumns;
+
+  private DartTokenPosTable(int[] tokenPositions, int[] lines, int[] columns) {
+    myTokenPositions = tokenPositions;
+    myLines = lines;
+    myColumns = columns;
+  }
+
+  static @NotNull DartTokenPosTable create(@NotNull List<List<Integer>> tokenPosTable) {
+    // Each subarray consists of a line number followed by (tokenPos, columnNumber) pairs
+    // see https://github.com/dart-lang/vm_service_drivers/blob/master/dart/tool/service.md#script
+    int size = 0;
+    for (List<Integer> lineAndPairs : tokenPosTable) {
+      size += (lineAndPairs.size() - 1) / 2;
+    }
+
+    int[] tokenPositions = new int[size];
+    int[] lines = new int[size];
+    int[] columns = new int[size];
+    boolean sorted = true;
+    int index = 0;
+
+    for (List<Integer> lineAndPairs : tokenPosTable) {
+      final Iterator<Integer> iterator = lineAndPairs.iterator();
+      if (!iterator.hasNext()) continue;
+      final int line = Math.max(0, iterator.next() - 1);
+      while (index < size && iterator.hasNext()) {
+        final int tokenPos = iterator.next();
+        if (!iterator.hasNext()) break;
+        tokenPositions[index] = tokenPos;
+        lines[index] = line;
+        columns[index] = Math.max(0, iterator.next() - 1);
+        sorted &= index == 0 || tokenPositions[index - 1] < tokenPos;
+        index++;
+      }
+    }
+
+    // token positions are source offsets, so the VM normally sends them in ascending order already
+    return sorted ? new DartTokenPosTable(tokenPositions, lines, columns) : sort(tokenPositions, lines, columns, index);
+  }
+
+  private static DartTokenPosTable sort(int[] tokenPositions, int[] lines, int[] columns, int size) {
+    final long[] order = new long[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = (long)tokenPositions[i] << 32 | i;
+    }
+    Arrays.sort(order);
+
+    int[] sortedTokenPositions = new int[size];
+    int[] sortedLines = new int[size];
+    int[] sortedColumns = new int[size];
+    int count = 0;
+    for (long entry : order) {
+      final int i = (int)entry;
+      if (count > 0 && sortedTokenPositions[count - 1] == tokenPositions[i]) {
+        count--; // the same token position listed twice: the latter wins, as it did in the map this table replaces
+      }
+      sortedTokenPositions[count] = tokenPositions[i];
+      sortedLines[count] = lines[i];
+      sortedColumns[count] = columns[i];
+      count++;
+    }
+
+    return new DartTokenPosTable(Arrays.copyOf(sortedTokenPositions, count), Arrays.copyOf(sortedLines, count),
+                                 Arrays.copyOf(sortedColumns, count));
+  }
+
+  /**
+   * @return index to pass to {@link #getLine(int)} and {@link #getColumn(int)}, or -1 if the token position is unknown
+   */
+  int indexOf(int tokenPos) {
+    final int index = Arrays.binarySearch(myTokenPositions, tokenPos);
+    return index >= 0 ? index : -1;
+  }
+
+  int getLine(int index) {
+    return myLines[index];
+  }
+
+  int getColumn(int index) {
+    return myColumns[index];
+  }
+}
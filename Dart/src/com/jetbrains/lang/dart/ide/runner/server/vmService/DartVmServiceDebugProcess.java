@@ -17,7 +17,6 @@ import com.intellij.openapi.ui.InputValidator;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.Key;
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -49,8 +48,6 @@ import com.jetbrains.lang.dart.ide.runner.server.webdev.DartDaemonParserUtil;
 import com.jetbrains.lang.dart.util.DartBazelFileUtil;
 import com.jetbrains.lang.dart.util.DartResolveUtil;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import org.dartlang.vm.service.VmService;
 import org.dartlang.vm.service.element.*;
 import org.dartlang.vm.service.logging.Logging;
@@ -60,6 +57,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The {@link XDebugProcess} for the Dart VM debug process.
@@ -83,8 +81,8 @@ public class DartVmServiceDebugProcess extends XDebugProcess {
   private final @NotNull Set<String> mySuspendedIsolateIds = Collections.synchronizedSet(new HashSet<>());
   private String myLatestCurrentIsolateId;
 
-  private final Map<String, LightVirtualFile> myScriptIdToContentMap = new HashMap<>();
-  private final Map<String, Int2ObjectMap<Pair<Integer, Integer>>> myScriptIdToLinesAndColumnsMap = new HashMap<>();
+  private final Map<String, LightVirtualFile> myScriptIdToContentMap = new ConcurrentHashMap<>();
+  private final Map<String, DartTokenPosTable> myScriptIdToTokenPosTableMap = new ConcurrentHashMap<>();
 
   private final @Nullable String myDASExecutionContextId;
   private final @NotNull DebugType myDebugType;
@@ -614,7 +612,98 @@ public class DartVmServiceDebugProcess extends XDebugProcess {
   }
 
   public @Nullable XSourcePosition getSourcePosition(@NotNull String isolateId, @NotNull ScriptRef scriptRef, int tokenPos) {
-    VirtualFile file = ReadAction.compute(() -> {
+    VirtualFile file = findLocalFile(scriptRef);
+    if (file == null) {
+      file = myScriptIdToContentMap.get(scriptRef.getId());
+    }
+
+    DartTokenPosTable tokenPosTable = getCachedTokenPosTable(scriptRef, file);
+    if (file != null && tokenPosTable != null) {
+      return createPosition(file, tokenPosTable, tokenPos);
+    }
+
+    final Script script = myVmServiceWrapper.getScriptSync(isolateId, scriptRef.getId());
+    if (script == null || script.getSource() == null) return null;
+
+    cacheScript(script, file);
+    file = file != null ? file : myScriptIdToContentMap.get(scriptRef.getId());
+    if (file == null) return null;
+
+    tokenPosTable = myScriptIdToTokenPosTableMap.get(scriptRef.getId());
+
+    return tokenPosTable != null ? createPosition(file, tokenPosTable, tokenPos)
+                                 : XDebuggerUtil.getInstance().createPositionByOffset(file, 0);
+  }
+
+  /**
+   * Loads the scripts of all the given locations that are not cached yet, in parallel, so that the following
+   * {@link #getSourcePosition} calls for a whole stack do not wait for the VM one script at a time.
+   */
+  public void prefetchScripts(@NotNull String isolateId, @NotNull Collection<ScriptRef> scriptRefs) {
+    final Map<String, VirtualFile> scriptIdToLocalFile = new HashMap<>();
+    for (ScriptRef scriptRef : scriptRefs) {
+      final String scriptId = scriptRef.getId();
+      if (scriptIdToLocalFile.containsKey(scriptId) || myScriptIdToTokenPosTableMap.containsKey(scriptId)) continue;
+
+      final VirtualFile file = findLocalFile(scriptRef);
+      if (file == null || getCachedTokenPosTable(scriptRef, file) == null) {
+        scriptIdToLocalFile.put(scriptId, file);
+      }
+    }
+
+    if (scriptIdToLocalFile.isEmpty()) return;
+
+    final Map<String, Script> scripts = myVmServiceWrapper.getScriptsSync(isolateId, scriptIdToLocalFile.keySet());
+    for (Script script : scripts.values()) {
+      if (script.getSource() != null) {
+        cacheScript(script, scriptIdToLocalFile.get(script.getId()));
+      }
+    }
+  }
+
+  private @Nullable DartTokenPosTable getCachedTokenPosTable(@NotNull ScriptRef scriptRef, @Nullable VirtualFile file) {
+    DartTokenPosTable tokenPosTable = myScriptIdToTokenPosTableMap.get(scriptRef.getId());
+    if (tokenPosTable != null || file == null || file instanceof LightVirtualFile) return tokenPosTable;
+
+    // the script may have been loaded in an earlier debug session; the local file is what the VM runs unless it has been edited since
+    try {
+      tokenPosTable = DartVmServiceScriptCache.getTokenPosTable(scriptRef.getUri(), file.contentsToByteArray());
+    }
+    catch (IOException e) {
+      return null;
+    }
+
+    if (tokenPosTable != null) {
+      myScriptIdToTokenPosTableMap.put(scriptRef.getId(), tokenPosTable);
+    }
+    return tokenPosTable;
+  }
+
+  private void cacheScript(@NotNull Script script, @Nullable VirtualFile localFile) {
+    final String scriptSource = script.getSource();
+
+    if (localFile == null && !myScriptIdToContentMap.containsKey(script.getId())) {
+      final LightVirtualFile file = new LightVirtualFile(PathUtil.getFileName(script.getUri()), DartFileType.INSTANCE, scriptSource);
+      file.setWritable(false);
+      myScriptIdToContentMap.put(script.getId(), file);
+    }
+
+    final List<List<Integer>> table = script.getTokenPosTable();
+    if (table != null) {
+      final DartTokenPosTable tokenPosTable = DartTokenPosTable.create(table);
+      myScriptIdToTokenPosTableMap.put(script.getId(), tokenPosTable);
+      DartVmServiceScriptCache.putTokenPosTable(script.getUri(), scriptSource, tokenPosTable);
+    }
+  }
+
+  private static @NotNull XSourcePosition createPosition(@NotNull VirtualFile file, @NotNull DartTokenPosTable tokenPosTable, int tokenPos) {
+    final int index = tokenPosTable.indexOf(tokenPos);
+    if (index == -1) return XDebuggerUtil.getInstance().createPositionByOffset(file, 0);
+    return XDebuggerUtil.getInstance().createPosition(file, tokenPosTable.getLine(index), tokenPosTable.getColumn(index));
+  }
+
+  private @Nullable VirtualFile findLocalFile(@NotNull ScriptRef scriptRef) {
+    return ReadAction.compute(() -> {
       String uri = scriptRef.getUri();
 
       if (myDASExecutionContextId != null && !isDartPatchUri(uri)) {
@@ -650,43 +739,6 @@ public class DartVmServiceDebugProcess extends XDebugProcess {
       }
       return myDartUrlResolver.findFileByDartUrl(uri);
     });
-
-    if (file == null) {
-      file = myScriptIdToContentMap.get(scriptRef.getId());
-    }
-
-    Int2ObjectMap<Pair<Integer, Integer>> tokenPosToLineAndColumn = myScriptIdToLinesAndColumnsMap.get(scriptRef.getId());
-
-    if (file != null && tokenPosToLineAndColumn != null) {
-      final Pair<Integer, Integer> lineAndColumn = tokenPosToLineAndColumn.get(tokenPos);
-      if (lineAndColumn == null) return XDebuggerUtil.getInstance().createPositionByOffset(file, 0);
-      return XDebuggerUtil.getInstance().createPosition(file, lineAndColumn.first, lineAndColumn.second);
-    }
-
-    final Script script = myVmServiceWrapper.getScriptSync(isolateId, scriptRef.getId());
-    if (script == null) return null;
-
-    String scriptSource = script.getSource();
-    if (scriptSource == null) return null;
-
-    if (file == null) {
-      file = new LightVirtualFile(PathUtil.getFileName(script.getUri()), DartFileType.INSTANCE, scriptSource);
-      ((LightVirtualFile)file).setWritable(false);
-      myScriptIdToContentMap.put(scriptRef.getId(), (LightVirtualFile)file);
-    }
-
-    if (tokenPosToLineAndColumn == null) {
-      List<List<Integer>> table = script.getTokenPosTable();
-      if (table != null) {
-        tokenPosToLineAndColumn = createTokenPosToLineAndColumnMap(table);
-        myScriptIdToLinesAndColumnsMap.put(scriptRef.getId(), tokenPosToLineAndColumn);
-      }
-    }
-
-    final Pair<Integer, Integer> lineAndColumn = tokenPosToLineAndColumn != null ? tokenPosToLineAndColumn.get(tokenPos) : null;
-    if (lineAndColumn == null) return XDebuggerUtil.getInstance().createPositionByOffset(file, 0);
-
-    return XDebuggerUtil.getInstance().createPosition(file, lineAndColumn.first, lineAndColumn.second);
   }
 
   private static boolean isDartPatchUri(@NotNull String uri) {
@@ -694,24 +746,6 @@ public class DartVmServiceDebugProcess extends XDebugProcess {
     return uri.startsWith("dart:_") || uri.startsWith("dart:") && uri.contains("-patch/");
   }
 
-  private static Int2ObjectMap<Pair<Integer, Integer>> createTokenPosToLineAndColumnMap(@NotNull List<List<Integer>> tokenPosTable) {
-    // Each subarray consists of a line number followed by (tokenPos, columnNumber) pairs
-    // see https://github.com/dart-lang/vm_service_drivers/blob/master/dart/tool/service.md#script
-    final Int2ObjectMap<Pair<Integer, Integer>> result = new Int2ObjectOpenHashMap<>();
-
-    for (List<Integer> lineAndPairs : tokenPosTable) {
-      final Iterator<Integer> iterator = lineAndPairs.iterator();
-      int line = Math.max(0, iterator.next() - 1);
-      while (iterator.hasNext()) {
-        final int tokenPos = iterator.next();
-        final int column = Math.max(0, iterator.next() - 1);
-        result.put(tokenPos, Pair.create(line, column));
-      }
-    }
-
-    return result;
-  }
-
   public @Nullable String getCurrentIsolateId() {
     if (myLatestCurrentIsolateId != null) {
       return myLatestCurrentIsolateId;
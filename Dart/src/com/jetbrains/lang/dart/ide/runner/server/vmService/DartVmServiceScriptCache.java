@@ -0,0 +1,35 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.runner.server.vmService;
+
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.DigestUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Token position tables shared by all debug sessions, keyed by library URI and the hash of the script source.
+ * Token positions are offsets in the source, so a table computed for a script in one session is valid for a script with
+ * the same URI and content in any later session, and the Dart SDK and package sources rarely change between runs.
+ * Tables are softly referenced and go away under memory pressure.
+ */
+final class DartVmServiceScriptCache {
+  private static final Map<String, DartTokenPosTable> ourTokenPosTables = ContainerUtil.createConcurrentSoftValueMap();
+
+  private DartVmServiceScriptCache() {
+  }
+
+  static @Nullable DartTokenPosTable getTokenPosTable(@NotNull String uri, byte @NotNull [] content) {
+    return ourTokenPosTables.get(getKey(uri, content));
+  }
+
+  static void putTokenPosTable(@NotNull String uri, @NotNull String source, @NotNull DartTokenPosTable table) {
+    ourTokenPosTables.put(getKey(uri, source.getBytes(StandardCharsets.UTF_8)), table);
+  }
+
+  private static @NotNull String getKey(@NotNull String uri, byte @NotNull [] content) {
+    return uri + "#" + DigestUtil.sha256Hex(content);
+  }
+}
@@ -11,6 +11,7 @@ import com.intellij.openapi.util.NlsSafe;
 import com.intellij.openapi.util.Ref;
 import com.intellij.util.Alarm;
 import com.intellij.util.concurrency.Semaphore;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.xdebugger.XSourcePosition;
 import com.intellij.xdebugger.breakpoints.XBreakpointProperties;
 import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
@@ -31,6 +32,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class VmServiceWrapper implements Disposable {
@@ -410,6 +412,9 @@ public class VmServiceWrapper implements Disposable {
           final List<Frame> vmFrames = Lists.newArrayList(elementList);
           final List<XStackFrame> xStackFrames = new ArrayList<>(vmFrames.size());
 
+          myDebugProcess.prefetchScripts(isolateId, ContainerUtil.mapNotNull(
+            vmFrames, frame -> frame.getLocation() == null ? null : frame.getLocation().getScript()));
+
           for (final Frame vmFrame : vmFrames) {
             if (vmFrame.getKind() == FrameKind.AsyncSuspensionMarker) {
               // Render an asynchronous gap.
@@ -441,33 +446,42 @@ public class VmServiceWrapper implements Disposable {
   }
 
   public @Nullable Script getScriptSync(@NotNull String isolateId, @NotNull String scriptId) {
+    return getScriptsSync(isolateId, Collections.singletonList(scriptId)).get(scriptId);
+  }
+
+  /**
+   * Sends all the requests at once and waits for the answers together, so that loading the scripts of a whole stack takes
+   * about one round trip rather than one per script. Scripts that could not be loaded in time are missing from the result.
+   */
+  public @NotNull Map<String, Script> getScriptsSync(@NotNull String isolateId, @NotNull Collection<String> scriptIds) {
     assertSyncRequestAllowed();
 
     final Semaphore semaphore = new Semaphore();
-    semaphore.down();
-
-    final Ref<Script> resultRef = Ref.create();
+    final Map<String, Script> result = new ConcurrentHashMap<>();
 
-    addRequest(() -> myVmService.getObject(isolateId, scriptId, new GetObjectConsumer() {
-      @Override
-      public void received(Obj script) {
-        resultRef.set((Script)script);
-        semaphore.up();
-      }
+    for (String scriptId : scriptIds) {
+      semaphore.down();
+      addRequest(() -> myVmService.getObject(isolateId, scriptId, new GetObjectConsumer() {
+        @Override
+        public void received(Obj script) {
+          result.put(scriptId, (Script)script);
+          semaphore.up();
+        }
 
-      @Override
-      public void received(Sentinel response) {
-        semaphore.up();
-      }
+        @Override
+        public void received(Sentinel response) {
+          semaphore.up();
+        }
 
-      @Override
-      public void onError(RPCError error) {
-        semaphore.up();
-      }
-    }));
+        @Override
+        public void onError(RPCError error) {
+          semaphore.up();
+        }
+      }));
+    }
 
     semaphore.waitFor(RESPONSE_WAIT_TIMEOUT);
-    return resultRef.get();
+    return new HashMap<>(result);
   }
 
   public void getObject(@NotNull String isolateId, @NotNull String objectId, @NotNull GetObjectConsumer consumer) {
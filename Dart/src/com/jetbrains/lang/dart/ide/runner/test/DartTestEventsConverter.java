@@ -1,10 +1,17 @@
 // Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.jetbrains.lang.dart.ide.runner.test;
 
-import com.google.gson.*;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import com.intellij.execution.testframework.TestConsoleProperties;
 import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.execution.testframework.sm.runner.GeneralTestEventsProcessor;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
+import com.intellij.execution.testframework.sm.runner.events.TestFinishedEvent;
+import com.intellij.execution.testframework.sm.runner.events.TestStartedEvent;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
@@ -13,22 +20,25 @@ import com.intellij.util.PathUtil;
 import com.jetbrains.lang.dart.ide.runner.util.DartTestLocationProvider;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
 import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.StringReader;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Convert events from JSON format generated by package:test to the string format
- * expected by the event processor.
+ * Convert events from JSON format generated by package:test to the events expected by the event processor.
+ * Reporter lines are read with a streaming JSON reader, and the events of the most frequent kinds (test started and finished)
+ * go to the processor directly; other events are still converted to service messages.
  * NOTE: The test runner runs tests asynchronously. It is possible to get a 'testDone'
  * event followed some time later by an 'error' event for that same test. That should
  * convert a successful test into a failure. That case is not being handled.
@@ -60,7 +70,6 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   private static final String JSON_GROUP_IDS = "groupIDs";
   private static final String JSON_RESULT = "result";
   private static final String JSON_MILLIS = "time";
-  private static final String JSON_COUNT = "count";
   private static final String JSON_TEST_COUNT = "testCount";
   private static final String JSON_MESSAGE = "message";
   private static final String JSON_ERROR_MESSAGE = "error";
@@ -90,10 +99,11 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   private String myLocation;
   private Key myCurrentOutputType;
   private ServiceMessageVisitor myCurrentVisitor;
+  private @Nullable GeneralTestEventsProcessor myProcessor;
   private final Int2LongOpenHashMap myTestIdToTimestamp;
-  private final Map<Integer, Test> myTestData;
-  private final Map<Integer, Group> myGroupData;
-  private final Map<Integer, Suite> mySuiteData;
+  private final Int2ObjectMap<Test> myTestData;
+  private final Int2ObjectMap<Group> myGroupData;
+  private final Int2ObjectMap<Suite> mySuiteData;
 
   public DartTestEventsConverter(@NotNull final String testFrameworkName,
                                  @NotNull final TestConsoleProperties consoleProperties,
@@ -101,9 +111,15 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     super(testFrameworkName, consoleProperties);
     myUrlResolver = urlResolver;
     myTestIdToTimestamp = new Int2LongOpenHashMap();
-    myTestData = new HashMap<>();
-    myGroupData = new HashMap<>();
-    mySuiteData = new HashMap<>();
+    myTestData = new Int2ObjectOpenHashMap<>();
+    myGroupData = new Int2ObjectOpenHashMap<>();
+    mySuiteData = new Int2ObjectOpenHashMap<>();
+  }
+
+  @Override
+  public void setProcessor(@Nullable GeneralTestEventsProcessor processor) {
+    super.setProcessor(processor);
+    myProcessor = processor;
   }
 
   @Override
@@ -117,12 +133,16 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   }
 
   private boolean processEventText(final String text) throws JsonSyntaxException, ParseException {
-    JsonParser jp = new JsonParser();
-    JsonElement elem;
-    try {
-      elem = jp.parse(text);
+    Event event = null;
+    if (StringUtil.startsWithChar(StringUtil.trimLeading(text), '{')) {
+      try {
+        event = Event.parse(text);
+      }
+      catch (IOException | IllegalStateException | NumberFormatException ignored) {
+      }
     }
-    catch (JsonSyntaxException ex) {
+
+    if (event == null) {
       if (text.contains("\"json\" is not an allowed value for option \"reporter\"")) {
         final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted("Failed to start");
         final ServiceMessageBuilder testFailed = ServiceMessageBuilder.testFailed("Failed to start");
@@ -133,8 +153,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
 
       return doProcessServiceMessages(text);
     }
-    if (elem == null || !elem.isJsonObject()) return false;
-    return process(elem.getAsJsonObject());
+    return process(event);
   }
 
   private boolean doProcessServiceMessages(@NotNull final String text) throws ParseException {
@@ -142,8 +161,8 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return super.processServiceMessages(text, myCurrentOutputType, myCurrentVisitor);
   }
 
-  private boolean process(JsonObject obj) throws JsonSyntaxException, ParseException {
-    String type = obj.get(JSON_TYPE).getAsString();
+  private boolean process(Event obj) throws JsonSyntaxException, ParseException {
+    String type = obj.type;
     if (TYPE_TEST_START.equals(type)) {
       return handleTestStart(obj);
     }
@@ -176,10 +195,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     }
   }
 
-  private boolean handleTestStart(JsonObject obj) throws ParseException {
-    final JsonObject testObj = obj.getAsJsonObject(DEF_TEST);
-
-    // Not reached if testObj == null.
+  private boolean handleTestStart(Event obj) throws ParseException {
     final Test test = getTest(obj);
     myTestIdToTimestamp.put(test.getId(), getTimestamp(obj));
 
@@ -201,20 +217,17 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
       return true;
     }
 
-    final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
     test.myTestStartReported = true;
+    fireTestStarted(test);
 
-    addLocationHint(testStarted, test);
-    boolean result = finishMessage(testStarted, test.getId(), test.getValidParentId());
-
-    final Metadata metadata = Metadata.from(testObj.getAsJsonObject(DEF_METADATA));
+    final Metadata metadata = test.getMetadata();
     if (metadata.skip) {
       final ServiceMessageBuilder message = ServiceMessageBuilder.testIgnored(test.getBaseName());
       if (metadata.skipReason != null) message.addAttribute("message", metadata.skipReason);
-      result &= finishMessage(message, test.getId(), test.getValidParentId());
+      return finishMessage(message, test.getId(), test.getValidParentId());
     }
 
-    return result;
+    return true;
   }
 
   private static boolean shouldTestBeHiddenIfPassed(@NotNull final Test test) {
@@ -229,7 +242,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
            group != null && group.getDoneTestsCount() > 0 && test.getBaseName().equals(TEAR_DOWN_ALL_VIRTUAL_TEST_NAME);
   }
 
-  private boolean handleTestDone(JsonObject obj) throws ParseException {
+  private boolean handleTestDone(Event obj) throws ParseException {
     final Test test = getTest(obj);
 
     if (!test.myTestStartReported) return true;
@@ -243,11 +256,10 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
 
     //if (test.getMetadata().skip) return true; // skipped tests are reported as ignored in handleTestStart(). testFinished signal must follow
 
-    ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished(test.getBaseName());
     long duration = getTimestamp(obj) - myTestIdToTimestamp.get(test.getId());
-    testFinished.addAttribute("duration", Long.toString(duration));
+    fireTestFinished(test, duration);
 
-    return finishMessage(testFinished, test.getId(), test.getValidParentId()) && checkGroupDone(test.getParent());
+    return checkGroupDone(test.getParent());
   }
 
   private boolean checkGroupDone(@Nullable final Group group) throws ParseException {
@@ -257,8 +269,8 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return true;
   }
 
-  private boolean handleGroup(JsonObject obj) throws ParseException {
-    Group group = getGroup(obj.getAsJsonObject(DEF_GROUP));
+  private boolean handleGroup(Event obj) throws ParseException {
+    Group group = getGroup(obj.group);
 
     // From spec: The implicit group at the root of each test suite has null name and parentID attributes.
     if (group.getParent() == null && group.getTestCount() > 0) {
@@ -276,15 +288,15 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return finishMessage(groupMsg, group.getId(), group.getValidParentId());
   }
 
-  private boolean handleSuite(JsonObject obj) throws ParseException {
-    Suite suite = getSuite(obj.getAsJsonObject(DEF_SUITE));
+  private boolean handleSuite(Event obj) throws ParseException {
+    Suite suite = getSuite(obj.suite);
     if (!suite.hasPath()) {
       mySuiteData.remove(suite.getId());
     }
     return true;
   }
 
-  private boolean handleError(JsonObject obj) throws ParseException {
+  private boolean handleError(Event obj) throws ParseException {
     final Test test = getTest(obj);
     final String message = getErrorMessage(obj);
     boolean result = true;
@@ -342,15 +354,11 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return message.endsWith("\n") ? message : message + "\n";
   }
 
-  private static boolean handleAllSuites(JsonObject obj) {
-    JsonElement elem = obj.get(JSON_COUNT);
-    if (elem != null) {
-      elem.isJsonPrimitive();
-    }
+  private static boolean handleAllSuites(Event obj) {
     return true;
   }
 
-  private boolean handlePrint(JsonObject obj) throws ParseException {
+  private boolean handlePrint(Event obj) throws ParseException {
     final Test test = getTest(obj);
     boolean result = true;
 
@@ -370,7 +378,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return result & finishMessage(message, test.getId(), test.getValidParentId());
   }
 
-  private boolean handleStart(JsonObject obj) throws ParseException {
+  private boolean handleStart(Event obj) throws ParseException {
     myTestIdToTimestamp.clear();
     myTestData.clear();
     myGroupData.clear();
@@ -379,7 +387,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return doProcessServiceMessages(ServiceMessageBuilder.testsStarted().toString());
   }
 
-  private boolean handleDone(JsonObject obj) {
+  private boolean handleDone(Event obj) {
     // The test runner has reached the end of the tests.
     processAllTestsDone();
     return true;
@@ -414,6 +422,23 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return finishMessage(groupMsg, group.getId(), group.getValidParentId());
   }
 
+  // Tests are started and finished tens of thousands times in large suites, so these events are passed to the processor as is,
+  // the way the service message visitor would do it after parsing the message text.
+  private void fireTestStarted(@NotNull Test test) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestStarted(new TestStartedEvent(test.getBaseName(), String.valueOf(test.getId()), String.valueOf(test.getValidParentId()),
+                                                   getLocationHint(test), null, null, null, true));
+    }
+  }
+
+  private void fireTestFinished(@NotNull Test test, long duration) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestFinished(new TestFinishedEvent(test.getBaseName(), String.valueOf(test.getId()), duration));
+    }
+  }
+
   private boolean finishMessage(@NotNull ServiceMessageBuilder msg, int testId, int parentId) throws ParseException {
     msg.addAttribute("nodeId", String.valueOf(testId));
     msg.addAttribute("parentNodeId", String.valueOf(parentId));
@@ -421,6 +446,11 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   }
 
   private void addLocationHint(ServiceMessageBuilder messageBuilder, Item item) {
+    messageBuilder.addAttribute("locationHint", getLocationHint(item));
+  }
+
+  @NotNull
+  private String getLocationHint(Item item) {
     String location = "unknown";
     String loc;
 
@@ -447,104 +477,67 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
       location = loc + "," + nameList;
     }
 
-    messageBuilder.addAttribute("locationHint", location);
+    return location;
   }
 
-  private static long getTimestamp(JsonObject obj) throws ParseException {
-    return getLong(obj, JSON_MILLIS);
-  }
-
-  private static long getLong(JsonObject obj, String name) throws ParseException {
-    JsonElement val = obj == null ? null : obj.get(name);
-    if (val == null || !val.isJsonPrimitive()) throw new ParseException("Value is not type long: " + val, 0);
-    return val.getAsLong();
-  }
-
-  private static boolean getBoolean(JsonObject obj, String name) throws ParseException {
-    JsonElement val = obj == null ? null : obj.get(name);
-    if (val == null || !val.isJsonPrimitive()) throw new ParseException("Value is not type boolean: " + val, 0);
-    return val.getAsBoolean();
+  private static long getTimestamp(Event obj) throws ParseException {
+    if (obj.time == null) throw new ParseException("Value is not type long: null", 0);
+    return obj.time;
   }
 
   @NotNull
-  private Test getTest(JsonObject obj) throws ParseException {
-    return getItem(obj, myTestData);
-  }
+  private Test getTest(Event obj) throws ParseException {
+    if (obj.testId != null) {
+      final Test test = myTestData.get(obj.testId.intValue());
+      if (test == null) throw new ParseException("Unknown testID: " + obj.testId, 0);
+      return test;
+    }
 
-  @NotNull
-  private Group getGroup(JsonObject obj) throws ParseException {
-    return getItem(obj, myGroupData);
+    final ItemData data = checkItemData(obj.test);
+    final Test test = Test.from(data, myGroupData, mySuiteData);
+    myTestData.put(test.getId(), test);
+    return test;
   }
 
   @NotNull
-  private Suite getSuite(JsonObject obj) throws ParseException {
-    return getItem(obj, mySuiteData);
+  private Group getGroup(@Nullable ItemData data) throws ParseException {
+    final Group group = Group.from(checkItemData(data), myGroupData, mySuiteData);
+    myGroupData.put(group.getId(), group);
+    return group;
   }
 
   @NotNull
-  private <T extends Item> T getItem(JsonObject obj, Map<Integer, T> items) throws ParseException {
-    if (obj == null) throw new ParseException("Unexpected null json object", 0);
-    T item;
-    JsonElement id = obj.get(JSON_ID);
-    if (id != null) {
-      if (items == myTestData) {
-        @SuppressWarnings("unchecked") T type = (T)Test.from(obj, myGroupData, mySuiteData);
-        item = type;
-      }
-      else if (items == myGroupData) {
-        @SuppressWarnings("unchecked") T group = (T)Group.from(obj, myGroupData, mySuiteData);
-        item = group;
-      }
-      else {
-        @SuppressWarnings("unchecked") T suite = (T)Suite.from(obj);
-        item = suite;
-      }
-      items.put(id.getAsInt(), item);
-    }
-    else {
-      JsonElement testId = obj.get(JSON_TEST_ID);
-      if (testId != null) {
-        int baseId = testId.getAsInt();
-        item = items.get(baseId);
-      }
-      else {
-        JsonElement testObj = obj.get(DEF_TEST);
-        if (testObj != null) {
-          return getItem(testObj.getAsJsonObject(), items);
-        }
-        else {
-          throw new ParseException("No testId in json object", 0);
-        }
-      }
-    }
-    return item;
+  private Suite getSuite(@Nullable ItemData data) throws ParseException {
+    final Suite suite = Suite.from(checkItemData(data));
+    mySuiteData.put(suite.getId(), suite);
+    return suite;
   }
 
   @NotNull
-  private static String getErrorMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_ERROR_MESSAGE, "<no error message>");
+  private static ItemData checkItemData(@Nullable ItemData data) throws ParseException {
+    if (data == null) throw new ParseException("Unexpected null json object", 0);
+    if (data.id == null) throw new ParseException("No testId in json object", 0);
+    return data;
   }
 
   @NotNull
-  private static String getMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_MESSAGE, "<no message>");
+  private static String getErrorMessage(Event obj) {
+    return obj.error != null ? obj.error : "<no error message>";
   }
 
   @NotNull
-  private static String getStackTrace(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_STACK_TRACE, "<no stack trace>");
+  private static String getMessage(Event obj) {
+    return obj.message != null ? obj.message : "<no message>";
   }
 
   @NotNull
-  private static String getResult(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_RESULT, "<no result>");
+  private static String getStackTrace(Event obj) {
+    return obj.stackTrace != null ? obj.stackTrace : "<no stack trace>";
   }
 
   @NotNull
-  private static String nonNullJsonValue(JsonObject obj, @NotNull String id, @NotNull String def) {
-    JsonElement val = obj == null ? null : obj.get(id);
-    if (val == null || !val.isJsonPrimitive()) return def;
-    return val.getAsString();
+  private static String getResult(Event obj) {
+    return obj.result != null ? obj.result : "<no result>";
   }
 
   private static class Item {
@@ -558,30 +551,8 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     private final int myColumn;
     private final String myUrl;
 
-    static int extractInt(JsonObject obj, String memberName) {
-      JsonElement elem = obj.get(memberName);
-      if (elem == null || !elem.isJsonPrimitive()) return -1;
-      return elem.getAsInt();
-    }
-
-    static String extractString(JsonObject obj, String memberName, String defaultResult) {
-      JsonElement elem = obj.get(memberName);
-      if (elem == null || elem.isJsonNull()) return defaultResult;
-      return elem.getAsString();
-    }
-
-    static Metadata extractMetadata(JsonObject obj) {
-      return Metadata.from(obj.get(DEF_METADATA));
-    }
-
-    static Suite lookupSuite(JsonObject obj, Map<Integer, Suite> suites) {
-      JsonElement suiteObj = obj.get(JSON_SUITE_ID);
-      Suite suite = null;
-      if (suiteObj != null && suiteObj.isJsonPrimitive()) {
-        int parentId = suiteObj.getAsInt();
-        suite = suites.get(parentId);
-      }
-      return suite;
+    static Suite lookupSuite(ItemData obj, Int2ObjectMap<Suite> suites) {
+      return obj.suiteId == null ? null : suites.get(obj.suiteId.intValue());
     }
 
     Item(int id, String name, Group parent, Suite suite, Metadata metadata, int line, int column, String url) {
@@ -707,17 +678,15 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     private boolean myTestStartReported = false;
     private boolean myTestErrorReported = false;
 
-    static Test from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      int[] groupIds = GSON.fromJson(obj.get(JSON_GROUP_IDS), (Type)int[].class);
+    static Test from(ItemData obj, Int2ObjectMap<Group> groups, Int2ObjectMap<Suite> suites) {
+      int[] groupIds = obj.groupIds;
       Group parent = null;
       if (groupIds != null && groupIds.length > 0) {
         parent = groups.get(groupIds[groupIds.length - 1]);
       }
       Suite suite = lookupSuite(obj, suites);
-      final int line = extractInt(obj, JSON_LINE);
-      final int column = extractInt(obj, JSON_COLUMN);
-      return new Test(extractInt(obj, JSON_ID), extractString(obj, JSON_NAME, NO_NAME), parent, suite, extractMetadata(obj),
-                      line < 0 ? -1 : line - 1, column < 0 ? -1 : column - 1, extractString(obj, JSON_URL, null));
+      return new Test(obj.id, obj.name != null ? obj.name : NO_NAME, parent, suite, obj.metadata,
+                      obj.line < 0 ? -1 : obj.line - 1, obj.column < 0 ? -1 : obj.column - 1, obj.url);
     }
 
     Test(int id, String name, Group parent, Suite suite, Metadata metadata, int line, int column, String url) {
@@ -735,19 +704,11 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     private final int myTestCount;
     private int myDoneTestsCount = 0;
 
-    static Group from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      JsonElement parentObj = obj.get(JSON_PARENT_ID);
-      Group parent = null;
-      if (parentObj != null && parentObj.isJsonPrimitive()) {
-        int parentId = parentObj.getAsInt();
-        parent = groups.get(parentId);
-      }
+    static Group from(ItemData obj, Int2ObjectMap<Group> groups, Int2ObjectMap<Suite> suites) {
+      Group parent = obj.parentId == null ? null : groups.get(obj.parentId.intValue());
       Suite suite = lookupSuite(obj, suites);
-      final int line = extractInt(obj, JSON_LINE);
-      final int column = extractInt(obj, JSON_COLUMN);
-      return new Group(extractInt(obj, JSON_ID), extractString(obj, JSON_NAME, NO_NAME), parent, suite, extractMetadata(obj),
-                       extractInt(obj, JSON_TEST_COUNT), line < 0 ? -1 : line - 1, column < 0 ? -1 : column - 1,
-                       extractString(obj, JSON_URL, null));
+      return new Group(obj.id, obj.name != null ? obj.name : NO_NAME, parent, suite, obj.metadata,
+                       obj.testCount, obj.line < 0 ? -1 : obj.line - 1, obj.column < 0 ? -1 : obj.column - 1, obj.url);
     }
 
     Group(int id, String name, Group parent, Suite suite, Metadata metadata, int count, int line, int column, String url) {
@@ -776,8 +737,8 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     static Metadata NoMetadata = new Metadata();
     static String NONE = "<none>";
 
-    static Suite from(JsonObject obj) {
-      return new Suite(extractInt(obj, JSON_ID), extractString(obj, JSON_PATH, NONE), extractString(obj, JSON_PLATFORM, NONE));
+    static Suite from(ItemData obj) {
+      return new Suite(obj.id, obj.path != null ? obj.path : NONE, obj.platform != null ? obj.platform : NONE);
     }
 
     private final String myPlatform;
@@ -801,12 +762,154 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   }
 
   private static class Metadata {
-    @SuppressWarnings("unused") private boolean skip; // assigned by GSON via reflection
-    @SuppressWarnings("unused") private String skipReason; // assigned by GSON via reflection
+    private boolean skip;
+    private String skipReason;
+  }
+
+  /**
+   * One reporter line. Only the members used by the converter are kept; everything else is skipped without being materialized.
+   */
+  private static final class Event {
+    private String type;
+    private Long time;
+    private Integer testId;
+    private String result;
+    private String message;
+    private String error;
+    private String stackTrace;
+    private ItemData test;
+    private ItemData group;
+    private ItemData suite;
+
+    @NotNull
+    static Event parse(@NotNull String text) throws IOException {
+      final JsonReader reader = new JsonReader(new StringReader(text));
+      reader.setLenient(true);
+
+      final Event event = new Event();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case JSON_TYPE -> event.type = nextString(reader);
+          case JSON_MILLIS -> event.time = nextLong(reader);
+          case JSON_TEST_ID -> event.testId = nextInteger(reader);
+          case JSON_RESULT -> event.result = nextString(reader);
+          case JSON_MESSAGE -> event.message = nextString(reader);
+          case JSON_ERROR_MESSAGE -> event.error = nextString(reader);
+          case JSON_STACK_TRACE -> event.stackTrace = nextString(reader);
+          case DEF_TEST -> event.test = ItemData.parse(reader);
+          case DEF_GROUP -> event.group = ItemData.parse(reader);
+          case DEF_SUITE -> event.suite = ItemData.parse(reader);
+          default -> reader.skipValue();
+        }
+      }
+      reader.endObject();
+
+      if (reader.peek() != JsonToken.END_DOCUMENT) throw new MalformedJsonException("Did not consume the entire document");
+      return event;
+    }
+  }
+
+  private static final class ItemData {
+    private Integer id;
+    private String name;
+    private Integer parentId;
+    private Integer suiteId;
+    private int[] groupIds;
+    private int line = -1;
+    private int column = -1;
+    private int testCount = -1;
+    private String url;
+    private String path;
+    private String platform;
+    private final Metadata metadata = new Metadata();
+
+    @Nullable
+    static ItemData parse(@NotNull JsonReader reader) throws IOException {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) return skipAndReturnNull(reader);
+
+      final ItemData data = new ItemData();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case JSON_ID -> data.id = nextInteger(reader);
+          case JSON_NAME -> data.name = nextString(reader);
+          case JSON_PARENT_ID -> data.parentId = nextInteger(reader);
+          case JSON_SUITE_ID -> data.suiteId = nextInteger(reader);
+          case JSON_GROUP_IDS -> data.groupIds = nextIntArray(reader);
+          case JSON_LINE -> data.line = nextInt(reader);
+          case JSON_COLUMN -> data.column = nextInt(reader);
+          case JSON_TEST_COUNT -> data.testCount = nextInt(reader);
+          case JSON_URL -> data.url = nextString(reader);
+          case JSON_PATH -> data.path = nextString(reader);
+          case JSON_PLATFORM -> data.platform = nextString(reader);
+          case DEF_METADATA -> readMetadata(reader, data.metadata);
+          default -> reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return data;
+    }
+
+    private static void readMetadata(@NotNull JsonReader reader, @NotNull Metadata metadata) throws IOException {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        reader.skipValue();
+        return;
+      }
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "skip" -> metadata.skip = reader.peek() == JsonToken.BOOLEAN ? reader.nextBoolean() : Boolean.parseBoolean(nextString(reader));
+          case "skipReason" -> metadata.skipReason = nextString(reader);
+          default -> reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
+  }
+
+  @Nullable
+  private static <T> T skipAndReturnNull(@NotNull JsonReader reader) throws IOException {
+    reader.skipValue();
+    return null;
+  }
+
+  @Nullable
+  private static String nextString(@NotNull JsonReader reader) throws IOException {
+    return switch (reader.peek()) {
+      case STRING, NUMBER -> reader.nextString();
+      case BOOLEAN -> String.valueOf(reader.nextBoolean());
+      default -> skipAndReturnNull(reader);
+    };
+  }
+
+  @Nullable
+  private static Integer nextInteger(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    return token == JsonToken.NUMBER || token == JsonToken.STRING ? Integer.valueOf(reader.nextInt()) : skipAndReturnNull(reader);
+  }
+
+  @Nullable
+  private static Long nextLong(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    return token == JsonToken.NUMBER || token == JsonToken.STRING ? Long.valueOf(reader.nextLong()) : skipAndReturnNull(reader);
+  }
+
+  private static int nextInt(@NotNull JsonReader reader) throws IOException {
+    final Integer value = nextInteger(reader);
+    return value != null ? value : -1;
+  }
+
+  private static int @Nullable [] nextIntArray(@NotNull JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_ARRAY) return skipAndReturnNull(reader);
 
-    static Metadata from(JsonElement elem) {
-      if (elem == null) return new Metadata();
-      return GSON.fromJson(elem, (Type)Metadata.class);
+    final IntArrayList result = new IntArrayList();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      result.add(reader.nextInt());
     }
+    reader.endArray();
+    return result.toIntArray();
   }
 }
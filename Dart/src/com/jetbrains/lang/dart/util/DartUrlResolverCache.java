@@ -0,0 +1,119 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.util;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.PathUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one {@link DartUrlResolver} per pubspec.yaml file. A resolver built for a pubspec.yaml file doesn't depend on the context
+ * file it was requested for, but building it means reading package_config.json (or .packages) and the pubspec.yaml files of
+ * path packages, which is too much to do on each import resolve or console line.
+ * <p>
+ * Resolvers are dropped when pubspec.yaml, package_config.json or .packages files change, when folders are added, removed or renamed
+ * (package folders may appear or go away) and on project roots change (Dart SDK, Dart Packages library).
+ * Unsaved pubspec.yaml edits are taken into account by the modification stamp kept with each resolver.
+ */
+public final class DartUrlResolverCache {
+  private final @NotNull Project myProject;
+  private final Map<VirtualFile, CachedResolver> myPubspecToResolverMap = new ConcurrentHashMap<>();
+  private final AtomicLong myModificationCount = new AtomicLong();
+
+  public static DartUrlResolverCache getInstance(@NotNull Project project) {
+    return project.getService(DartUrlResolverCache.class);
+  }
+
+  public DartUrlResolverCache(@NotNull Project project) {
+    myProject = project;
+
+    final MessageBusConnection connection = project.getMessageBus().connect();
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (affectsResolvers(event)) {
+            clear();
+            return;
+          }
+        }
+      }
+    });
+    connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+      @Override
+      public void rootsChanged(@NotNull ModuleRootEvent event) {
+        clear();
+      }
+    });
+  }
+
+  @NotNull
+  DartUrlResolver getResolver(@NotNull VirtualFile contextFile) {
+    final VirtualFile pubspecYamlFile = PubspecYamlUtil.findPubspecYamlFile(myProject, contextFile);
+    if (pubspecYamlFile == null) {
+      // such resolver depends on the module of the context file, it is cheap to build anyway
+      return new DartUrlResolverImpl(myProject, contextFile);
+    }
+
+    final long modificationStamp = getModificationStamp(pubspecYamlFile);
+    final CachedResolver cached = myPubspecToResolverMap.get(pubspecYamlFile);
+    if (cached != null && cached.myModificationStamp == modificationStamp) {
+      return cached.myResolver;
+    }
+
+    final long modificationCount = myModificationCount.get();
+    final DartUrlResolver resolver = new DartUrlResolverImpl(myProject, pubspecYamlFile);
+    if (modificationCount == myModificationCount.get()) {
+      myPubspecToResolverMap.put(pubspecYamlFile, new CachedResolver(resolver, modificationStamp));
+    }
+    return resolver;
+  }
+
+  private void clear() {
+    myModificationCount.incrementAndGet();
+    myPubspecToResolverMap.clear();
+  }
+
+  private static boolean affectsResolvers(@NotNull VFileEvent event) {
+    final String fileName = PathUtil.getFileName(event.getPath());
+    if (PubspecYamlUtil.PUBSPEC_YAML.equals(fileName) ||
+        DotPackagesFileUtil.PACKAGE_CONFIG_JSON.equals(fileName) ||
+        DotPackagesFileUtil.DOT_PACKAGES.equals(fileName)) {
+      return true;
+    }
+
+    if (event instanceof VFileContentChangeEvent) return false;
+
+    final VirtualFile file = event.getFile();
+    return file == null || file.isDirectory();
+  }
+
+  private static long getModificationStamp(@NotNull VirtualFile pubspecYamlFile) {
+    final Document cachedDocument = FileDocumentManager.getInstance().getCachedDocument(pubspecYamlFile);
+    return cachedDocument != null ? cachedDocument.getModificationStamp() : pubspecYamlFile.getModificationCount();
+  }
+
+  private static final class CachedResolver {
+    private final @NotNull DartUrlResolver myResolver;
+    private final long myModificationStamp;
+
+    private CachedResolver(@NotNull DartUrlResolver resolver, long modificationStamp) {
+      myResolver = resolver;
+      myModificationStamp = modificationStamp;
+    }
+  }
+}
@@ -40,6 +40,9 @@ public final class DartUrlResolverImpl extends DartUrlResolver {
   @NotNull private final Map<String, VirtualFile> myLivePackageNameToDirMap = new HashMap<>();
   // myPackagesMapFromLib is not empty only if pubspec.yaml file is null
   @NotNull private final Map<String, List<String>> myPackagesMapFromLib = new HashMap<>();
+  // reverse maps of the two above, so that getDartUrlForFile() walks up from the file instead of checking every package
+  @NotNull private final Map<VirtualFile, String> myLivePackageDirToNameMap = new HashMap<>();
+  @NotNull private final Map<String, String> myPackageDirPathFromLibToNameMap = new HashMap<>();
 
   public DartUrlResolverImpl(final @NotNull Project project, final @NotNull VirtualFile contextFile) {
     myProject = project;
@@ -51,6 +54,15 @@ public final class DartUrlResolverImpl extends DartUrlResolver {
     if (myPubspecYamlFile == null) {
       initPackagesMapFromLib(contextFile);
     }
+
+    for (Map.Entry<String, VirtualFile> entry : myLivePackageNameToDirMap.entrySet()) {
+      myLivePackageDirToNameMap.putIfAbsent(entry.getValue(), entry.getKey());
+    }
+    for (Map.Entry<String, List<String>> entry : myPackagesMapFromLib.entrySet()) {
+      for (String dirPath : entry.getValue()) {
+        myPackageDirPathFromLibToNameMap.putIfAbsent(dirPath, entry.getKey());
+      }
+    }
   }
 
   @Override
@@ -152,10 +164,10 @@ public final class DartUrlResolverImpl extends DartUrlResolver {
     if (myDartSdk != null) result = getUrlIfFileFromSdkLib(myProject, file, myDartSdk);
     if (result != null) return result;
 
-    result = getUrlIfFileFromLivePackage(file, myLivePackageNameToDirMap);
+    result = getUrlIfFileFromLivePackage(file, myLivePackageDirToNameMap);
     if (result != null) return result;
 
-    result = getUrlIfFileFromDartPackagesLib(file, myPackagesMapFromLib);
+    result = getUrlIfFileFromDartPackagesLib(file, myPackageDirPathFromLibToNameMap);
     if (result != null) return result;
 
     // see com.google.dart.tools.debug.core.server.ServerBreakpointManager#getAbsoluteUrlForResource()
@@ -180,13 +192,13 @@ public final class DartUrlResolverImpl extends DartUrlResolver {
 
   @Nullable
   private static String getUrlIfFileFromLivePackage(final @NotNull VirtualFile file,
-                                                    final @NotNull Map<String, VirtualFile> livePackageNameToDirMap) {
-    for (Map.Entry<String, VirtualFile> entry : livePackageNameToDirMap.entrySet()) {
-      final String packageName = entry.getKey();
-      final VirtualFile packageDir = entry.getValue();
-      final String relPath = VfsUtilCore.getRelativePath(file, packageDir, '/');
-      if (relPath != null) {
-        return PACKAGE_PREFIX + packageName + "/" + relPath;
+                                                    final @NotNull Map<VirtualFile, String> livePackageDirToNameMap) {
+    if (livePackageDirToNameMap.isEmpty()) return null;
+
+    for (VirtualFile dir = file; dir != null; dir = dir.getParent()) {
+      final String packageName = livePackageDirToNameMap.get(dir);
+      if (packageName != null) {
+        return PACKAGE_PREFIX + packageName + "/" + VfsUtilCore.getRelativePath(file, dir, '/');
       }
     }
     return null;
@@ -194,13 +206,14 @@ public final class DartUrlResolverImpl extends DartUrlResolver {
 
   @Nullable
   private static String getUrlIfFileFromDartPackagesLib(final @NotNull VirtualFile file,
-                                                        final @NotNull Map<String, List<String>> pubListPackageDirsMap) {
-    for (Map.Entry<String, List<String>> mapEntry : pubListPackageDirsMap.entrySet()) {
-      for (String dirPath : mapEntry.getValue()) {
-        if (file.getPath().startsWith(dirPath + "/")) {
-          final String packageName = mapEntry.getKey();
-          return PACKAGE_PREFIX + packageName + file.getPath().substring(dirPath.length());
-        }
+                                                        final @NotNull Map<String, String> packageDirPathToNameMap) {
+    if (packageDirPathToNameMap.isEmpty()) return null;
+
+    final String filePath = file.getPath();
+    for (int slashIndex = filePath.lastIndexOf('/'); slashIndex > 0; slashIndex = filePath.lastIndexOf('/', slashIndex - 1)) {
+      final String packageName = packageDirPathToNameMap.get(filePath.substring(0, slashIndex));
+      if (packageName != null) {
+        return PACKAGE_PREFIX + packageName + filePath.substring(slashIndex);
       }
     }
     return null;
@@ -0,0 +1,159 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.jetbrains.lang.dart.analyzer.DartServerRequestCoalescer.PendingRequest;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class DartServerRequestCoalescerTest extends TestCase {
+  private static final String FILE = "/project/lib/main.dart";
+
+  private final List<PendingRequest<String>> mySent = new ArrayList<>();
+
+  @NotNull
+  private PendingRequest<String> send(@NotNull DartServerRequestCoalescer coalescer,
+                                      @NotNull String method,
+                                      long fileStamp,
+                                      boolean supersedesOther,
+                                      int offset) {
+    return coalescer.send(method, FILE, fileStamp, supersedesOther, Collections.singletonList(offset), mySent::add);
+  }
+
+  public void testEqualRequestsAreCoalesced() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer();
+    final PendingRequest<String> first = send(coalescer, "analysis_getNavigation", 1, false, 10);
+    final PendingRequest<String> second = send(coalescer, "analysis_getNavigation", 1, false, 10);
+
+    assertSame(first, second);
+    assertEquals(1, mySent.size());
+    assertEquals(1, coalescer.getInFlightRequestCount());
+
+    final List<String> notified = new ArrayList<>();
+    first.whenCompleted(notified::add);
+    second.whenCompleted(notified::add);
+    mySent.get(0).complete("result");
+
+    assertTrue(first.isDone());
+    assertEquals("result", first.getResult());
+    assertEquals(List.of("result", "result"), notified);
+    assertEquals(0, coalescer.getInFlightRequestCount());
+
+    send(coalescer, "analysis_getNavigation", 1, false, 10);
+    assertEquals("completed request must not be reused", 2, mySent.size());
+  }
+
+  public void testRequestsForDifferentFileContentAreNotCoalesced() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer();
+    final PendingRequest<String> beforeEdit = send(coalescer, "analysis_getNavigation", 1, false, 10);
+    final PendingRequest<String> afterEdit = send(coalescer, "analysis_getNavigation", 2, false, 10);
+
+    assertNotSame(beforeEdit, afterEdit);
+    assertEquals(2, mySent.size());
+    assertFalse(beforeEdit.isSuperseded());
+    assertEquals(2, coalescer.getInFlightRequestCount());
+  }
+
+  public void testRequestsWithDifferentArgsAreNotCoalesced() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer();
+    send(coalescer, "analysis_getNavigation", 1, false, 10);
+    send(coalescer, "analysis_getNavigation", 1, false, 20);
+    send(coalescer, "edit_getFixes", 1, false, 10);
+
+    assertEquals(3, mySent.size());
+  }
+
+  public void testSupersede() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer();
+    final PendingRequest<String> old = send(coalescer, "analysis_getHover", 1, true, 10);
+    final PendingRequest<String> other = send(coalescer, "edit_getAssists", 1, true, 10);
+    final List<String> notified = new ArrayList<>();
+    old.whenCompleted(notified::add);
+
+    final PendingRequest<String> current = send(coalescer, "analysis_getHover", 1, true, 20);
+
+    assertTrue(old.isDone());
+    assertTrue(old.isSuperseded());
+    assertNull(old.getResult());
+    assertFalse("request with another method must not be superseded", other.isDone());
+    assertFalse(current.isDone());
+    assertEquals(2, coalescer.getInFlightRequestCount());
+
+    // late response to the superseded request is ignored
+    old.complete("late");
+    assertNull(old.getResult());
+    assertEmpty(notified);
+
+    current.complete("current");
+    assertEquals("current", current.getResult());
+    assertEquals(-1, coalescer.getAverageLatency("analysis_getNavigation"));
+    assertTrue(coalescer.getAverageLatency("analysis_getHover") >= 0);
+  }
+
+  public void testRequestAfterEditSupersedesRequestBeforeEdit() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer();
+    final PendingRequest<String> beforeEdit = send(coalescer, "analysis_getHover", 1, true, 10);
+    final PendingRequest<String> afterEdit = send(coalescer, "analysis_getHover", 2, true, 10);
+
+    assertTrue(beforeEdit.isSuperseded());
+    assertFalse(afterEdit.isDone());
+    assertEquals(2, mySent.size());
+  }
+
+  public void testAbandonedRequestIsSentAgain() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer(-1);
+    final PendingRequest<String> abandoned = send(coalescer, "analysis_getNavigation", 1, false, 10);
+    final PendingRequest<String> resent = send(coalescer, "analysis_getNavigation", 1, false, 10);
+
+    assertNotSame(abandoned, resent);
+    assertEquals(2, mySent.size());
+    assertTrue(abandoned.isSuperseded());
+    assertEquals(1, coalescer.getInFlightRequestCount());
+
+    resent.complete("result");
+    assertEquals("result", resent.getResult());
+    assertEquals(0, coalescer.getInFlightRequestCount());
+  }
+
+  public void testErrorIsPropagatedToAllWaiters() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer();
+    final PendingRequest<String> first = send(coalescer, "edit_getFixes", 1, false, 10);
+    final PendingRequest<String> second = send(coalescer, "edit_getFixes", 1, false, 10);
+    final List<String> notified = new ArrayList<>();
+    first.whenCompleted(notified::add);
+
+    // the sender completes the request with null when the server responds with an error
+    mySent.get(0).complete(null);
+
+    assertTrue(first.isDone());
+    assertTrue(second.isDone());
+    assertFalse(second.isSuperseded());
+    assertNull(second.getResult());
+    assertEquals(0, second.getLatch().getCount());
+    second.whenCompleted(notified::add);
+    assertEmpty(notified);
+    assertEquals(0, coalescer.getInFlightRequestCount());
+
+    send(coalescer, "edit_getFixes", 1, false, 10);
+    assertEquals("failed request must be sent again", 2, mySent.size());
+  }
+
+  public void testClear() {
+    final DartServerRequestCoalescer coalescer = new DartServerRequestCoalescer();
+    final PendingRequest<String> hover = send(coalescer, "analysis_getHover", 1, true, 10);
+    final PendingRequest<String> navigation = send(coalescer, "analysis_getNavigation", 1, false, 10);
+
+    coalescer.clear();
+
+    assertTrue(hover.isSuperseded());
+    assertTrue(navigation.isSuperseded());
+    assertEquals(0, coalescer.getInFlightRequestCount());
+  }
+
+  private static void assertEmpty(@NotNull List<?> list) {
+    assertTrue(list.toString(), list.isEmpty());
+  }
+}
@@ -0,0 +1,66 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.index;
+
+import com.intellij.psi.PsiFile;
+import com.jetbrains.lang.dart.DartCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+public class DartDirectivesIndexerTest extends DartCodeInsightFixtureTestCase {
+  private void doTest(@NotNull String text) {
+    final PsiFile file = myFixture.configureByText("foo.dart", text);
+    final DartFileIndexData expected = DartIndexUtil.indexFileRoots(file);
+    final DartFileIndexData actual = DartDirectivesIndexer.indexDirectives(text);
+
+    assertEquals(expected.getLibraryName(), actual.getLibraryName());
+    assertEquals(expected.isPart(), actual.isPart());
+    assertEquals(expected.getImportAndExportInfos(), actual.getImportAndExportInfos());
+    assertEquals(expected.getPartUris(), actual.getPartUris());
+  }
+
+  public void testLibrary() {
+    doTest("""
+             /// doc
+             @Deprecated('no')
+             library foo . bar.baz;
+
+             import 'dart:core' as core show int, String hide double;
+             import "package:foo/foo.dart" deferred as foo;
+             import r'raw.dart' if (dart.library.io) 'io.dart' if (dart.library.html) "html.dart" hide Bar;
+             export '''triple.dart''' show /* comment */ Foo, Bar;
+             @meta.Annotation()
+             part 'part1.dart';
+             part "part2.dart";
+
+             class A {
+               var import = 'import "not_a_directive.dart";';
+               void part() {}
+             }
+
+             import 'after_declarations.dart';
+             """);
+  }
+
+  public void testPartOf() {
+    doTest("""
+             part of foo.bar;
+
+             void main() {}
+             """);
+  }
+
+  public void testPartOfUri() {
+    doTest("""
+             // comment
+             part of 'lib.dart';
+             var x = {1: 2};
+             export 'in_the_end.dart';
+             """);
+  }
+
+  public void testNoDirectives() {
+    doTest("""
+             typedef F = void Function(int);
+             void main() => print('import "foo.dart";');
+             """);
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.runner.server.vmService;
+
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public class DartTokenPosTableTest extends TestCase {
+  // line numbers and columns sent by the VM are one-based
+  private static final List<List<Integer>> TABLE = List.of(
+    List.of(1, 0, 1, 5, 6),
+    List.of(2, 12, 3),
+    List.of(4, 30, 1, 34, 5, 40, 11)
+  );
+
+  public void testFirstToken() {
+    assertPosition(DartTokenPosTable.create(TABLE), 0, 0, 0);
+  }
+
+  public void testLastToken() {
+    assertPosition(DartTokenPosTable.create(TABLE), 40, 3, 10);
+  }
+
+  public void testTokenInTheMiddle() {
+    final DartTokenPosTable table = DartTokenPosTable.create(TABLE);
+    assertPosition(table, 5, 0, 5);
+    assertPosition(table, 12, 1, 2);
+    assertPosition(table, 34, 3, 4);
+  }
+
+  public void testPositionBetweenTokens() {
+    final DartTokenPosTable table = DartTokenPosTable.create(TABLE);
+    assertEquals(-1, table.indexOf(3));
+    assertEquals(-1, table.indexOf(20));
+    assertEquals(-1, table.indexOf(-1));
+    assertEquals(-1, table.indexOf(41));
+  }
+
+  public void testUnsortedTable() {
+    final DartTokenPosTable table = DartTokenPosTable.create(List.of(
+      List.of(4, 30, 1, 40, 11),
+      List.of(1, 0, 1, 5, 6),
+      List.of(2, 12, 3)
+    ));
+    assertPosition(table, 0, 0, 0);
+    assertPosition(table, 12, 1, 2);
+    assertPosition(table, 40, 3, 10);
+    assertEquals(-1, table.indexOf(20));
+  }
+
+  public void testDuplicateTokenPositionLatterWins() {
+    final DartTokenPosTable table = DartTokenPosTable.create(List.of(
+      List.of(1, 0, 1, 5, 6),
+      List.of(2, 5, 3)
+    ));
+    assertPosition(table, 0, 0, 0);
+    assertPosition(table, 5, 1, 2);
+  }
+
+  public void testIncompletePairsAndEmptyLinesAreIgnored() {
+    final DartTokenPosTable table = DartTokenPosTable.create(List.of(
+      List.of(),
+      List.of(1, 0, 1, 5),
+      List.of(2, 12, 3)
+    ));
+    assertPosition(table, 0, 0, 0);
+    assertEquals(-1, table.indexOf(5));
+    assertPosition(table, 12, 1, 2);
+  }
+
+  private static void assertPosition(@NotNull DartTokenPosTable table, int tokenPos, int line, int column) {
+    final int index = table.indexOf(tokenPos);
+    assertTrue("unknown token position " + tokenPos, index >= 0);
+    assertEquals(line, table.getLine(index));
+    assertEquals(column, table.getColumn(index));
+  }
+}
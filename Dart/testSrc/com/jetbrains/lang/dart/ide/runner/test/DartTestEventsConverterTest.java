@@ -339,6 +339,66 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
     runTest(events, signals, new int[]{});
   }
 
+  public void testReplayLargeReporterStreamPerformance() {
+    final List<String> events = generateReporterStream(200, 50);
+    final Key key = new Key("stdout");
+
+    PlatformTestUtil.startPerformanceTest("Dart JSON reporter replay", 3_000, () -> {
+      final DartTestEventsProcessor processor = new DartTestEventsProcessor(getProject(), DartTestRunningState.DART_FRAMEWORK_NAME) {
+        @Override
+        public void onTestStarted(@NotNull TestStartedEvent testStartedEvent) {
+          signals.add("start");
+        }
+
+        @Override
+        public void onSuiteStarted(@NotNull TestSuiteStartedEvent suiteStartedEvent) {
+        }
+      };
+      final DartTestEventsConverter converter =
+        new DartTestEventsConverter(DartTestRunningState.DART_FRAMEWORK_NAME, myConsole.getProperties(),
+                                    DartUrlResolver.getInstance(getProject(), getSourceRoot()));
+      converter.setProcessor(processor);
+      try {
+        for (String event : events) {
+          converter.process(event, key);
+        }
+        assertEquals(200 * 50, processor.signals.stream().filter("start"::equals).count());
+      }
+      finally {
+        Disposer.dispose(processor);
+      }
+    }).assertTiming();
+  }
+
+  private static List<String> generateReporterStream(int groupCount, int testsInGroup) {
+    final List<String> events = new ArrayList<>();
+    events.add("{\"protocolVersion\":\"0.1.1\",\"runnerVersion\":\"1.16.5\",\"pid\":4242,\"type\":\"start\",\"time\":0}\n");
+    events.add("{\"suite\":{\"id\":0,\"platform\":\"vm\",\"path\":\"test/big_test.dart\"},\"type\":\"suite\",\"time\":0}\n");
+    events.add("{\"count\":1,\"type\":\"allSuites\",\"time\":0}\n");
+    events.add("{\"group\":{\"id\":1,\"suiteID\":0,\"parentID\":null,\"name\":null,\"metadata\":{\"skip\":false,\"skipReason\":null}," +
+               "\"testCount\":" + groupCount * testsInGroup + ",\"line\":null,\"column\":null,\"url\":null},\"type\":\"group\",\"time\":1}\n");
+
+    int id = 2;
+    int time = 2;
+    for (int g = 0; g < groupCount; g++) {
+      final int groupId = id++;
+      events.add("{\"group\":{\"id\":" + groupId + ",\"suiteID\":0,\"parentID\":1,\"name\":\"group " + g + "\"," +
+                 "\"metadata\":{\"skip\":false,\"skipReason\":null},\"testCount\":" + testsInGroup + "," +
+                 "\"line\":" + (g + 1) + ",\"column\":3,\"url\":\"file:///big_test.dart\"},\"type\":\"group\",\"time\":" + time + "}\n");
+      for (int t = 0; t < testsInGroup; t++) {
+        final int testId = id++;
+        events.add("{\"test\":{\"id\":" + testId + ",\"name\":\"group " + g + " test " + t + "\",\"suiteID\":0," +
+                   "\"groupIDs\":[1," + groupId + "],\"metadata\":{\"skip\":false,\"skipReason\":null}," +
+                   "\"line\":" + (t + 2) + ",\"column\":5,\"url\":\"file:///big_test.dart\"},\"type\":\"testStart\",\"time\":" + time++ + "}\n");
+        events.add("{\"testID\":" + testId + ",\"result\":\"success\",\"skipped\":false,\"hidden\":false,\"type\":\"testDone\"," +
+                   "\"time\":" + time++ + "}\n");
+      }
+    }
+
+    events.add("{\"success\":true,\"type\":\"done\",\"time\":" + time + "}\n");
+    return events;
+  }
+
   private void runTest(String[] jsonEvents, String[] signals, int[] parents) {
     DartTestEventsConverter parser = myEventsConverter;
     Key key = new Key("stdout");
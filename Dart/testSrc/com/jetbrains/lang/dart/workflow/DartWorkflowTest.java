@@ -178,4 +178,18 @@ public class DartWorkflowTest extends DartCodeInsightFixtureTestCase {
     assertEquals(rootPath + "/pub/global/cache/SomePackage/lib/somepack.dart", file.getPath());
     assertEquals("package:SomePackage/somepack.dart", resolver.getDartUrlForFile(file));
   }
+
+  public void testDartUrlResolverCache() {
+    final VirtualFile pubspec = myFixture.addFileToProject("pubspec.yaml", "name: RootProject").getVirtualFile();
+    final VirtualFile rootLib = myFixture.addFileToProject("lib/rootlib.dart", "").getVirtualFile();
+
+    DartUrlResolver resolver = DartUrlResolver.getInstance(getProject(), rootLib);
+    assertSame(resolver, DartUrlResolver.getInstance(getProject(), pubspec));
+    assertEquals("package:RootProject/rootlib.dart", resolver.getDartUrlForFile(rootLib));
+
+    myFixture.saveText(pubspec, "name: RenamedProject");
+    resolver = DartUrlResolver.getInstance(getProject(), rootLib);
+    assertEquals("package:RenamedProject/rootlib.dart", resolver.getDartUrlForFile(rootLib));
+    assertEquals(rootLib, resolver.findFileByDartUrl("package:RenamedProject/rootlib.dart"));
+  }
 }
@@ -1,57 +1,175 @@
 package com.jetbrains.plugins.meteor.spacebars.templates;
 
+import com.dmarcotte.handlebars.parsing.HbLexer;
+import com.dmarcotte.handlebars.parsing.HbTokenTypes;
 import com.intellij.ide.highlighter.HtmlFileType;
 import com.intellij.lang.html.HTMLLanguage;
+import com.intellij.lexer.HtmlLexer;
+import com.intellij.lexer.Lexer;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.DataInputOutputUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.JarFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.*;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlAttribute;
+import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlTag;
-import com.intellij.util.Consumer;
-import com.intellij.util.containers.ContainerUtil;
+import com.intellij.psi.xml.XmlTokenType;
+import com.intellij.util.CommonProcessors;
 import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
 import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
 import com.jetbrains.plugins.meteor.spacebars.lang.SpacebarsFileType;
 import com.jetbrains.plugins.meteor.spacebars.lang.SpacebarsLanguageDialect;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
-public final class MeteorTemplateIndex extends ScalarIndexExtension<String> {
-  public static final ID<String, Void> METEOR_TEMPLATES_INDEX = ID.create("MeteorTemplateIndex");
-  private static final int INDEX_VERSION = 2;
+/**
+ * Names of top-level {@code <template name="...">} tags in Spacebars files mapped to offsets of the name attribute values.
+ * Files are indexed with lexers only: mustaches found by the Handlebars lexer are blanked out and the rest is scanned by the HTML lexer.
+ */
+public final class MeteorTemplateIndex extends FileBasedIndexExtension<String, List<Integer>> {
+  public static final ID<String, List<Integer>> METEOR_TEMPLATES_INDEX = ID.create("MeteorTemplateIndex");
+  private static final int INDEX_VERSION = 3;
   public static final String TEMPLATE_TAG = "template";
   public static final String NAME_ATTRIBUTE = "name";
 
 
-  private static final class MyDataIndexer implements DataIndexer<String, Void, FileContent> {
+  private static final class MyDataIndexer implements DataIndexer<String, List<Integer>, FileContent> {
     @Override
     @NotNull
-    public Map<String, Void> map(@NotNull final FileContent inputData) {
-      Map<String, Void> result = new HashMap<>();
-      visitTemplateTags(inputData.getPsiFile(), tag -> {
-        String name = tag.getAttributeValue(NAME_ATTRIBUTE);
-        if (name != null) {
-          result.put(name, null);
+    public Map<String, List<Integer>> map(@NotNull final FileContent inputData) {
+      // same check as getPsi(SpacebarsLanguageDialect.INSTANCE) != null, the file is not parsed for that
+      if (!inputData.getPsiFile().getViewProvider().getLanguages().contains(SpacebarsLanguageDialect.INSTANCE)) {
+        return Collections.emptyMap();
+      }
+
+      Map<String, List<Integer>> result = new HashMap<>();
+      CharSequence htmlText = removeMustaches(inputData.getContentAsText());
+      Lexer lexer = new HtmlLexer();
+      lexer.start(htmlText);
+
+      int templateDepth = 0;
+      IElementType type;
+      while ((type = lexer.getTokenType()) != null) {
+        if (type == XmlTokenType.XML_START_TAG_START || type == XmlTokenType.XML_END_TAG_START) {
+          lexer.advance();
+          if (!isTemplateTagName(lexer, htmlText)) continue;
+
+          if (type == XmlTokenType.XML_END_TAG_START) {
+            templateDepth = Math.max(0, templateDepth - 1);
+            continue;
+          }
+
+          lexer.advance();
+          boolean topLevel = templateDepth == 0;
+          if (processTemplateTagAttributes(lexer, htmlText, topLevel ? result : null)) {
+            templateDepth++;
+          }
+          continue;
         }
-      });
+        lexer.advance();
+      }
 
       return result;
     }
+
+    /**
+     * Replaces everything that is not HTML with spaces keeping offsets the same
+     */
+    private static CharSequence removeMustaches(@NotNull CharSequence text) {
+      StringBuilder result = null;
+      Lexer lexer = new HbLexer();
+      lexer.start(text);
+      IElementType type;
+      while ((type = lexer.getTokenType()) != null) {
+        if (type != HbTokenTypes.CONTENT) {
+          if (result == null) {
+            result = new StringBuilder(text);
+          }
+          for (int i = lexer.getTokenStart(); i < lexer.getTokenEnd(); i++) {
+            result.setCharAt(i, ' ');
+          }
+        }
+        lexer.advance();
+      }
+      return result != null ? result : text;
+    }
+
+    private static boolean isTemplateTagName(@NotNull Lexer lexer, @NotNull CharSequence text) {
+      IElementType type = lexer.getTokenType();
+      return (type == XmlTokenType.XML_NAME || type == XmlTokenType.XML_TAG_NAME) &&
+             TEMPLATE_TAG.equalsIgnoreCase(text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()).toString());
+    }
+
+    /**
+     * Adds value of the name attribute to the result if it's not null
+     *
+     * @return false if the tag is an empty element tag, so no closing tag is expected
+     */
+    private static boolean processTemplateTagAttributes(@NotNull Lexer lexer,
+                                                        @NotNull CharSequence text,
+                                                        @Nullable Map<String, List<Integer>> result) {
+      boolean nameAttribute = false;
+      IElementType type;
+      while ((type = lexer.getTokenType()) != null) {
+        if (type == XmlTokenType.XML_TAG_END || type == XmlTokenType.XML_EMPTY_ELEMENT_END) {
+          lexer.advance();
+          return type == XmlTokenType.XML_TAG_END;
+        }
+        if (type == XmlTokenType.XML_START_TAG_START || type == XmlTokenType.XML_END_TAG_START) {
+          return true; // not closed tag
+        }
+
+        if (type == XmlTokenType.XML_NAME) {
+          nameAttribute = NAME_ATTRIBUTE.equals(text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()).toString());
+        }
+        else if (type == XmlTokenType.XML_ATTRIBUTE_VALUE_TOKEN && nameAttribute) {
+          nameAttribute = false;
+          String name = text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()).toString();
+          if (result != null && !StringUtil.isEmptyOrSpaces(name)) {
+            result.computeIfAbsent(name, __ -> new ArrayList<>()).add(lexer.getTokenStart());
+          }
+        }
+        lexer.advance();
+      }
+      return false;
+    }
   }
 
+  private static final DataExternalizer<List<Integer>> OFFSETS_EXTERNALIZER = new DataExternalizer<>() {
+    @Override
+    public void save(@NotNull DataOutput out, List<Integer> value) throws IOException {
+      DataInputOutputUtilRt.writeSeq(out, value, offset -> DataInputOutputUtilRt.writeINT(out, offset.intValue()));
+    }
+
+    @Override
+    public List<Integer> read(@NotNull DataInput in) throws IOException {
+      return DataInputOutputUtilRt.readSeq(in, () -> DataInputOutputUtilRt.readINT(in));
+    }
+  };
+
   @NotNull
   @Override
-  public ID<String, Void> getName() {
+  public ID<String, List<Integer>> getName() {
     return METEOR_TEMPLATES_INDEX;
   }
 
   @NotNull
   @Override
-  public DataIndexer<String, Void, FileContent> getIndexer() {
+  public DataIndexer<String, List<Integer>, FileContent> getIndexer() {
     return new MyDataIndexer();
   }
 
@@ -61,6 +179,12 @@ public final class MeteorTemplateIndex extends ScalarIndexExtension<String> {
     return EnumeratorStringDescriptor.INSTANCE;
   }
 
+  @NotNull
+  @Override
+  public DataExternalizer<List<Integer>> getValueExternalizer() {
+    return OFFSETS_EXTERNALIZER;
+  }
+
   @NotNull
   @Override
   public FileBasedIndex.InputFilter getInputFilter() {
@@ -85,53 +209,32 @@ public final class MeteorTemplateIndex extends ScalarIndexExtension<String> {
   @NotNull
   public static ArrayList<PsiElement> findDeclarations(final String key, final PsiManager psiManager, GlobalSearchScope scope) {
     final ArrayList<PsiElement> result = new ArrayList<>();
-    FileBasedIndex.getInstance().getFilesWithKey(METEOR_TEMPLATES_INDEX, ContainerUtil.newHashSet(key), file -> {
+    FileBasedIndex.getInstance().processValues(METEOR_TEMPLATES_INDEX, key, null, (file, offsets) -> {
       PsiFile psiFile = psiManager.findFile(file);
-
-      visitTemplateTags(psiFile, tag -> {
-        XmlAttribute name = tag.getAttribute(NAME_ATTRIBUTE);
-        if (name != null && key.equals(name.getValue())) {
-          result.add(name.getValueElement());
+      PsiFile htmlPsiFile = psiFile != null ? psiFile.getViewProvider().getPsi(HTMLLanguage.INSTANCE) : null;
+      if (htmlPsiFile == null) return true;
+
+      for (Integer offset : offsets) {
+        XmlAttributeValue value = PsiTreeUtil.getParentOfType(htmlPsiFile.findElementAt(offset), XmlAttributeValue.class);
+        XmlAttribute name = value != null ? PsiTreeUtil.getParentOfType(value, XmlAttribute.class) : null;
+        XmlTag tag = name != null ? name.getParent() : null;
+        if (tag != null && TEMPLATE_TAG.equalsIgnoreCase(tag.getName()) && NAME_ATTRIBUTE.equals(name.getName()) &&
+            key.equals(name.getValue())) {
+          result.add(value);
         }
-      });
+      }
       return false;
     }, scope);
 
     return result;
   }
 
+  /**
+   * Enumerates template names in a single pass over the index keys, keys of files outside the project are filtered out by the index.
+   */
   public static Collection<String> getKeys(final Project project) {
-    Collection<String> keys = FileBasedIndex.getInstance().getAllKeys(METEOR_TEMPLATES_INDEX, project);
-
-    return ContainerUtil.filter(keys, s -> {
-      List<Void> values = FileBasedIndex.getInstance().getValues(METEOR_TEMPLATES_INDEX, s, GlobalSearchScope.allScope(project));
-      return !values.isEmpty();
-    });
-  }
-
-  private static void visitTemplateTags(PsiFile psiFile, final Consumer<XmlTag> processor) {
-    FileViewProvider viewProvider = psiFile.getViewProvider();
-    PsiFile spacebarsFile = viewProvider.getPsi(SpacebarsLanguageDialect.INSTANCE);
-    if (spacebarsFile == null) {
-      return;
-    }
-
-    PsiFile htmlPsiFile = viewProvider.getPsi(HTMLLanguage.INSTANCE);
-    if (htmlPsiFile == null) {
-      return;
-    }
-
-    htmlPsiFile.acceptChildren(new XmlRecursiveElementWalkingVisitor() {
-      @Override
-      public void visitXmlTag(@NotNull XmlTag tag) {
-        if (TEMPLATE_TAG.equalsIgnoreCase(tag.getName())) {
-
-          processor.consume(tag);
-          //now template tag cannot have inner templates
-          return;
-        }
-        super.visitXmlTag(tag);
-      }
-    });
+    CommonProcessors.CollectProcessor<String> processor = new CommonProcessors.CollectProcessor<>(new HashSet<>());
+    FileBasedIndex.getInstance().processAllKeys(METEOR_TEMPLATES_INDEX, processor, GlobalSearchScope.allScope(project), null);
+    return processor.getResults();
   }
 }
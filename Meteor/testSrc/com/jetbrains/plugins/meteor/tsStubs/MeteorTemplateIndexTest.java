@@ -0,0 +1,93 @@
+package com.jetbrains.plugins.meteor.tsStubs;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.xml.XmlAttributeValue;
+import com.intellij.testFramework.fixtures.CodeInsightFixtureTestCase;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.plugins.meteor.spacebars.templates.MeteorTemplateIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MeteorTemplateIndexTest extends CodeInsightFixtureTestCase {
+  private static final String TEMPLATES =
+    "<template name=\"first\">\n" +
+    "  {{!-- <template name=\"commented\"></template> --}}\n" +
+    "  {{helper \"<template name='inString'>\"}}\n" +
+    "  <template name=\"nested\"></template>\n" +
+    "</template>\n" +
+    "{{#if condition}}\n" +
+    "  <template name=\"inBlock\"></template>\n" +
+    "{{/if}}\n" +
+    "<TEMPLATE name=\"second\"/>\n" +
+    "<template name=\"first\"></template>\n";
+
+  public void testIndexedNamesAndOffsets() {
+    PsiFile file = myFixture.addFileToProject("templates.spacebars", TEMPLATES);
+
+    Map<String, List<Integer>> data =
+      FileBasedIndex.getInstance().getFileData(MeteorTemplateIndex.METEOR_TEMPLATES_INDEX, file.getVirtualFile(), getProject());
+    assertEquals(Set.of("first", "inBlock", "second"), data.keySet());
+    int firstOffset = TEMPLATES.indexOf("first\"");
+    assertEquals(List.of(firstOffset, TEMPLATES.indexOf("first\"", firstOffset + 1)), data.get("first"));
+    assertEquals(List.of(TEMPLATES.indexOf("inBlock\"")), data.get("inBlock"));
+    assertEquals(List.of(TEMPLATES.indexOf("second\"")), data.get("second"));
+  }
+
+  public void testKeys() {
+    myFixture.addFileToProject("templates.spacebars", TEMPLATES);
+    myFixture.addFileToProject("other.spacebars", "<template name=\"third\"></template>");
+
+    assertSameElements(MeteorTemplateIndex.getKeys(getProject()), "first", "inBlock", "second", "third");
+  }
+
+  public void testFindDeclarations() {
+    PsiFile file = myFixture.addFileToProject("templates.spacebars", TEMPLATES);
+
+    List<PsiElement> declarations = MeteorTemplateIndex.findDeclarations("second", getPsiManager(), GlobalSearchScope.allScope(getProject()));
+    assertEquals(1, declarations.size());
+    XmlAttributeValue value = assertInstanceOf(declarations.get(0), XmlAttributeValue.class);
+    assertEquals("second", value.getValue());
+    assertEquals(file.getVirtualFile(), value.getContainingFile().getVirtualFile());
+    assertEquals(TEMPLATES.indexOf("\"second\""), value.getTextRange().getStartOffset());
+
+    assertSize(2, MeteorTemplateIndex.findDeclarations("first", getPsiManager(), GlobalSearchScope.allScope(getProject())));
+    assertEmpty(MeteorTemplateIndex.findDeclarations("nested", getPsiManager(), GlobalSearchScope.allScope(getProject())));
+    assertEmpty(MeteorTemplateIndex.findDeclarations("commented", getPsiManager(), GlobalSearchScope.allScope(getProject())));
+  }
+
+  public void testNavigationToTemplate() {
+    myFixture.addFileToProject("templates.spacebars", TEMPLATES);
+    myFixture.configureByText("usage.spacebars", "<template name=\"usage\">\n  {{> sec<caret>ond}}\n</template>");
+
+    PsiReference reference = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset());
+    assertNotNull(reference);
+    XmlAttributeValue value = assertInstanceOf(reference.resolve(), XmlAttributeValue.class);
+    assertEquals("second", value.getValue());
+    assertEquals("templates.spacebars", value.getContainingFile().getName());
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    MeteorTestUtil.enableMeteor();
+    super.setUp();
+    MeteorProjectTestBase.initMeteorDirs(getProject());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      MeteorTestUtil.disableMeteor();
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+}
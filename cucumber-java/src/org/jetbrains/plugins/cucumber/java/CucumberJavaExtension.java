@@ -2,12 +2,15 @@ package org.jetbrains.plugins.cucumber.java;
 
 import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.openapi.module.Module;
-import com.intellij.psi.JavaPsiFacade;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiMethod;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Pair;
+import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.Query;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -18,9 +21,8 @@ import org.jetbrains.plugins.cucumber.java.steps.JavaStepDefinitionCreator;
 import org.jetbrains.plugins.cucumber.java.steps.factory.JavaStepDefinitionFactory;
 import org.jetbrains.plugins.cucumber.steps.AbstractStepDefinition;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CucumberJavaExtension extends AbstractCucumberJavaExtension {
   private static final String CUCUMBER_JAVA_5_STEP_DEFINITION_ANNOTATION_CLASS_NAME = "io.cucumber.java.StepDefinitionAnnotation";
@@ -42,8 +44,21 @@ public class CucumberJavaExtension extends AbstractCucumberJavaExtension {
     return new JavaStepDefinitionCreator();
   }
 
+  /**
+   * Step definitions don't depend on the feature file, so they are cached per module and shared by all feature files,
+   * inspections and glue calculation. The cache is dropped on any change outside of feature files and on roots change;
+   * definitions built for a method are reused then unless the files they depend on have changed (see {@link #getStepDefinitions}).
+   */
   @Override
   public List<AbstractStepDefinition> loadStepsFor(@Nullable PsiFile featureFile, @NotNull Module module) {
+    final Project project = module.getProject();
+    return CachedValuesManager.getManager(project).getCachedValue(module, () -> CachedValueProvider.Result.create(
+      Collections.unmodifiableList(doLoadStepsFor(module)),
+      CucumberJavaUtil.getStepDefinitionsModificationTracker(project),
+      ProjectRootManager.getInstance(project)));
+  }
+
+  private static List<AbstractStepDefinition> doLoadStepsFor(@NotNull Module module) {
     final GlobalSearchScope dependenciesScope = module.getModuleWithDependenciesAndLibrariesScope(true);
 
     PsiClass stepDefAnnotationClass = null;
@@ -66,13 +81,60 @@ public class CucumberJavaExtension extends AbstractCucumberJavaExtension {
       if (annotationClass.isAnnotationType() && annotationClassName != null) {
         final Query<PsiMethod> javaStepDefinitions = AnnotatedElementsSearch.searchPsiMethods(annotationClass, dependenciesScope);
         for (PsiMethod stepDefMethod : javaStepDefinitions) {
-          List<String> annotationValues = CucumberJavaUtil.getStepAnnotationValues(stepDefMethod, annotationClassName);
-          for (String annotationValue : annotationValues) {
-            result.add(stepDefinitionFactory.buildStepDefinition(stepDefMethod, module, annotationValue));
-          }
+          result.addAll(getStepDefinitions(stepDefMethod, annotationClassName, module, stepDefinitionFactory));
         }
       }
     }
     return result;
   }
+
+  private static List<AbstractStepDefinition> getStepDefinitions(@NotNull PsiMethod stepDefMethod,
+                                                                 @NotNull String annotationClassName,
+                                                                 @NotNull Module module,
+                                                                 @NotNull JavaStepDefinitionFactory stepDefinitionFactory) {
+    final Map<Pair<Module, String>, List<AbstractStepDefinition>> definitions = CachedValuesManager.getCachedValue(
+      stepDefMethod, () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), getAnnotationValueDependencies(stepDefMethod)));
+
+    return definitions.computeIfAbsent(Pair.create(module, annotationClassName), __ -> {
+      final List<AbstractStepDefinition> result = new ArrayList<>();
+      for (String annotationValue : CucumberJavaUtil.getStepAnnotationValues(stepDefMethod, annotationClassName)) {
+        result.add(stepDefinitionFactory.buildStepDefinition(stepDefMethod, module, annotationValue));
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Annotation values may refer to constants declared in other files, possibly through other constants,
+   * so definitions built for a method depend on the files of these constants as well as on the method's own file.
+   */
+  private static Object @NotNull [] getAnnotationValueDependencies(@NotNull PsiMethod method) {
+    final Set<Object> dependencies = new LinkedHashSet<>();
+    dependencies.add(method.getContainingFile());
+    dependencies.add(ProjectRootManager.getInstance(method.getProject()));
+
+    final Set<PsiField> visited = new HashSet<>();
+    final Deque<PsiElement> toVisit = new ArrayDeque<>(Arrays.asList(method.getModifierList().getAnnotations()));
+    while (!toVisit.isEmpty()) {
+      toVisit.pop().accept(new JavaRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitReferenceExpression(PsiReferenceExpression expression) {
+          super.visitReferenceExpression(expression);
+          final PsiElement target = expression.resolve();
+          if (target == null) {
+            // the constant may be declared later anywhere
+            dependencies.add(PsiModificationTracker.MODIFICATION_COUNT);
+          }
+          else if (target instanceof PsiField && visited.add((PsiField)target)) {
+            dependencies.add(target.getContainingFile());
+            final PsiExpression initializer = ((PsiField)target).getInitializer();
+            if (initializer != null) {
+              toVisit.add(initializer);
+            }
+          }
+        }
+      });
+    }
+    return dependencies.toArray();
+  }
 }
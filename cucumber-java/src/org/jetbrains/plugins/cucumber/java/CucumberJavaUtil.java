@@ -12,6 +12,8 @@ import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -22,6 +24,7 @@ import com.intellij.psi.util.*;
 import com.intellij.usageView.UsageInfo;
 import com.intellij.util.CommonProcessors;
 import com.intellij.util.Query;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.text.VersionComparatorUtil;
 import com.siyeh.ig.callMatcher.CallMatcher;
 import org.jetbrains.annotations.NotNull;
@@ -496,17 +499,36 @@ public final class CucumberJavaUtil {
    * Check every step and send glue (package name) of its definition to consumer
    */
   public static void calculateGlueFromGherkinFile(@NotNull GherkinFile gherkinFile, @NotNull Consumer<String> consumer) {
-    gherkinFile.accept(new GherkinRecursiveElementVisitor() {
-      @Override
-      public void visitStep(GherkinStep step) {
-        String glue = getPackageOfStep(step);
-        if (glue != null) {
-          consumer.accept(glue);
+    getGlueFromGherkinFile(gherkinFile).forEach(consumer);
+  }
+
+  /**
+   * Returns glue (package names) of definitions of all steps in the file. The result is cached until the file or step definitions change.
+   */
+  @NotNull
+  public static Set<String> getGlueFromGherkinFile(@NotNull GherkinFile gherkinFile) {
+    return CachedValuesManager.getCachedValue(gherkinFile, () -> {
+      Set<String> glue = new LinkedHashSet<>();
+      gherkinFile.accept(new GherkinRecursiveElementVisitor() {
+        @Override
+        public void visitStep(GherkinStep step) {
+          ContainerUtil.addIfNotNull(glue, getPackageOfStep(step));
         }
-      }
+      });
+      return CachedValueProvider.Result.create(Collections.unmodifiableSet(glue), gherkinFile,
+                                               getStepDefinitionsModificationTracker(gherkinFile.getProject()),
+                                               ProjectRootManager.getInstance(gherkinFile.getProject()));
     });
   }
 
+  /**
+   * Step definitions, hooks and parameter types may change with any PSI change but the ones in feature files
+   */
+  @NotNull
+  public static ModificationTracker getStepDefinitionsModificationTracker(@NotNull Project project) {
+    return PsiModificationTracker.getInstance(project).forLanguages(language -> !language.isKindOf(GherkinLanguage.INSTANCE));
+  }
+
   /**
    * Search for all Cucumber Hooks and sends their glue (package names) to consumer
    */
@@ -1,6 +1,7 @@
 // Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.plugins.cucumber.java.run;
 
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElementVisitor;
@@ -9,8 +10,18 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.plugins.cucumber.java.CucumberJavaUtil;
 import org.jetbrains.plugins.cucumber.psi.GherkinFile;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+/**
+ * Feature files are processed concurrently, glue of each file is cached until the file or step definitions change
+ * (see {@link CucumberJavaUtil#getGlueFromGherkinFile}), so recalculating glue for the same folder only resolves steps of changed files.
+ * The consumer is called in the calling thread.
+ */
 public class CucumberJavaAllFeaturesInFolderGlueProvider implements CucumberGlueProvider {
   private final PsiDirectory myDirectory;
 
@@ -20,11 +31,12 @@ public class CucumberJavaAllFeaturesInFolderGlueProvider implements CucumberGlue
 
   @Override
   public void calculateGlue(@NotNull Consumer<String> consumer) {
+    final List<GherkinFile> featureFiles = new ArrayList<>();
     myDirectory.accept(new PsiElementVisitor() {
       @Override
       public void visitFile(@NotNull final PsiFile file) {
         if (file instanceof GherkinFile) {
-          CucumberJavaUtil.calculateGlueFromGherkinFile((GherkinFile)file, consumer);
+          featureFiles.add((GherkinFile)file);
         }
       }
 
@@ -40,6 +52,24 @@ public class CucumberJavaAllFeaturesInFolderGlueProvider implements CucumberGlue
         }
       }
     });
+
+    final Map<GherkinFile, Set<String>> glues = new ConcurrentHashMap<>();
+    final boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(
+      featureFiles, ProgressManager.getInstance().getProgressIndicator(), file -> {
+        glues.put(file, CucumberJavaUtil.getGlueFromGherkinFile(file));
+        return true;
+      });
+    if (!completed) {
+      ProgressManager.checkCanceled();
+    }
+
+    // in the order of files, so that the glue is the same as if the files were processed one by one
+    for (GherkinFile file : featureFiles) {
+      ProgressManager.checkCanceled();
+      // a file skipped by the workers is processed here
+      final Set<String> glue = glues.get(file);
+      (glue != null ? glue : CucumberJavaUtil.getGlueFromGherkinFile(file)).forEach(consumer);
+    }
     CucumberJavaUtil.calculateGlueFromHooksAndTypes(myDirectory, consumer);
   }
 }
@@ -2,16 +2,20 @@
 package org.jetbrains.plugins.cucumber.java.glue;
 
 import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.testFramework.LightProjectDescriptor;
 import com.intellij.util.CollectConsumer;
 import org.jetbrains.plugins.cucumber.CucumberCodeInsightTestCase;
 import org.jetbrains.plugins.cucumber.java.CucumberJavaTestUtil;
+import org.jetbrains.plugins.cucumber.java.CucumberJavaUtil;
 import org.jetbrains.plugins.cucumber.java.run.CucumberJavaAllFeaturesInFolderGlueProvider;
 import org.jetbrains.plugins.cucumber.java.run.CucumberJavaFeatureGlueProvider;
 import org.jetbrains.plugins.cucumber.psi.GherkinFile;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.jetbrains.plugins.cucumber.java.CucumberJavaTestUtil.RELATED_TEST_DATA_PATH;
 
@@ -36,6 +40,28 @@ public class CucumberJavaGlueProviderTest extends CucumberCodeInsightTestCase {
     assertContainsElements(consumer.getResult(), Arrays.asList("cucumber.examples.java.calculator", "info.cucumber", "test.cucumber.hooks", "test.cucumber.types"));
   }
 
+  public void testGlueIsRecalculatedAfterStepDefinitionChange() {
+    init();
+
+    GherkinFile featureFile = (GherkinFile)myFixture.getPsiManager().findFile(myFixture.findFileInTempDir("another.feature"));
+    assertNotNull(featureFile);
+    assertEquals(Collections.singleton("info.cucumber"), CucumberJavaUtil.getGlueFromGherkinFile(featureFile));
+
+    VirtualFile stepDefinitions = myFixture.findFileInTempDir("CustomStepdefs.java");
+    myFixture.saveText(stepDefinitions, "package info.cucumber.moved;\n" +
+                                        "\n" +
+                                        "import io.cucumber.java.en.When;\n" +
+                                        "\n" +
+                                        "public class CustomStepdefs {\n" +
+                                        "  @When(\"my custom step\")\n" +
+                                        "  public void my_custom_step() {\n" +
+                                        "  }\n" +
+                                        "}\n");
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+    assertEquals(Collections.singleton("info.cucumber.moved"), CucumberJavaUtil.getGlueFromGherkinFile(featureFile));
+  }
+
   @Override
   protected String getTestDataPath() {
     return PathManager.getHomePath() + RELATED_TEST_DATA_PATH;
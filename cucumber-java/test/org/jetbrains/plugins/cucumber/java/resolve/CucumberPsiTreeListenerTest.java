@@ -3,8 +3,14 @@ package org.jetbrains.plugins.cucumber.java.resolve;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.util.Ref;
 import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.cucumber.java.CucumberJavaExtension;
+import org.jetbrains.plugins.cucumber.steps.AbstractStepDefinition;
+
+import java.util.List;
 
 public class CucumberPsiTreeListenerTest extends BaseCucumberJavaResolveTest {
   public void testCreationOfStepDefinition() {
@@ -15,6 +21,53 @@ public class CucumberPsiTreeListenerTest extends BaseCucumberJavaResolveTest {
     doTestDeletion("treeListener", "my change sh<caret>ould be 4", "my_change_should_be_");
   }
 
+  public void testChangeOfStepDefinitionPatternInAnotherFile() {
+    init("treeListener");
+    myFixture.addFileToProject("StepPatterns.java", "public class StepPatterns {\n" +
+                                                    "  public static final String PAY = \"^I pay (\\\\d+)$\";\n" +
+                                                    "}");
+    createStepDefinition("@cucumber.api.java.en.When(StepPatterns.PAY)\npublic void i_pay(int amount) {}");
+    checkReference("I p<caret>ay 25", "i_pay");
+
+    final PsiClass patternsClass = JavaPsiFacade.getInstance(getProject()).findClass("StepPatterns", GlobalSearchScope.allScope(getProject()));
+    assertNotNull(patternsClass);
+    final PsiField payField = patternsClass.findFieldByName("PAY", false);
+    assertNotNull(payField);
+    WriteCommandAction.writeCommandAction(getProject(), patternsClass.getContainingFile()).run(() -> {
+      final PsiElementFactory factory = JavaPsiFacade.getInstance(getProject()).getElementFactory();
+      payField.setInitializer(factory.createExpressionFromText("\"^I receive (\\\\d+)$\"", payField));
+    });
+
+    // the step definition file itself hasn't changed, but the pattern it uses has
+    checkReference("I p<caret>ay 25", null);
+  }
+
+  public void testStepDefinitionsOfUnchangedFileAreReused() {
+    init("treeListener");
+    final PsiJavaFile otherFile = (PsiJavaFile)myFixture.addFileToProject("Other.java", "public class Other {}");
+    final CucumberJavaExtension extension = new CucumberJavaExtension();
+    final List<AbstractStepDefinition> before = extension.loadStepsFor(null, getModule());
+
+    WriteCommandAction.writeCommandAction(getProject(), otherFile).run(() -> {
+      final PsiElementFactory factory = JavaPsiFacade.getInstance(getProject()).getElementFactory();
+      otherFile.getClasses()[0].add(factory.createMethodFromText("public void foo() {}", null));
+    });
+
+    final List<AbstractStepDefinition> after = extension.loadStepsFor(null, getModule());
+    assertNotSame("step definitions of the module must be recomputed after a change of a Java file", before, after);
+    assertSame(findStepDefinition(before, "my_change_should_be_"), findStepDefinition(after, "my_change_should_be_"));
+  }
+
+  @NotNull
+  private static AbstractStepDefinition findStepDefinition(@NotNull List<AbstractStepDefinition> definitions, @NotNull String methodName) {
+    final AbstractStepDefinition result = ContainerUtil.find(definitions, definition -> {
+      final PsiElement element = definition.getElement();
+      return element instanceof PsiMethod && methodName.equals(((PsiMethod)element).getName());
+    });
+    assertNotNull(result);
+    return result;
+  }
+
   private PsiClass getStepDefClass() {
     final PsiFile stepDefFile = findPsiFileInTempDirBy("ShoppingStepdefs.java");
     final PsiJavaFile javaFile = (PsiJavaFile)stepDefFile;
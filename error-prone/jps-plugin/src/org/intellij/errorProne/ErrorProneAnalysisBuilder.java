@@ -0,0 +1,258 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.intellij.errorProne;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.execution.ParametersListUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.ModuleChunk;
+import org.jetbrains.jps.ProjectPaths;
+import org.jetbrains.jps.builders.DirtyFilesHolder;
+import org.jetbrains.jps.builders.java.JavaSourceRootDescriptor;
+import org.jetbrains.jps.incremental.*;
+import org.jetbrains.jps.incremental.java.JavaBuilder;
+import org.jetbrains.jps.incremental.messages.BuildMessage;
+import org.jetbrains.jps.incremental.messages.CompilerMessage;
+import org.jetbrains.jps.incremental.messages.ProgressMessage;
+import org.jetbrains.jps.model.JpsDummyElement;
+import org.jetbrains.jps.model.java.JpsJavaExtensionService;
+import org.jetbrains.jps.model.java.JpsJavaSdkType;
+import org.jetbrains.jps.model.java.compiler.JpsJavaCompilerConfiguration;
+import org.jetbrains.jps.model.java.compiler.JpsJavaCompilerOptions;
+import org.jetbrains.jps.model.library.sdk.JpsSdk;
+import org.jetbrains.jps.model.module.JpsModule;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Runs Error Prone over the sources recompiled in the current round for modules that are compiled with
+ * {@link ErrorProneJavaCompilingTool#SEPARATE_ANALYSIS_OPTION}. Javac is run in the build process with the Error Prone plugin,
+ * the simple compile policy it requires, and {@code -XDshould-stop.ifNoError=FLOW}, so no class files are generated:
+ * classes produced by the regular compilation (and by annotation processors) are taken from the output directories.
+ * Other javac options, including the language level, are the ones {@link JavaBuilder} compiles the chunk with.
+ * Sources with errors are marked dirty, so the next build analyzes them again.
+ * Chunks are independent, so the analysis runs in parallel when parallel compilation of independent modules is enabled.
+ * <p>
+ * Note that on JDK 16+ Error Prone needs jdk.compiler internals exported, see http://errorprone.info/docs/installation;
+ * the corresponding --add-exports options should be added to the build process VM options.
+ */
+public class ErrorProneAnalysisBuilder extends ModuleLevelBuilder {
+  private static final Logger LOG = Logger.getInstance(ErrorProneAnalysisBuilder.class);
+  private static final String BUILDER_NAME = "Error Prone";
+
+  public ErrorProneAnalysisBuilder() {
+    super(BuilderCategory.CLASS_POST_PROCESSOR);
+  }
+
+  @NotNull
+  @Override
+  public String getPresentableName() {
+    return BUILDER_NAME;
+  }
+
+  @NotNull
+  @Override
+  public List<String> getCompilableFileExtensions() {
+    return Collections.singletonList("java");
+  }
+
+  @Override
+  public ExitCode build(CompileContext context,
+                        ModuleChunk chunk,
+                        DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> dirtyFilesHolder,
+                        OutputConsumer outputConsumer) throws ProjectBuildException, IOException {
+    if (!isSeparateAnalysisEnabled(context, chunk)) {
+      return ExitCode.NOTHING_DONE;
+    }
+
+    Set<File> sources = new LinkedHashSet<>();
+    for (CompiledClass compiledClass : outputConsumer.getCompiledClasses().values()) {
+      for (File source : compiledClass.getSourceFiles()) {
+        if (FileUtil.extensionEquals(source.getName(), "java")) {
+          sources.add(source);
+        }
+      }
+    }
+    if (sources.isEmpty()) {
+      return ExitCode.NOTHING_DONE;
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      context.processMessage(new CompilerMessage(BUILDER_NAME, BuildMessage.Kind.WARNING,
+                                                 "Error Prone analysis skipped: the build process doesn't run on a JDK"));
+      return ExitCode.NOTHING_DONE;
+    }
+
+    context.processMessage(new ProgressMessage("Running Error Prone on " + sources.size() + " files of " + chunk.getPresentableShortName()));
+    long start = System.currentTimeMillis();
+    Collection<File> filesWithErrors = analyze(context, chunk, compiler, sources);
+    long time = System.currentTimeMillis() - start;
+
+    String message = "Error Prone analysis of " + sources.size() + " files in " + chunk.getPresentableShortName() + " took " + time + " ms";
+    LOG.info(message);
+    context.processMessage(new CompilerMessage(BUILDER_NAME, BuildMessage.Kind.INFO, message));
+
+    if (filesWithErrors == null) {
+      return ExitCode.OK;
+    }
+    // classes of these sources are already compiled, the next build wouldn't analyze them again otherwise
+    for (File file : filesWithErrors.isEmpty() ? sources : filesWithErrors) {
+      FSOperations.markDirty(context, CompilationRound.NEXT, file);
+    }
+    return ExitCode.ABORT;
+  }
+
+  /**
+   * @return true if Error Prone is the selected compiler and the chunk is configured for separate analysis
+   */
+  private static boolean isSeparateAnalysisEnabled(@NotNull CompileContext context, @NotNull ModuleChunk chunk) {
+    JpsJavaCompilerConfiguration configuration =
+      JpsJavaExtensionService.getInstance().getCompilerConfiguration(context.getProjectDescriptor().getProject());
+    if (configuration == null || !ErrorProneJavaCompilingTool.COMPILER_ID.equals(configuration.getJavaCompilerId())) {
+      return false;
+    }
+
+    JpsJavaCompilerOptions options = configuration.getCompilerOptions(ErrorProneJavaCompilingTool.COMPILER_ID);
+    // modules of a chunk are compiled together, so they share options
+    JpsModule module = chunk.representativeTarget().getModule();
+    String moduleOptions = options.ADDITIONAL_OPTIONS_OVERRIDE.get(module.getName());
+    return ParametersListUtil.parse(moduleOptions != null ? moduleOptions : options.ADDITIONAL_OPTIONS_STRING)
+      .contains(ErrorProneJavaCompilingTool.SEPARATE_ANALYSIS_OPTION);
+  }
+
+  /**
+   * @return sources with errors (empty if errors weren't reported against particular sources), or null if there were no errors
+   */
+  @Nullable
+  private static Collection<File> analyze(@NotNull CompileContext context,
+                                          @NotNull ModuleChunk chunk,
+                                          @NotNull JavaCompiler compiler,
+                                          @NotNull Collection<File> sources) throws IOException {
+    // the same options the chunk is compiled with: language level, encoding, debug info and additional command line parameters
+    List<String> compilationOptions = new ArrayList<>();
+    JavaBuilder.addCompilationOptions(compilationOptions, context, chunk, null);
+    compilationOptions.removeIf(option -> option.equals(ErrorProneJavaCompilingTool.SEPARATE_ANALYSIS_OPTION) ||
+                                          option.startsWith("-proc:") || option.startsWith("-implicit:"));
+    List<String> errorProneOptions = new ArrayList<>();
+    String processorPath = ErrorProneJavaCompilingTool.extractErrorProneOptions(compilationOptions, errorProneOptions);
+
+    List<File> classpath = new ArrayList<>();
+    for (ModuleBuildTarget target : chunk.getTargets()) {
+      File outputDir = target.getOutputDir();
+      if (outputDir != null) {
+        classpath.add(outputDir);
+      }
+    }
+    classpath.addAll(ProjectPaths.getCompilationClasspath(chunk, false));
+
+    File outputDir = FileUtil.createTempDirectory("error-prone", null, true);
+    try {
+      List<String> options = new ArrayList<>(compilationOptions);
+      options.add("-classpath");
+      options.add(StringUtil.join(classpath, File::getPath, File.pathSeparator));
+      options.add("-d");
+      options.add(outputDir.getPath());
+      options.add("-proc:none");
+      options.add("-implicit:none");
+      options.add("-XDshould-stop.ifNoError=FLOW");
+      ErrorProneJavaCompilingTool.addErrorProneOptions(options, new ErrorProneJavaCompilingTool().getCompilerPath(processorPath),
+                                                       errorProneOptions);
+
+      String encoding = context.getProjectDescriptor().getEncodingConfiguration().getPreferredModuleChunkEncoding(chunk);
+      Charset charset = encoding != null ? Charset.forName(encoding) : null;
+
+      DiagnosticReporter reporter = new DiagnosticReporter(context);
+      try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(reporter, null, charset)) {
+        addPlatformOptions(chunk, options, fileManager);
+        StringWriter out = new StringWriter();
+        compiler.getTask(out, fileManager, reporter, options, null, fileManager.getJavaFileObjectsFromFiles(sources)).call();
+        if (out.getBuffer().length() > 0) {
+          LOG.info(out.toString());
+        }
+      }
+      catch (RuntimeException e) {
+        LOG.info(e);
+        context.processMessage(new CompilerMessage(BUILDER_NAME, BuildMessage.Kind.WARNING, "Error Prone analysis failed: " + e.getMessage()));
+      }
+      return reporter.myHasErrors ? reporter.myFilesWithErrors : null;
+    }
+    finally {
+      FileUtil.delete(outputDir);
+    }
+  }
+
+  /**
+   * Javac of the build process runs the analysis, so classes of the module JDK, if it is another one, are passed to it as JavaBuilder does:
+   * with --system for modular JDKs and as the platform class path for older ones, unless --release selects the platform classes.
+   */
+  private static void addPlatformOptions(@NotNull ModuleChunk chunk,
+                                         @NotNull List<String> options,
+                                         @NotNull StandardJavaFileManager fileManager) throws IOException {
+    if (options.contains("--release")) return;
+    JpsSdk<JpsDummyElement> sdk = chunk.representativeTarget().getModule().getSdk(JpsJavaSdkType.INSTANCE);
+    if (sdk == null || isBuildProcessJdk(sdk.getHomePath())) return;
+
+    if (JpsJavaSdkType.getJavaVersion(sdk) >= 9) {
+      options.add("--system");
+      options.add(sdk.getHomePath());
+    }
+    else {
+      Collection<File> platformClasspath = ProjectPaths.getPlatformCompilationClasspath(chunk, false);
+      if (!platformClasspath.isEmpty()) {
+        fileManager.setLocation(StandardLocation.PLATFORM_CLASS_PATH, platformClasspath);
+      }
+    }
+  }
+
+  private static boolean isBuildProcessJdk(@Nullable String homePath) {
+    if (homePath == null) return true;
+    File javaHome = new File(System.getProperty("java.home"));
+    // java.home points to the jre directory of JDK 8 and older
+    return FileUtil.filesEqual(new File(homePath), javaHome) || FileUtil.filesEqual(new File(homePath), javaHome.getParentFile());
+  }
+
+  private static final class DiagnosticReporter implements DiagnosticListener<JavaFileObject> {
+    private final CompileContext myContext;
+    private final Set<File> myFilesWithErrors = new LinkedHashSet<>();
+    private boolean myHasErrors;
+
+    private DiagnosticReporter(@NotNull CompileContext context) {
+      myContext = context;
+    }
+
+    @Override
+    public void report(Diagnostic<? extends JavaFileObject> diagnostic) {
+      BuildMessage.Kind kind;
+      switch (diagnostic.getKind()) {
+        case ERROR:
+          kind = BuildMessage.Kind.ERROR;
+          myHasErrors = true;
+          break;
+        case WARNING:
+        case MANDATORY_WARNING:
+          kind = BuildMessage.Kind.WARNING;
+          break;
+        default:
+          kind = BuildMessage.Kind.INFO;
+      }
+
+      JavaFileObject source = diagnostic.getSource();
+      File sourceFile = source != null ? new File(source.toUri()) : null;
+      if (sourceFile != null && kind == BuildMessage.Kind.ERROR) {
+        myFilesWithErrors.add(sourceFile);
+      }
+      String sourcePath = sourceFile != null ? FileUtil.toSystemIndependentName(sourceFile.getPath()) : null;
+      myContext.processMessage(new CompilerMessage(BUILDER_NAME, kind, diagnostic.getMessage(Locale.getDefault()), sourcePath,
+                                                   diagnostic.getStartPosition(), diagnostic.getEndPosition(), diagnostic.getPosition(),
+                                                   diagnostic.getLineNumber(), diagnostic.getColumnNumber()));
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.intellij.errorProne;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jps.builders.impl.java.JavacCompilerTool;
 import org.jetbrains.jps.builders.java.CannotCreateJavaCompilerException;
 import org.jetbrains.jps.builders.java.JavaCompilingTool;
@@ -19,6 +20,12 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
   public static final String COMPILER_ID = "error-prone";//duplicates ErrorProneJavaBackendCompiler.COMPILER_ID from IDE part
   private static final String VERSION_PROPERTY = "idea.error.prone.version";//duplicates ErrorProneClasspathProvider.VERSION_PROPERTY
   private static final String COMPILER_PATH_PROPERTY = "idea.error.prone.compiler.path";//duplicates ErrorProneClasspathProvider.COMPILER_PATH_PROPERTY
+  /**
+   * Javac option which switches a module to separate Error Prone analysis: the module is compiled with javac's default compile policy
+   * and without the Error Prone plugin, then {@link ErrorProneAnalysisBuilder} runs Error Prone over the recompiled sources only.
+   * It may be added to additional command line parameters of the project or of particular modules; javac ignores it anyway.
+   */
+  public static final String SEPARATE_ANALYSIS_OPTION = "-XDidea.errorProne.separateAnalysis";
 
   @NotNull
   @Override
@@ -52,9 +59,26 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
 
   @Override
   public void preprocessOptions(List<String> options) {
+    if (options.removeIf(SEPARATE_ANALYSIS_OPTION::equals)) {
+      // keep the default compile policy and annotation processors, Error Prone options are taken by ErrorProneAnalysisBuilder
+      options.removeIf(option -> option.startsWith("-Xep"));
+      return;
+    }
+
     //Error Prone should register itself as a plugin, see http://errorprone.info/docs/installation#command-line
-    Iterator<String> iterator = options.iterator();
     List<String> errorProneOptions = new ArrayList<>();
+    String processorPathOption = extractErrorProneOptions(options, errorProneOptions);
+    addErrorProneOptions(options, getCompilerPath(processorPathOption), errorProneOptions);
+  }
+
+  /**
+   * Moves Error Prone options from {@code options} to {@code errorProneOptions}, removes -processorpath option
+   *
+   * @return value of the removed -processorpath option
+   */
+  @Nullable
+  static String extractErrorProneOptions(@NotNull List<String> options, @NotNull List<String> errorProneOptions) {
+    Iterator<String> iterator = options.iterator();
     String processorPathOption = null;
     while (iterator.hasNext()) {
       String option = iterator.next();
@@ -70,9 +94,10 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
         }
       }
     }
+    return processorPathOption;
+  }
 
-    String compilerPath = getCompilerPath(processorPathOption);
-
+  static void addErrorProneOptions(@NotNull List<String> options, @NotNull String compilerPath, @NotNull List<String> errorProneOptions) {
     options.add("-XDcompilePolicy=simple");
     options.add("-processorpath");
     options.add(compilerPath);
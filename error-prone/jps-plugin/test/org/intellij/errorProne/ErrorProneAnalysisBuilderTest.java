@@ -0,0 +1,64 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.intellij.errorProne;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.util.PathUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.builders.BuildResult;
+import org.jetbrains.jps.builders.JpsBuildTestCase;
+import org.jetbrains.jps.incremental.messages.BuildMessage;
+import org.jetbrains.jps.model.java.JpsJavaExtensionService;
+import org.jetbrains.jps.model.java.compiler.JpsJavaCompilerConfiguration;
+
+public class ErrorProneAnalysisBuilderTest extends JpsBuildTestCase {
+  private static final String COMPILER_PATH_PROPERTY = "idea.error.prone.compiler.path";
+  private String myPreviousCompilerPath;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myPreviousCompilerPath = System.getProperty(COMPILER_PATH_PROPERTY);
+    // FakeErrorPronePlugin is found on this path as the 'ErrorProne' javac plugin
+    System.setProperty(COMPILER_PATH_PROPERTY, PathManager.getJarPathForClass(FakeErrorPronePlugin.class));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      if (myPreviousCompilerPath == null) {
+        System.clearProperty(COMPILER_PATH_PROPERTY);
+      }
+      else {
+        System.setProperty(COMPILER_PATH_PROPERTY, myPreviousCompilerPath);
+      }
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testErrorIsReportedUntilFixed() {
+    String file = createFile("src/A.java", "public class A {\n  void bad() {}\n}");
+    addModule("m", PathUtil.getParentPath(file));
+    JpsJavaCompilerConfiguration configuration = JpsJavaExtensionService.getInstance().getOrCreateCompilerConfiguration(myProject);
+    configuration.setJavaCompilerId(ErrorProneJavaCompilingTool.COMPILER_ID);
+    configuration.getCompilerOptions(ErrorProneJavaCompilingTool.COMPILER_ID).ADDITIONAL_OPTIONS_STRING =
+      ErrorProneJavaCompilingTool.SEPARATE_ANALYSIS_OPTION;
+
+    assertErrorProneError(buildAllModules());
+    // the class is compiled already, but its source must be analyzed again
+    assertErrorProneError(makeAll());
+
+    changeFile("src/A.java", "public class A {\n  void good() {}\n}");
+    makeAll().assertSuccessful();
+    makeAll().assertUpToDate();
+  }
+
+  private static void assertErrorProneError(@NotNull BuildResult result) {
+    result.assertFailed();
+    assertTrue(result.getMessages(BuildMessage.Kind.ERROR).toString(),
+               ContainerUtil.exists(result.getMessages(BuildMessage.Kind.ERROR),
+                                    message -> message.getMessageText().contains(FakeErrorPronePlugin.MESSAGE)));
+  }
+}
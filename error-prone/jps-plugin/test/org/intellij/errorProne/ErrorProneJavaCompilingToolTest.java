@@ -42,4 +42,16 @@ public class ErrorProneJavaCompilingToolTest extends UsefulTestCase {
       }
     }
   }
+
+  public void testSeparateAnalysis() {
+    ErrorProneJavaCompilingTool tool = new ErrorProneJavaCompilingTool();
+    List<String> options = new ArrayList<>();
+    options.add(ErrorProneJavaCompilingTool.SEPARATE_ANALYSIS_OPTION);
+    options.add("-Xep:CheckerName:LEVEL");
+    options.add("-processorpath");
+    options.add("/path/to/some.jar");
+    tool.preprocessOptions(options);
+
+    assertOrderedEquals(options, "-processorpath", "/path/to/some.jar");
+  }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.intellij.errorProne;
+
+import com.sun.source.tree.MethodTree;
+import com.sun.source.util.*;
+
+import javax.tools.Diagnostic;
+
+/**
+ * Javac plugin registered under Error Prone's name, so that the analysis can be tested without Error Prone itself:
+ * reports an error for each method named {@code bad}.
+ */
+public class FakeErrorPronePlugin implements Plugin {
+  static final String MESSAGE = "[FakeCheck] methods must not be named 'bad'";
+
+  @Override
+  public String getName() {
+    return "ErrorProne";
+  }
+
+  @Override
+  public void init(JavacTask task, String... args) {
+    Trees trees = Trees.instance(task);
+    task.addTaskListener(new TaskListener() {
+      @Override
+      public void finished(TaskEvent e) {
+        if (e.getKind() != TaskEvent.Kind.ANALYZE) return;
+        new TreeScanner<Void, Void>() {
+          @Override
+          public Void visitMethod(MethodTree tree, Void unused) {
+            if (tree.getName().contentEquals("bad")) {
+              trees.printMessage(Diagnostic.Kind.ERROR, MESSAGE, tree, e.getCompilationUnit());
+            }
+            return super.visitMethod(tree, unused);
+          }
+        }.scan(e.getCompilationUnit(), null);
+      }
+    });
+  }
+}
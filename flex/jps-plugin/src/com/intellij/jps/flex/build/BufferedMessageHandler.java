@@ -0,0 +1,46 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.jps.flex.build;
+
+import org.jetbrains.jps.incremental.MessageHandler;
+import org.jetbrains.jps.incremental.messages.BuildMessage;
+import org.jetbrains.jps.incremental.messages.ProgressMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds compiler messages of a build configuration compiled in parallel with others, so that the output of each
+ * compilation is reported as a whole and in a stable order. Progress messages are passed through immediately.
+ */
+final class BufferedMessageHandler implements MessageHandler {
+  private final MessageHandler myDelegate;
+  private final List<BuildMessage> myMessages = new ArrayList<>();
+
+  BufferedMessageHandler(final MessageHandler delegate) {
+    myDelegate = delegate;
+  }
+
+  @Override
+  public void processMessage(final BuildMessage message) {
+    if (message instanceof ProgressMessage) {
+      myDelegate.processMessage(message);
+      return;
+    }
+
+    synchronized (myMessages) {
+      myMessages.add(message);
+    }
+  }
+
+  void flush() {
+    final List<BuildMessage> messages;
+    synchronized (myMessages) {
+      messages = new ArrayList<>(myMessages);
+      myMessages.clear();
+    }
+
+    for (BuildMessage message : messages) {
+      myDelegate.processMessage(message);
+    }
+  }
+}
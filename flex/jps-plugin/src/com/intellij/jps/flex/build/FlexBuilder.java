@@ -27,6 +27,7 @@ import org.jetbrains.jps.builders.DirtyFilesHolder;
 import org.jetbrains.jps.builders.FileProcessor;
 import org.jetbrains.jps.cmdline.ProjectDescriptor;
 import org.jetbrains.jps.incremental.CompileContext;
+import org.jetbrains.jps.incremental.MessageHandler;
 import org.jetbrains.jps.incremental.ProjectBuildException;
 import org.jetbrains.jps.incremental.StopBuildException;
 import org.jetbrains.jps.incremental.TargetBuilder;
@@ -36,6 +37,7 @@ import org.jetbrains.jps.incremental.messages.ProgressMessage;
 import org.jetbrains.jps.model.JpsProject;
 import org.jetbrains.jps.model.library.sdk.JpsSdk;
 import org.jetbrains.jps.model.module.JpsModule;
+import org.jetbrains.jps.service.SharedThreadPool;
 
 import java.io.File;
 import java.io.IOException;
@@ -43,11 +45,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTarget> {
 
   private static final Logger LOG = Logger.getInstance(FlexBuilder.class.getName());
-  private JpsBuiltInFlexCompilerHandler myBuiltInCompilerHandler;
+  private JpsBuiltInFlexCompilerPool myBuiltInCompilerPool;
+  /**
+   * Limits the number of compilations running at the same time, both within a target (RLMs and runtime CSS modules)
+   * and across targets built in parallel by JPS.
+   */
+  private java.util.concurrent.Semaphore myCompilationSlots;
 
   private enum Status {Ok, Failed, Cancelled}
 
@@ -64,15 +74,17 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
   @Override
   public void buildStarted(final CompileContext context) {
     super.buildStarted(context);
-    myBuiltInCompilerHandler = new JpsBuiltInFlexCompilerHandler(context.getProjectDescriptor().getProject());
+    myBuiltInCompilerPool = new JpsBuiltInFlexCompilerPool(context.getProjectDescriptor().getProject());
+    myCompilationSlots = new java.util.concurrent.Semaphore(myBuiltInCompilerPool.getMaxProcesses());
   }
 
   @Override
   public void buildFinished(final CompileContext context) {
-    LOG.assertTrue(myBuiltInCompilerHandler.getActiveCompilationsNumber() == 0,
-                   myBuiltInCompilerHandler.getActiveCompilationsNumber() + " Flex compilation(s) are not finished!");
-    myBuiltInCompilerHandler.stopCompilerProcess();
-    myBuiltInCompilerHandler = null;
+    LOG.assertTrue(myBuiltInCompilerPool.getActiveCompilationsNumber() == 0,
+                   myBuiltInCompilerPool.getActiveCompilationsNumber() + " Flex compilation(s) are not finished!");
+    myBuiltInCompilerPool.stopCompilerProcesses();
+    myBuiltInCompilerPool = null;
+    myCompilationSlots = null;
 
     FlexCommonUtils.deleteTempFlexConfigFiles(context.getProjectDescriptor().getProject().getName());
 
@@ -135,33 +147,103 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
       }
     }
 
-    for (JpsFlexBuildConfiguration bc : bcsToCompile) {
-      final Status status = compileBuildConfiguration(context, bc, myBuiltInCompilerHandler);
+    // RLMs are optimized against the main BC, so they (and runtime CSS modules) are compiled after it, in parallel with each other
+    final Status mainStatus = compileWithSlot(context, context, mainBC);
+    reportCompilationResult(context, mainBC, mainStatus, mainBC, dirtyFilePaths, outputConsumer);
+    if (mainStatus == Status.Failed) throw new StopBuildException();
+    if (mainStatus == Status.Cancelled) return;
+
+    final List<JpsFlexBuildConfiguration> subBCs = bcsToCompile.subList(1, bcsToCompile.size());
+    final List<BufferedMessageHandler> buffers = new ArrayList<>(subBCs.size());
+    final List<Future<Status>> futures = new ArrayList<>(subBCs.size());
+    for (JpsFlexBuildConfiguration bc : subBCs) {
+      final BufferedMessageHandler buffer = new BufferedMessageHandler(context);
+      buffers.add(buffer);
+      futures.add(SharedThreadPool.getInstance().submit(() -> compileWithSlot(context, buffer, bc)));
+    }
 
-      switch (status) {
-        case Ok:
-          outputConsumer.registerOutputFile(new File(mainBC.getActualOutputFilePath()), dirtyFilePaths);
-          FlexBuilderUtils.performPostCompileActions(context, bc, dirtyFilePaths, outputConsumer);
-          context.processMessage(
-            new CompilerMessage(FlexBuilderUtils.getCompilerName(bc), BuildMessage.Kind.INFO,
-                                FlexCommonBundle.message("compilation.successful")));
-          break;
+    final List<Status> statuses = new ArrayList<>(futures.size());
+    for (Future<Status> future : futures) {
+      statuses.add(waitFor(future));
+    }
 
-        case Failed:
-          final String message = bc.getOutputType() == OutputType.Application
-                                 ? FlexCommonBundle.message("compilation.failed")
-                                 : FlexCommonBundle.message("compilation.failed.dependent.will.be.skipped");
-          context.processMessage(new CompilerMessage(FlexBuilderUtils.getCompilerName(bc), BuildMessage.Kind.INFO, message));
+    boolean failed = false;
+    for (int i = 0; i < subBCs.size(); i++) {
+      final JpsFlexBuildConfiguration bc = subBCs.get(i);
+      final Status status = statuses.get(i);
+      buffers.get(i).flush();
+      reportCompilationResult(context, mainBC, status, bc, dirtyFilePaths, outputConsumer);
 
-          throw new StopBuildException();
+      if (status == Status.Cancelled) return;
+      failed |= status == Status.Failed; // report results of the other compilations before stopping
+    }
 
-        case Cancelled:
-          context.processMessage(
-            new CompilerMessage(FlexBuilderUtils.getCompilerName(bc), BuildMessage.Kind.INFO,
-                                FlexCommonBundle.message("compilation.cancelled")));
-          return;
+    if (failed) {
+      throw new StopBuildException();
+    }
+  }
+
+  private static void reportCompilationResult(final CompileContext context,
+                                              final JpsFlexBuildConfiguration mainBC,
+                                              final Status status,
+                                              final JpsFlexBuildConfiguration bc,
+                                              final Collection<String> dirtyFilePaths,
+                                              final BuildOutputConsumer outputConsumer) throws IOException {
+    switch (status) {
+      case Ok:
+        outputConsumer.registerOutputFile(new File(mainBC.getActualOutputFilePath()), dirtyFilePaths);
+        FlexBuilderUtils.performPostCompileActions(context, bc, dirtyFilePaths, outputConsumer);
+        context.processMessage(
+          new CompilerMessage(FlexBuilderUtils.getCompilerName(bc), BuildMessage.Kind.INFO,
+                              FlexCommonBundle.message("compilation.successful")));
+        break;
+
+      case Failed:
+        final String message = bc.getOutputType() == OutputType.Application
+                               ? FlexCommonBundle.message("compilation.failed")
+                               : FlexCommonBundle.message("compilation.failed.dependent.will.be.skipped");
+        context.processMessage(new CompilerMessage(FlexBuilderUtils.getCompilerName(bc), BuildMessage.Kind.INFO, message));
+        break;
+
+      case Cancelled:
+        context.processMessage(
+          new CompilerMessage(FlexBuilderUtils.getCompilerName(bc), BuildMessage.Kind.INFO,
+                              FlexCommonBundle.message("compilation.cancelled")));
+        break;
+    }
+  }
+
+  private Status compileWithSlot(final CompileContext context, final MessageHandler messageHandler, final JpsFlexBuildConfiguration bc) {
+    try {
+      while (!myCompilationSlots.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+        if (context.getCancelStatus().isCanceled()) {
+          return Status.Cancelled;
+        }
       }
     }
+    catch (InterruptedException e) {
+      return Status.Cancelled;
+    }
+
+    try {
+      return compileBuildConfiguration(context, messageHandler, bc, myBuiltInCompilerPool);
+    }
+    finally {
+      myCompilationSlots.release();
+    }
+  }
+
+  private static Status waitFor(final Future<Status> future) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      return Status.Cancelled;
+    }
+    catch (ExecutionException e) {
+      LOG.error(e.getCause());
+      return Status.Failed;
+    }
   }
 
   /**
@@ -282,8 +364,9 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
   }
 
   private static Status compileBuildConfiguration(final CompileContext context,
+                                                  final MessageHandler messageHandler,
                                                   final JpsFlexBuildConfiguration bc,
-                                                  final JpsBuiltInFlexCompilerHandler builtInCompilerHandler) {
+                                                  final JpsBuiltInFlexCompilerPool builtInCompilerPool) {
     setProgressMessage(context, bc);
 
     final String compilerName = FlexBuilderUtils.getCompilerName(bc);
@@ -293,15 +376,15 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
       final String outputFilePath = bc.getActualOutputFilePath();
 
       if (!ensureCanCreateFile(new File(outputFilePath))) {
-        context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR,
-                                                   FlexCommonBundle.message("failed.to.create.file", bc.getActualOutputFilePath())));
+        messageHandler.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR,
+                                                          FlexCommonBundle.message("failed.to.create.file", bc.getActualOutputFilePath())));
         return Status.Failed;
       }
 
-      return doCompile(context, bc, configFiles, compilerName, builtInCompilerHandler);
+      return doCompile(context, messageHandler, bc, configFiles, compilerName, builtInCompilerPool);
     }
     catch (IOException e) {
-      context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, e.getMessage()));
+      messageHandler.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, e.getMessage()));
       return Status.Failed;
     }
   }
@@ -348,10 +431,11 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
   }
 
   private static Status doCompile(final CompileContext context,
+                                  final MessageHandler messageHandler,
                                   final JpsFlexBuildConfiguration bc,
                                   final List<File> configFiles,
                                   final String compilerName,
-                                  final JpsBuiltInFlexCompilerHandler builtInCompilerHandler) {
+                                  final JpsBuiltInFlexCompilerPool builtInCompilerPool) {
     final boolean app = bc.getOutputType() != OutputType.Library;
     final JpsSdk<?> sdk = bc.getSdk();
     assert sdk != null;
@@ -360,12 +444,18 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
                           FlexCommonUtils.containsASC20(sdk.getHomePath()) &&
                           (JpsFlexCompilerProjectExtension.getInstance(bc.getModule().getProject()).PREFER_ASC_20 ||
                            FlexCommonUtils.isAirSdkWithoutFlex(sdk));
-    final boolean builtIn = !asc20 &&
-                            JpsFlexCompilerProjectExtension.getInstance(bc.getModule().getProject()).USE_BUILT_IN_COMPILER &&
-                            builtInCompilerHandler.canBeUsedForSdk(sdk.getHomePath());
+    final JpsBuiltInFlexCompilerHandler builtInCompilerHandler =
+      !asc20 && JpsFlexCompilerProjectExtension.getInstance(bc.getModule().getProject()).USE_BUILT_IN_COMPILER
+      ? builtInCompilerPool.acquire(sdk.getHomePath())
+      : null;
 
-    if (builtIn) {
-      return doCompileWithBuiltInCompiler(context, bc, configFiles, compilerName, builtInCompilerHandler);
+    if (builtInCompilerHandler != null) {
+      try {
+        return doCompileWithBuiltInCompiler(context, messageHandler, bc, configFiles, compilerName, builtInCompilerHandler);
+      }
+      finally {
+        builtInCompilerPool.release(builtInCompilerHandler);
+      }
     }
 
     final List<String> compilerCommand = asc20 ? getASC20Command(bc.getModule().getProject(), sdk, app)
@@ -380,7 +470,7 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
       final Process process = processBuilder.start();
 
       final FlexCompilerProcessHandler processHandler =
-        new FlexCompilerProcessHandler(context, process, asc20, compilerName, StringUtil.join(command, " "));
+        new FlexCompilerProcessHandler(context, messageHandler, process, asc20, compilerName, StringUtil.join(command, " "));
       processHandler.startNotify();
       processHandler.waitFor();
 
@@ -390,12 +480,13 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
                                             : Status.Ok;
     }
     catch (IOException e) {
-      context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, e.getMessage()));
+      messageHandler.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, e.getMessage()));
       return Status.Failed;
     }
   }
 
   private static Status doCompileWithBuiltInCompiler(final CompileContext context,
+                                                     final MessageHandler messageHandler,
                                                      final JpsFlexBuildConfiguration bc,
                                                      final List<File> configFiles,
                                                      final String compilerName,
@@ -404,7 +495,7 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
       builtInCompilerHandler.startCompilerIfNeeded(bc.getSdk(), context, compilerName);
     }
     catch (IOException e) {
-      context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, e.toString()));
+      messageHandler.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, e.toString()));
       return Status.Failed;
     }
 
@@ -416,9 +507,10 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
     final Semaphore semaphore = new Semaphore();
     semaphore.down();
 
-    context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.INFO, plainCommand));
+    messageHandler.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.INFO, plainCommand));
 
-    final BuiltInCompilerListener listener = new BuiltInCompilerListener(context, compilerName, () -> semaphore.up());
+    final BuiltInCompilerListener listener =
+      new BuiltInCompilerListener(context, messageHandler, compilerName, () -> semaphore.up());
 
     builtInCompilerHandler.sendCompilationCommand(plainCommand, listener);
 
@@ -488,8 +580,11 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
   private static class BuiltInCompilerListener extends CompilerMessageHandlerBase implements JpsBuiltInFlexCompilerHandler.Listener {
     private final Runnable myOnCompilationFinishedRunnable;
 
-    BuiltInCompilerListener(final CompileContext context, final String compilerName, final Runnable onCompilationFinishedRunnable) {
-      super(context, false, compilerName);
+    BuiltInCompilerListener(final CompileContext context,
+                            final MessageHandler messageHandler,
+                            final String compilerName,
+                            final Runnable onCompilationFinishedRunnable) {
+      super(context, messageHandler, false, compilerName);
       myOnCompilationFinishedRunnable = onCompilationFinishedRunnable;
     }
 
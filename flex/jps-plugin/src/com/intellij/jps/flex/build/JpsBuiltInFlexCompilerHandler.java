@@ -47,10 +47,6 @@ public final class JpsBuiltInFlexCompilerHandler {
     myProject = project;
   }
 
-  public synchronized boolean canBeUsedForSdk(final String sdkHome) {
-    return mySdkHome == null || mySdkHome.equals(sdkHome);
-  }
-
   public synchronized void startCompilerIfNeeded(final JpsSdk<?> sdk,
                                                  final CompileContext context,
                                                  final String compilerName) throws IOException {
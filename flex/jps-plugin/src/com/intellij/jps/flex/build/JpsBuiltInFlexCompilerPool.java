@@ -0,0 +1,146 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.jps.flex.build;
+
+import com.intellij.flex.model.JpsFlexCompilerProjectExtension;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.model.JpsProject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Built-in compiler processes shared by all Flex build targets of a build. Each process serves one SDK at a time;
+ * compilations are spread over up to {@link #getMaxProcesses()} processes so that independent build configurations
+ * don't compete for the heap of a single compiler JVM.
+ */
+final class JpsBuiltInFlexCompilerPool {
+  private static final Logger LOG = Logger.getInstance(JpsBuiltInFlexCompilerPool.class.getName());
+
+  /**
+   * Overrides the number of compiler processes (and parallel compilations) chosen from the available CPUs and physical memory.
+   */
+  static final String MAX_PROCESSES_PROPERTY = "flex.compiler.max.processes";
+
+  /**
+   * Used when the amount of physical memory is unknown.
+   */
+  private static final int DEFAULT_MAX_PROCESSES = 2;
+
+  private final JpsProject myProject;
+  private final int myMaxProcesses;
+  private final List<JpsBuiltInFlexCompilerHandler> myHandlers = new ArrayList<>();
+  private final Map<JpsBuiltInFlexCompilerHandler, Integer> myUsages = new HashMap<>();
+  /**
+   * SDK each handler is given out for. A handler (re)starts its process for the SDK of the build that uses it, so it may only be
+   * given to another SDK when no build uses it, otherwise the restart would cancel running compilations.
+   */
+  private final Map<JpsBuiltInFlexCompilerHandler, String> mySdkHomes = new HashMap<>();
+
+  JpsBuiltInFlexCompilerPool(final JpsProject project) {
+    myProject = project;
+    myMaxProcesses = computeMaxProcesses(JpsFlexCompilerProjectExtension.getInstance(project).HEAP_SIZE_MB);
+    LOG.debug("Max Flex compiler processes: " + myMaxProcesses);
+  }
+
+  int getMaxProcesses() {
+    return myMaxProcesses;
+  }
+
+  /**
+   * Returns a compiler process that can be used for the SDK, preferring an idle one that already runs it.
+   * Returns {@code null} if all processes are busy with other SDKs; the caller should then use the command line compiler.
+   * A handler returned by this method must be given back with {@link #release}.
+   */
+  synchronized @Nullable JpsBuiltInFlexCompilerHandler acquire(final @NotNull String sdkHome) {
+    JpsBuiltInFlexCompilerHandler result = null;
+    for (JpsBuiltInFlexCompilerHandler handler : myHandlers) {
+      if (sdkHome.equals(mySdkHomes.get(handler)) && (result == null || getUsages(handler) < getUsages(result))) {
+        result = handler;
+      }
+    }
+
+    if ((result == null || getUsages(result) > 0) && myHandlers.size() < myMaxProcesses) {
+      result = new JpsBuiltInFlexCompilerHandler(myProject);
+      myHandlers.add(result);
+    }
+
+    if (result == null) {
+      for (JpsBuiltInFlexCompilerHandler handler : myHandlers) {
+        if (getUsages(handler) == 0) {
+          result = handler; // will be restarted with the requested SDK
+          break;
+        }
+      }
+    }
+
+    if (result != null) {
+      mySdkHomes.put(result, sdkHome);
+      myUsages.put(result, getUsages(result) + 1);
+    }
+    return result;
+  }
+
+  synchronized void release(@NotNull final JpsBuiltInFlexCompilerHandler handler) {
+    myUsages.put(handler, getUsages(handler) - 1);
+  }
+
+  private int getUsages(final JpsBuiltInFlexCompilerHandler handler) {
+    return myUsages.getOrDefault(handler, 0);
+  }
+
+  synchronized int getActiveCompilationsNumber() {
+    int result = 0;
+    for (JpsBuiltInFlexCompilerHandler handler : myHandlers) {
+      result += handler.getActiveCompilationsNumber();
+    }
+    return result;
+  }
+
+  synchronized void stopCompilerProcesses() {
+    for (JpsBuiltInFlexCompilerHandler handler : myHandlers) {
+      handler.stopCompilerProcess();
+    }
+    myHandlers.clear();
+    myUsages.clear();
+    mySdkHomes.clear();
+  }
+
+  private static int computeMaxProcesses(final int heapSizeMb) {
+    final Integer configured = Integer.getInteger(MAX_PROCESSES_PROPERTY);
+    if (configured != null) {
+      return Math.max(1, configured);
+    }
+    return computeMaxProcesses(Runtime.getRuntime().availableProcessors(), getTotalPhysicalMemoryMb(),
+                               Runtime.getRuntime().maxMemory() >> 20, heapSizeMb);
+  }
+
+  /**
+   * Total rather than free physical memory is used: on Linux free memory doesn't include the page cache and is usually tiny.
+   *
+   * @param totalMemoryMb total physical memory, or a negative value if unknown
+   */
+  static int computeMaxProcesses(final int cpus, final long totalMemoryMb, final long buildHeapMb, final int heapSizeMb) {
+    final int byCpu = Math.max(1, cpus / 2);
+    if (totalMemoryMb < 0) {
+      return Math.min(byCpu, DEFAULT_MAX_PROCESSES);
+    }
+
+    // leave half of what the build process doesn't take for the IDE and the rest of the system
+    final int byMemory = (int)Math.max(1, (totalMemoryMb - buildHeapMb) / 2 / Math.max(heapSizeMb, 1));
+    return Math.min(byCpu, byMemory);
+  }
+
+  private static long getTotalPhysicalMemoryMb() {
+    final OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+    if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean)bean).getTotalPhysicalMemorySize() >> 20;
+    }
+    return -1;
+  }
+}
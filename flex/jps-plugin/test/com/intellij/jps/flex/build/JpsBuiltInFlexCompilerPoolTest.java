@@ -0,0 +1,98 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.intellij.jps.flex.build;
+
+import org.jetbrains.jps.model.JpsElementFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class JpsBuiltInFlexCompilerPoolTest {
+  private static final String SDK_1 = "/sdk/1";
+  private static final String SDK_2 = "/sdk/2";
+
+  @After
+  public void tearDown() {
+    System.clearProperty(JpsBuiltInFlexCompilerPool.MAX_PROCESSES_PROPERTY);
+  }
+
+  @Test
+  public void testMaxProcesses() {
+    // 16 GB machine, 1 GB build heap, 512 MB per compiler
+    assertEquals(4, JpsBuiltInFlexCompilerPool.computeMaxProcesses(8, 16384, 1024, 512));
+    assertEquals(2, JpsBuiltInFlexCompilerPool.computeMaxProcesses(4, 16384, 1024, 512));
+    // little memory
+    assertEquals(1, JpsBuiltInFlexCompilerPool.computeMaxProcesses(8, 2048, 1024, 1024));
+    // unknown memory
+    assertEquals(2, JpsBuiltInFlexCompilerPool.computeMaxProcesses(8, -1, 1024, 512));
+    assertEquals(1, JpsBuiltInFlexCompilerPool.computeMaxProcesses(1, -1, 1024, 512));
+  }
+
+  @Test
+  public void testHandlerIsNotRetargetedWhileInUse() {
+    JpsBuiltInFlexCompilerPool pool = createPool(1);
+    JpsBuiltInFlexCompilerHandler handler = pool.acquire(SDK_1);
+    assertNotNull(handler);
+    assertNull(pool.acquire(SDK_2));
+    assertSame(handler, pool.acquire(SDK_1));
+
+    pool.release(handler);
+    pool.release(handler);
+    assertSame(handler, pool.acquire(SDK_2));
+    assertNull(pool.acquire(SDK_1));
+  }
+
+  @Test
+  public void testConcurrentAcquireForTwoSdks() throws Exception {
+    JpsBuiltInFlexCompilerPool pool = createPool(2);
+    Map<JpsBuiltInFlexCompilerHandler, String> sdkInUse = new HashMap<>();
+    Map<JpsBuiltInFlexCompilerHandler, Integer> usages = new HashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      CyclicBarrier barrier = new CyclicBarrier(8);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        String sdkHome = i % 2 == 0 ? SDK_1 : SDK_2;
+        futures.add(executor.submit(() -> {
+          barrier.await();
+          for (int j = 0; j < 1000; j++) {
+            JpsBuiltInFlexCompilerHandler handler = pool.acquire(sdkHome);
+            if (handler == null) continue;
+            synchronized (sdkInUse) {
+              String other = sdkInUse.putIfAbsent(handler, sdkHome);
+              assertEquals("handler is used for two SDKs at once", other == null ? sdkHome : other, sdkHome);
+              usages.merge(handler, 1, Integer::sum);
+            }
+            Thread.yield();
+            synchronized (sdkInUse) {
+              if (usages.merge(handler, -1, Integer::sum) == 0) {
+                sdkInUse.remove(handler);
+              }
+            }
+            pool.release(handler);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static JpsBuiltInFlexCompilerPool createPool(int maxProcesses) {
+    System.setProperty(JpsBuiltInFlexCompilerPool.MAX_PROCESSES_PROPERTY, String.valueOf(maxProcesses));
+    JpsBuiltInFlexCompilerPool pool = new JpsBuiltInFlexCompilerPool(JpsElementFactory.getInstance().createModel().getProject());
+    assertEquals(maxProcesses, pool.getMaxProcesses());
+    return pool;
+  }
+}
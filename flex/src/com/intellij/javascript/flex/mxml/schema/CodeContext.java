@@ -37,6 +37,8 @@ import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.roots.libraries.Library;
 import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.Trinity;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.*;
 import com.intellij.psi.PsiDirectory;
@@ -52,6 +54,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class CodeContext {
   private static final CodeContext EMPTY = new CodeContext(null, null, null);
@@ -74,10 +77,11 @@ public final class CodeContext {
   final GlobalSearchScope scope;
   final String namespace;
   final Module module;
-  private final Set<Object> dependencies = new HashSet<>();
+  // contexts are filled from several threads: standard contexts get descriptors from every library scan of their module
+  private final Set<Object> dependencies = ConcurrentHashMap.newKeySet();
 
   CodeContext(String _namespace, Module _module, GlobalSearchScope scope) {
-    myNameToDescriptorsMap = new HashMap<>(100);
+    myNameToDescriptorsMap = new ConcurrentHashMap<>(100);
     namespace = _namespace;
     module = _module;
     this.scope = scope;
@@ -143,26 +147,25 @@ public final class CodeContext {
     final FlexBuildConfiguration bc = FlexBuildConfigurationManager.getInstance(module).getActiveConfiguration();
     if (bc == null) return EMPTY;
 
-    CodeContext codeContext;
+    if (isStdNamespace(namespace)) {
+      return getStdCodeContext(namespace, module, scope, bc);
+    }
 
-    synchronized (CodeContext.class) {
-      if (isStdNamespace(namespace)) {
-        return getStdCodeContext(namespace, module, scope, bc);
-      }
+    final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
+    final CodeContext codeContext = contextHolder.getCodeContext(namespace, module, scope);
+    if (codeContext != null) return codeContext;
 
-      final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
-      codeContext = contextHolder.getCodeContext(namespace, module, scope);
+    return contextHolder.computeOnce(Trinity.create(namespace, module, scope), () -> {
+      final CodeContext cached = contextHolder.getCodeContext(namespace, module, scope);
+      if (cached != null) return cached;
 
-      if (codeContext == null) {
-        codeContext = createCodeContext(namespace, module, bc, scope);
-        if (codeContext.getAllDescriptorsSize() > 0) {
-          // avoid adding of incorrect namespaces that appear during completion like "http://www.adobe.IntellijIdeaRulezzz com/2006/mxml"
-          contextHolder.putCodeContext(namespace, module, scope, codeContext);
-        }
+      final CodeContext created = createCodeContext(namespace, module, bc, scope);
+      if (created.getAllDescriptorsSize() > 0) {
+        // avoid adding of incorrect namespaces that appear during completion like "http://www.adobe.IntellijIdeaRulezzz com/2006/mxml"
+        contextHolder.putCodeContext(namespace, module, scope, created);
       }
-    }
-
-    return codeContext;
+      return created;
+    });
   }
 
   public static boolean isStdNamespace(final String namespace) {
@@ -230,6 +233,21 @@ public final class CodeContext {
                                                             Module module,
                                                             GlobalSearchScope scope,
                                                             FlexBuildConfiguration bc) {
+    final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
+    // all namespaces of the module are collected at once, so concurrent requests for different namespaces share one scan
+    final Map<String, CodeContext> contextsOfModule =
+      contextHolder.computeOnce(Pair.create(module, scope), () -> collectCodeContextsFromLibraries(module, scope, bc));
+
+    CodeContext codeContext = contextsOfModule.get(namespace);
+    if (codeContext == null) {
+      codeContext = EMPTY;
+    }
+    return codeContext;
+  }
+
+  private static Map<String, CodeContext> collectCodeContextsFromLibraries(Module module,
+                                                                           GlobalSearchScope scope,
+                                                                           FlexBuildConfiguration bc) {
     final Map<String, CodeContext> contextsOfModule = new HashMap<>();
     final ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
 
@@ -268,12 +286,7 @@ public final class CodeContext {
     for (Map.Entry<String, CodeContext> entry : contextsOfModule.entrySet()) {
       contextHolder.putCodeContext(entry.getKey(), module, scope, entry.getValue());
     }
-
-    CodeContext codeContext = contextsOfModule.get(namespace);
-    if (codeContext == null) {
-      codeContext = EMPTY;
-    }
-    return codeContext;
+    return contextsOfModule;
   }
 
   private static void addComponentsFromManifests(final Module module, final Map<String, CodeContext> contextsOfModule,
@@ -337,12 +350,7 @@ public final class CodeContext {
   private static CodeContext identifyCodeContext(Module module, Map<String, CodeContext> contextsOfModule, String uri) {
     CodeContext codeContext;
     if (isStdNamespace(uri)) {
-      final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
-      codeContext = contextHolder.getStandardContext(uri, module);
-      if (codeContext == null) {
-        codeContext = new CodeContext(uri, module, GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module));
-        contextHolder.putStandardContext(uri, module, codeContext);
-      }
+      codeContext = CodeContextHolder.getInstance(module.getProject()).getOrCreateStandardContext(uri, module);
     }
     else {
       codeContext = contextsOfModule.get(uri);
@@ -390,10 +398,15 @@ public final class CodeContext {
     final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
 
     if (!contextHolder.areSdkComponentsHandledForModule(module)) { // handleAllStandardManifests only once per module
-      handleAllStandardManifests(module, bc);
-      handleSwcFromSdk(module, scope, bc); //swc files attached to Flex SDK may contribute to standard context
-      createCodeContextFromLibraries(namespace, module, scope, bc); // other libraries may contribute to standard context
-      contextHolder.setSdkComponentsHandledForModule(module);
+      contextHolder.computeOnce(module, () -> {
+        if (!contextHolder.areSdkComponentsHandledForModule(module)) {
+          handleAllStandardManifests(module, bc);
+          handleSwcFromSdk(module, scope, bc); //swc files attached to Flex SDK may contribute to standard context
+          createCodeContextFromLibraries(namespace, module, scope, bc); // other libraries may contribute to standard context
+          contextHolder.setSdkComponentsHandledForModule(module);
+        }
+        return null;
+      });
     }
 
     final CodeContext context = contextHolder.getStandardContext(namespace, module);
@@ -475,14 +488,7 @@ public final class CodeContext {
                                              final String namespace,
                                              final VirtualFile manifestFile,
                                              final VirtualFile flexSdkRoot) {
-    final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
-    CodeContext _context = contextHolder.getStandardContext(namespace, module);
-    if (_context == null) {
-      _context = new CodeContext(namespace, module, GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module));
-      contextHolder.putStandardContext(namespace, module, _context);
-    }
-
-    final CodeContext context = _context;
+    final CodeContext context = CodeContextHolder.getInstance(module.getProject()).getOrCreateStandardContext(namespace, module);
     context.addDependency(flexSdkRoot);
 
     processManifestFile(manifestFile, context);
@@ -2,6 +2,8 @@
 package com.intellij.javascript.flex.mxml.schema;
 
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
 import com.intellij.psi.search.GlobalSearchScope;
@@ -9,34 +11,40 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
+/**
+ * Caches {@link CodeContext}s per namespace, module and scope. Contexts for different keys are built in parallel;
+ * concurrent requests for the same key wait for a single computation (see {@link #computeOnce}).
+ * Everything is dropped on roots change by {@link CodeContextRootsChangedListener}.
+ */
 public final class CodeContextHolder {
-  private final Set<Module> myModulesWithSdkComponentsHandled = new HashSet<>();
-  private final Map<String, Map<Module, CodeContext>> myStandardContexts = new HashMap<>();
-  private final Map<String, Map<Pair<Module, GlobalSearchScope>, CodeContext>> myNSToCodeContextMap = new HashMap<>();
+  private final Set<Module> myModulesWithSdkComponentsHandled = ConcurrentHashMap.newKeySet();
+  private final Map<String, Map<Module, CodeContext>> myStandardContexts = new ConcurrentHashMap<>();
+  private final Map<String, Map<Pair<Module, GlobalSearchScope>, CodeContext>> myNSToCodeContextMap = new ConcurrentHashMap<>();
+  private final Map<Object, CompletableFuture<Object>> myComputations = new ConcurrentHashMap<>();
 
-  synchronized void clear() {
+  private static final ThreadLocal<Set<Object>> ourComputingKeys = ThreadLocal.withInitial(HashSet::new);
+
+  void clear() {
     myNSToCodeContextMap.clear();
     myStandardContexts.clear();
     myModulesWithSdkComponentsHandled.clear();
+    myComputations.clear();
   }
 
   @Nullable
-  public synchronized CodeContext getCodeContext(@NotNull String namespace, @NotNull Module module, @NotNull GlobalSearchScope scope) {
+  public CodeContext getCodeContext(@NotNull String namespace, @NotNull Module module, @NotNull GlobalSearchScope scope) {
     Map<Pair<Module, GlobalSearchScope>, CodeContext> map = myNSToCodeContextMap.get(namespace);
     return map != null ? map.get(Pair.create(module, scope)) : null;
   }
 
-  synchronized void putCodeContext(@NotNull String namespace, @NotNull Module module, @NotNull GlobalSearchScope scope, @NotNull CodeContext codeContext) {
-    var map = myNSToCodeContextMap.get(namespace);
-    if (map == null) {
-      map = new HashMap<>();
-      myNSToCodeContextMap.put(namespace, map);
-    }
-    map.put(Pair.create(module, scope), codeContext);
+  void putCodeContext(@NotNull String namespace, @NotNull Module module, @NotNull GlobalSearchScope scope, @NotNull CodeContext codeContext) {
+    myNSToCodeContextMap.computeIfAbsent(namespace, __ -> new ConcurrentHashMap<>()).put(Pair.create(module, scope), codeContext);
   }
 
-  synchronized void clearCodeContext(@NotNull String namespace, @NotNull Module module, @NotNull GlobalSearchScope scope) {
+  void clearCodeContext(@NotNull String namespace, @NotNull Module module, @NotNull GlobalSearchScope scope) {
     var map = myNSToCodeContextMap.get(namespace);
     if (map != null) {
       map.remove(Pair.create(module, scope));
@@ -48,12 +56,12 @@ public final class CodeContextHolder {
   }
 
   @Nullable
-  public synchronized CodeContext getStandardContext(final String namespace, final Module module) {
+  public CodeContext getStandardContext(final String namespace, final Module module) {
     final Map<Module, CodeContext> map = myStandardContexts.get(namespace);
     return map == null ? null : map.get(module);
   }
 
-  public synchronized Collection<String> getNamespaces(Module module, GlobalSearchScope scope) {
+  public Collection<String> getNamespaces(Module module, GlobalSearchScope scope) {
     final List<String> result = new ArrayList<>();
     for (final Map.Entry<String, Map<Module, CodeContext>> entry : myStandardContexts.entrySet()) {
       if (entry.getValue().containsKey(module)) {
@@ -68,20 +76,81 @@ public final class CodeContextHolder {
     return result;
   }
 
-  synchronized void putStandardContext(final String namespace, final Module module, final CodeContext codeContext) {
-    Map<Module, CodeContext> map = myStandardContexts.get(namespace);
-    if (map == null) {
-      map = new HashMap<>();
-      myStandardContexts.put(namespace, map);
-    }
-    map.put(module, codeContext);
+  /**
+   * Returns the standard context for the namespace and module, creating an empty one if there is none yet.
+   */
+  @NotNull
+  CodeContext getOrCreateStandardContext(final String namespace, final Module module) {
+    final Map<Module, CodeContext> map = myStandardContexts.computeIfAbsent(namespace, __ -> new ConcurrentHashMap<>());
+    final CodeContext context = map.get(module);
+    if (context != null) return context;
+
+    final CodeContext created = new CodeContext(namespace, module, GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module));
+    final CodeContext existing = map.putIfAbsent(module, created);
+    return existing != null ? existing : created;
   }
 
-  synchronized boolean areSdkComponentsHandledForModule(final Module module) {
+  boolean areSdkComponentsHandledForModule(final Module module) {
     return myModulesWithSdkComponentsHandled.contains(module);
   }
 
-  synchronized boolean setSdkComponentsHandledForModule(final Module module) {
+  boolean setSdkComponentsHandledForModule(final Module module) {
     return myModulesWithSdkComponentsHandled.add(module);
   }
+
+  /**
+   * Runs the computation unless one with an equal key is already running in another thread, in which case its result is awaited.
+   * Results are not kept: the computation is expected to store them in this holder itself.
+   * A computation re-entered for the same key in the same thread is performed again instead of waiting for itself.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T computeOnce(@NotNull Object key, @NotNull Supplier<T> computation) {
+    final Set<Object> computingKeys = ourComputingKeys.get();
+
+    while (true) {
+      if (computingKeys.contains(key)) {
+        return computation.get();
+      }
+
+      final CompletableFuture<Object> future = new CompletableFuture<>();
+      final CompletableFuture<Object> existing = myComputations.putIfAbsent(key, future);
+      if (existing == null) {
+        computingKeys.add(key);
+        try {
+          final T result = computation.get();
+          future.complete(result);
+          return result;
+        }
+        catch (Throwable e) {
+          future.completeExceptionally(e);
+          throw e;
+        }
+        finally {
+          computingKeys.remove(key);
+          myComputations.remove(key, future);
+        }
+      }
+
+      try {
+        return (T)await(existing);
+      }
+      catch (ExecutionException e) {
+        // the computation was cancelled or failed in its own thread; try to compute it in this one
+      }
+    }
+  }
+
+  private static Object await(final Future<Object> future) throws ExecutionException {
+    while (true) {
+      ProgressManager.checkCanceled();
+      try {
+        return future.get(10, TimeUnit.MILLISECONDS);
+      }
+      catch (TimeoutException ignored) {
+      }
+      catch (InterruptedException e) {
+        throw new ProcessCanceledException(e);
+      }
+    }
+  }
 }
@@ -15,6 +15,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.NullableComputable;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.tree.injected.InjectedLanguageUtil;
@@ -22,6 +23,7 @@ import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.ui.ColoredTextContainer;
 import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.xdebugger.Obsolescent;
 import com.intellij.xdebugger.XDebuggerUtil;
 import com.intellij.xdebugger.XSourcePosition;
 import com.intellij.xdebugger.evaluation.ExpressionInfo;
@@ -35,6 +37,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class FlexStackFrame extends XStackFrame {
   private static final String ANONYMOUS = "<anonymous>";
@@ -54,6 +58,12 @@ public class FlexStackFrame extends XStackFrame {
   static final String CLASS_MARKER = ", class='";
   static final String CANNOT_EVALUATE_EXPRESSION = "Cannot evaluate expression: ";
 
+  // Frames are created anew on every suspend, so these caches live exactly as long as the values in them are valid.
+  // Watches, tooltips and the variables view of the frame share them.
+  private final Map<String, String> myEvaluationCache = new ConcurrentHashMap<>();
+  private final Map<String, String> myMembersCache = new ConcurrentHashMap<>();
+  private final List<BatchedEvaluation> myPendingEvaluations = new ArrayList<>();
+
   FlexStackFrame(final FlexDebugProcess debugProcess, final @Nullable XSourcePosition sourcePosition) {
     myDebugProcess = debugProcess;
     mySourcePosition = sourcePosition;
@@ -178,6 +188,61 @@ public class FlexStackFrame extends XStackFrame {
     );
   }
 
+  @Nullable
+  String getCachedResult(final String expression) {
+    return myEvaluationCache.get(expression);
+  }
+
+  private void cacheResult(final String expression, final String result) {
+    // assignments have side effects, and so may calls, but toXMLString() & co. are what collection and XML presentations need
+    if (expression.indexOf('=') == -1 && !result.startsWith(CANNOT_EVALUATE_EXPRESSION)) {
+      myEvaluationCache.put(expression, result);
+    }
+  }
+
+  @Nullable
+  String getCachedMembers(final String objectReference) {
+    return myMembersCache.get(objectReference);
+  }
+
+  void cacheMembers(final String objectReference, final String response) {
+    myMembersCache.put(objectReference, response);
+  }
+
+  void clearEvaluationCache() {
+    myEvaluationCache.clear();
+    myMembersCache.clear();
+  }
+
+  /**
+   * Evaluates the expression together with other expressions requested within the delay: they are sent to fdb as a single command,
+   * which saves a round trip (and a {@code frame} switch) per expression when a node with many children is expanded.
+   */
+  void evaluateBatched(final String expression,
+                       final Obsolescent obsolescent,
+                       final XDebuggerEvaluator.XEvaluationCallback callback,
+                       final int delay) {
+    final String cached = getCachedResult(expression);
+    if (cached != null) {
+      ApplicationManager.getApplication().executeOnPooledThread(() -> callback.evaluated(createValue(expression, cached)));
+      return;
+    }
+
+    final boolean first;
+    synchronized (myPendingEvaluations) {
+      first = myPendingEvaluations.isEmpty();
+      myPendingEvaluations.add(new BatchedEvaluation(expression, obsolescent, callback));
+    }
+
+    if (first) {
+      myDebugProcess.addPendingCommand(new BatchEvaluateCommand(), delay);
+    }
+  }
+
+  private FlexValue createValue(final String expression, final String result) {
+    return new FlexValue(this, myDebugProcess, mySourcePosition, expression, expression, result, null, FlexValue.ValueType.Other);
+  }
+
   private String addFrameOffset(String text) {
     text="frame " + (myFrameIndex != 0 ? myFrameIndex: "")+ "\n"+text;
     return text;
@@ -264,6 +329,7 @@ public class FlexStackFrame extends XStackFrame {
     private final String expression;
     private int responseCount;
     private boolean myFinished;
+    private boolean myCacheResult = true;
 
     EvaluateCommand(String _expression, final XDebuggerEvaluator.XEvaluationCallback _callback) {
       super(buildCommandForExpression(_expression), CommandOutputProcessingType.SPECIAL_PROCESSING);
@@ -385,11 +451,12 @@ public class FlexStackFrame extends XStackFrame {
       if (i != -1) s = s.substring(i + DELIM.length());
 
       result = s.trim();
+      if (myCacheResult) {
+        cacheResult(expression, result);
+      }
 
       if (callback != null) {
-        ApplicationManager.getApplication().executeOnPooledThread(
-          () -> callback.evaluated(new FlexValue(FlexStackFrame.this, myDebugProcess, mySourcePosition, expression, expression, result, null,
-                                               FlexValue.ValueType.Other)));
+        ApplicationManager.getApplication().executeOnPooledThread(() -> callback.evaluated(createValue(expression, result)));
       } else {
         synchronized (this) {
           myFinished = true;
@@ -409,6 +476,89 @@ public class FlexStackFrame extends XStackFrame {
     }
   }
 
+  private static final class BatchedEvaluation {
+    private final String myExpression;
+    private final Obsolescent myObsolescent;
+    private final XDebuggerEvaluator.XEvaluationCallback myCallback;
+
+    private BatchedEvaluation(final String expression,
+                              final Obsolescent obsolescent,
+                              final XDebuggerEvaluator.XEvaluationCallback callback) {
+      myExpression = expression;
+      myObsolescent = obsolescent;
+      myCallback = callback;
+    }
+  }
+
+  /**
+   * Sends all pending batched evaluations as {@code frame N} followed by one {@code print} per expression and
+   * dispatches the responses in order. Expressions fdb could not evaluate are retried one by one with {@link EvaluateCommand},
+   * which knows how to resolve them through the scope chain.
+   */
+  private class BatchEvaluateCommand extends DebuggerCommand {
+    private final List<BatchedEvaluation> myEvaluations = new ArrayList<>();
+    private boolean myPosted;
+    private String myText = "";
+    private int myResponseCount;
+
+    BatchEvaluateCommand() {
+      super("print", CommandOutputProcessingType.SPECIAL_PROCESSING);
+    }
+
+    @NotNull
+    @Override
+    String getText() {
+      return myText;
+    }
+
+    @Override
+    public CommandOutputProcessingType getOutputProcessingMode() {
+      // all the evaluations became obsolete while waiting, nothing was sent
+      return myPosted && myEvaluations.isEmpty() ? CommandOutputProcessingType.NO_PROCESSING : super.getOutputProcessingMode();
+    }
+
+    @Override
+    public void post(final FlexDebugProcess flexDebugProcess) throws IOException {
+      myPosted = true;
+      synchronized (myPendingEvaluations) {
+        for (BatchedEvaluation evaluation : myPendingEvaluations) {
+          if (!evaluation.myObsolescent.isObsolete()) {
+            myEvaluations.add(evaluation);
+          }
+        }
+        myPendingEvaluations.clear();
+      }
+      if (myEvaluations.isEmpty()) return;
+
+      myText = addFrameOffset(StringUtil.join(myEvaluations, evaluation -> "print " + evaluation.myExpression, "\n"));
+      super.post(flexDebugProcess);
+    }
+
+    @Override
+    CommandOutputProcessingMode onTextAvailable(@NonNls final String s) {
+      if (myDebugProcess.filterStdResponse(s)) return CommandOutputProcessingMode.PROCEEDING;
+
+      ++myResponseCount;
+      if (myResponseCount == 1) { // skip frame
+        return CommandOutputProcessingMode.PROCEEDING;
+      }
+
+      final BatchedEvaluation evaluation = myEvaluations.get(myResponseCount - 2);
+      if (s.contains("could not be evaluated")) {
+        myDebugProcess.sendCommand(new EvaluateCommand(evaluation.myExpression, evaluation.myCallback));
+      }
+      else {
+        final int i = s.indexOf(DELIM);
+        final String result = (i != -1 ? s.substring(i + DELIM.length()) : s).trim();
+        cacheResult(evaluation.myExpression, result);
+        ApplicationManager.getApplication()
+          .executeOnPooledThread(() -> evaluation.myCallback.evaluated(createValue(evaluation.myExpression, result)));
+      }
+
+      return myResponseCount == myEvaluations.size() + 1 ? CommandOutputProcessingMode.DONE : CommandOutputProcessingMode.PROCEEDING;
+    }
+  }
+
   static String validObjectId(String s) {
     // some object ids from Flash player are negative (e.g. on Linux) and can not be consumed back e.g. for tracing
     // so we transform them into unsigned ones assuming there is just sign transmition problem (see IDEA-49837)
@@ -416,6 +566,8 @@ public class FlexStackFrame extends XStackFrame {
     return s.charAt(0) == '-' ? Long.toString(idVal & 0xFFFFFFFFL) : Long.toString(idVal);
   }
 
+  private static final Pattern SIDE_EFFECT_FREE_EXPRESSION = Pattern.compile("[\\w$]+(\\.[\\w$]+)*");
+
   private class FlexDebuggerEvaluator extends XDebuggerEvaluator {
     @Override
     public boolean isCodeFragmentEvaluationSupported() {
@@ -424,7 +576,14 @@ public class FlexStackFrame extends XStackFrame {
 
     @Override
     public void evaluate(@NotNull final String expression, @NotNull final XEvaluationCallback callback, @Nullable XSourcePosition expressionPosition) {
+      // expressions from Evaluate and Watches are always evaluated: calls like it.next() must run each time they are requested,
+      // and may change values whose presentations are cached
+      if (!SIDE_EFFECT_FREE_EXPRESSION.matcher(expression).matches()) {
+        clearEvaluationCache();
+      }
+
       final EvaluateCommand command = new EvaluateCommand(expression, callback);
+      command.myCacheResult = false;
       myDebugProcess.sendCommand(command);
     }
 
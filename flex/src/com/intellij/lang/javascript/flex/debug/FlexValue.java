@@ -7,6 +7,7 @@ import com.intellij.lang.javascript.index.JavaScriptIndex;
 import com.intellij.lang.javascript.psi.*;
 import com.intellij.lang.javascript.psi.ecmal4.JSClass;
 import com.intellij.lang.javascript.psi.resolve.JSInheritanceUtil;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.DumbService;
@@ -214,8 +215,7 @@ class FlexValue extends XValue {
   }
 
   private void scheduleVectorPresentation(final XValueNode node, final String type) {
-    final FlexStackFrame.EvaluateCommand command =
-      myFlexStackFrame.new EvaluateCommand(myExpression + ".fixed", new XDebuggerEvaluator.XEvaluationCallback() {
+    myFlexStackFrame.evaluateBatched(myExpression + ".fixed", node, new XDebuggerEvaluator.XEvaluationCallback() {
 
         @Override
         public void evaluated(@NotNull XValue result) {
@@ -230,14 +230,11 @@ class FlexValue extends XValue {
         @Override
         public void errorOccurred(@NotNull String errorMessage) {
         }
-      });
-
-    myDebugProcess.addPendingCommand(new CompositeDebuggerCommand(node, command), 100);
+      }, 100);
   }
 
   private void scheduleCollectionSizePresentation(final XValueNode node, final String type, final String prefix) {
-    final FlexStackFrame.EvaluateCommand command =
-      myFlexStackFrame.new EvaluateCommand(myExpression + ".length", new XDebuggerEvaluator.XEvaluationCallback() {
+    myFlexStackFrame.evaluateBatched(myExpression + ".length", node, new XDebuggerEvaluator.XEvaluationCallback() {
 
         @Override
         public void evaluated(@NotNull XValue result) {
@@ -254,9 +251,7 @@ class FlexValue extends XValue {
         @Override
         public void errorOccurred(@NotNull String errorMessage) {
         }
-      });
-
-    myDebugProcess.addPendingCommand(new CompositeDebuggerCommand(node, command), 100);
+      }, 100);
   }
 
   private static void setXmlListPresentation(final XValueNode node, final String value, final FlexValue flexValue) {
@@ -320,8 +315,7 @@ class FlexValue extends XValue {
   }
 
   private void scheduleToXmlStringCalculation(final XValueNode node, final String type) {
-    final FlexStackFrame.EvaluateCommand
-      command = myFlexStackFrame.new EvaluateCommand(myExpression + ".toXMLString()", new XDebuggerEvaluator.XEvaluationCallback() {
+    myFlexStackFrame.evaluateBatched(myExpression + ".toXMLString()", node, new XDebuggerEvaluator.XEvaluationCallback() {
 
       @Override
       public void evaluated(@NotNull XValue result) {
@@ -339,9 +333,7 @@ class FlexValue extends XValue {
           node.setPresentation(getIcon(), type, value, hasChildren);
         }
       }
-    });
-
-    myDebugProcess.addPendingCommand(new CompositeDebuggerCommand(node, command), 700);
+    }, 700);
   }
 
   private static String setFullValueEvaluatorIfNeeded(final XValueNode node, String value, final boolean isXml) {
@@ -386,6 +378,7 @@ class FlexValue extends XValue {
           @Override
           protected void dispatchResult(String s) {
             super.dispatchResult(s);
+            myFlexStackFrame.clearEvaluationCache();
             callback.valueModified();
           }
         };
@@ -411,72 +404,83 @@ class FlexValue extends XValue {
       return;
     }
 
+    // all members of an object come in a single response, which stays valid until the next suspend
+    final String cachedMembers = myFlexStackFrame.getCachedMembers(expression);
+    if (cachedMembers != null) {
+      ApplicationManager.getApplication().executeOnPooledThread(() -> addMembers(node, cachedMembers, typeFromFlexValueResult));
+      return;
+    }
+
     final FlexStackFrame.EvaluateCommand
       command = myFlexStackFrame.new EvaluateCommand(expression, null) {
       @Override
       CommandOutputProcessingMode doOnTextAvailable(@NonNls final String resultS) {
-        StringTokenizer tokenizer = new StringTokenizer(resultS, "\r\n");
-
-        // skip first token; it contains $-prefix followed by myResult: $6 = [Object 30860193, class='__AS3__.vec::Vector.<String>']
-        tokenizer.nextToken();
-
-        final LinkedHashMap<String, FlexValue> fieldNameToFlexValueMap = new LinkedHashMap<>(tokenizer.countTokens());
-
-        final NodeClassInfo nodeClassInfo =
-          DumbService.getInstance(myDebugProcess.getSession().getProject()).runReadActionInSmartMode(() -> {
-            final Project project = myDebugProcess.getSession().getProject();
-            final JSClass jsClass = mySourcePosition == null
-                                    ? null
-                                    : findJSClass(project,
-                                                  ModuleUtilCore.findModuleForFile(mySourcePosition.getFile(), project),
-                                                  typeFromFlexValueResult);
-            return jsClass == null ? null : NodeClassInfo.getNodeClassInfo(jsClass);
-          });
-
-        while (tokenizer.hasMoreElements()) {
-          final String s = tokenizer.nextToken().trim();
-          if (s.length() == 0) continue;
-          final int delimIndex = s.indexOf(FlexStackFrame.DELIM);
-          if (delimIndex == -1) {
-            FlexDebugProcess.log("Unrecognized string:" + s);
-            continue;
-          }
-          final String fieldName = s.substring(0, delimIndex);
-          final String result = s.substring(delimIndex + FlexStackFrame.DELIM.length());
-
-          if (result.startsWith("[Setter ")) {
-            // such values do not give any useful information:
-            // [Setter 62, name='Child@3d613bb::staticSetter']
-            // [Setter 78]
-            continue;
-          }
+        myFlexStackFrame.cacheMembers(expression, resultS);
+        addMembers(node, resultS, typeFromFlexValueResult);
+        return CommandOutputProcessingMode.DONE;
+      }
+    };
 
-          String evaluatedPath = myExpression;
+    myDebugProcess.sendCommand(command);
+  }
 
-          if (fieldName.length() > 0 && Character.isDigit(fieldName.charAt(0))) {
-            evaluatedPath += "[\"" + fieldName + "\"]";
-          }
-          else {
-            evaluatedPath += "." + fieldName;
-          }
-          // either parameter of static function from scopechain or a field. Static functions from scopechain look like following:
-          // // [Object 52571545, class='Main$/staticFunction']
-          final ValueType valueType =
-            typeFromFlexValueResult != null && typeFromFlexValueResult.indexOf('/') > -1 ? ValueType.Parameter : ValueType.Field;
-          final FlexValue flexValue =
-            new FlexValue(myFlexStackFrame, myDebugProcess, mySourcePosition, fieldName, evaluatedPath, result, FlexValue.this.myResult,
-                          valueType);
-
-          addValueCheckingDuplicates(flexValue, fieldNameToFlexValueMap);
-        }
+  private void addMembers(final XCompositeNode node, final String resultS, final String typeFromFlexValueResult) {
+    StringTokenizer tokenizer = new StringTokenizer(resultS, "\r\n");
 
-        addChildren(node, fieldNameToFlexValueMap, nodeClassInfo);
+    // skip first token; it contains $-prefix followed by myResult: $6 = [Object 30860193, class='__AS3__.vec::Vector.<String>']
+    tokenizer.nextToken();
 
-        return CommandOutputProcessingMode.DONE;
+    final LinkedHashMap<String, FlexValue> fieldNameToFlexValueMap = new LinkedHashMap<>(tokenizer.countTokens());
+
+    final NodeClassInfo nodeClassInfo =
+      DumbService.getInstance(myDebugProcess.getSession().getProject()).runReadActionInSmartMode(() -> {
+        final Project project = myDebugProcess.getSession().getProject();
+        final JSClass jsClass = mySourcePosition == null
+                                ? null
+                                : findJSClass(project,
+                                              ModuleUtilCore.findModuleForFile(mySourcePosition.getFile(), project),
+                                              typeFromFlexValueResult);
+        return jsClass == null ? null : NodeClassInfo.getNodeClassInfo(jsClass);
+      });
+
+    while (tokenizer.hasMoreElements()) {
+      final String s = tokenizer.nextToken().trim();
+      if (s.length() == 0) continue;
+      final int delimIndex = s.indexOf(FlexStackFrame.DELIM);
+      if (delimIndex == -1) {
+        FlexDebugProcess.log("Unrecognized string:" + s);
+        continue;
       }
-    };
+      final String fieldName = s.substring(0, delimIndex);
+      final String result = s.substring(delimIndex + FlexStackFrame.DELIM.length());
 
-    myDebugProcess.sendCommand(command);
+      if (result.startsWith("[Setter ")) {
+        // such values do not give any useful information:
+        // [Setter 62, name='Child@3d613bb::staticSetter']
+        // [Setter 78]
+        continue;
+      }
+
+      String evaluatedPath = myExpression;
+
+      if (fieldName.length() > 0 && Character.isDigit(fieldName.charAt(0))) {
+        evaluatedPath += "[\"" + fieldName + "\"]";
+      }
+      else {
+        evaluatedPath += "." + fieldName;
+      }
+      // either parameter of static function from scopechain or a field. Static functions from scopechain look like following:
+      // // [Object 52571545, class='Main$/staticFunction']
+      final ValueType valueType =
+        typeFromFlexValueResult != null && typeFromFlexValueResult.indexOf('/') > -1 ? ValueType.Parameter : ValueType.Field;
+      final FlexValue flexValue =
+        new FlexValue(myFlexStackFrame, myDebugProcess, mySourcePosition, fieldName, evaluatedPath, result, myResult,
+                      valueType);
+
+      addValueCheckingDuplicates(flexValue, fieldNameToFlexValueMap);
+    }
+
+    addChildren(node, fieldNameToFlexValueMap, nodeClassInfo);
   }
 
   @Override
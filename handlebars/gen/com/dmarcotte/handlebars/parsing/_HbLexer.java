@@ -342,7 +342,12 @@ final class _HbLexer implements FlexLexer {
     }
 
     public void yypopState() {
-      yybegin(stack.pop());
+      // states are only pushed from YYINITIAL, and the stack is empty if the lexer was restarted in a pushed state
+      yybegin(stack.isEmpty() ? YYINITIAL : stack.pop());
+    }
+
+    void clearStateStack() {
+      stack.clear();
     }
 
 
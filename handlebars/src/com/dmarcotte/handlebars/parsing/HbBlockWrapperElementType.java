@@ -0,0 +1,124 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.dmarcotte.handlebars.parsing;
+
+import com.dmarcotte.handlebars.HbBundle;
+import com.dmarcotte.handlebars.HbLanguage;
+import com.intellij.lang.*;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.text.BlockSupport;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import org.jetbrains.annotations.NotNull;
+
+import static com.dmarcotte.handlebars.parsing.HbTokenTypes.*;
+
+/**
+ * Blocks ({{#if}}...{{/if}}, {{^foo}}...{{/foo}}, {{#> layout}}...{{/layout}}) are reparsed on their own when an edit
+ * happens inside them, so typing in a large template doesn't reparse the whole file.
+ * <p/>
+ * A block always starts where the lexer is in its initial state, so lexing the block text alone gives the same tokens as
+ * lexing the whole file. {@link #isParsable} checks that the new text is still a single block that ends with the
+ * close mustache matching its open mustache. Raw blocks are never reparsed on their own: the lexer doesn't return to
+ * its initial state after them, so an edit in a raw block may change how the rest of the file is lexed.
+ */
+class HbBlockWrapperElementType extends IReparseableElementType {
+  HbBlockWrapperElementType() {
+    super("BLOCK_WRAPPER", HbLanguage.INSTANCE);
+  }
+
+  @Override
+  public boolean isParsable(@NotNull CharSequence buffer, @NotNull Language fileLanguage, @NotNull Project project) {
+    if (!(LanguageParserDefinitions.INSTANCE.forLanguage(fileLanguage) instanceof HbParseDefinition)) return false;
+
+    Lexer lexer = new HbLexer();
+    lexer.start(buffer);
+    IElementType first = lexer.getTokenType();
+    if (first != OPEN_BLOCK && first != OPEN_INVERSE && first != OPEN_PARTIAL_BLOCK) return false;
+
+    int depth = 0;
+    boolean inverse = false; // {{^ is either an inverse block or a simple inverse {{^}}, it depends on the next token
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      if (type == OPEN_RAW_BLOCK || type == END_RAW_BLOCK || type == CLOSE_RAW_BLOCK || type == UNCLOSED_COMMENT) return false;
+
+      if (inverse && type != WHITE_SPACE) {
+        inverse = false;
+        if (type != CLOSE) depth++;
+      }
+
+      if (type == OPEN_BLOCK || type == OPEN_PARTIAL_BLOCK) {
+        depth++;
+      }
+      else if (type == OPEN_INVERSE) {
+        inverse = true;
+      }
+      else if (type == OPEN_ENDBLOCK) {
+        depth--;
+        if (depth < 0) return false;
+        if (depth == 0) {
+          lexer.advance();
+          return isCloseMustacheAtEnd(lexer, buffer.length());
+        }
+      }
+
+      lexer.advance();
+    }
+
+    return false;
+  }
+
+  private static boolean isCloseMustacheAtEnd(@NotNull Lexer lexer, int bufferEnd) {
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      if (type == CLOSE) {
+        return lexer.getTokenEnd() == bufferEnd;
+      }
+      if (type != ID && type != SEP && type != DATA_PREFIX && type != WHITE_SPACE) {
+        return false;
+      }
+      lexer.advance();
+    }
+    return false;
+  }
+
+  @Override
+  protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+    // Handlebars dialects (like Spacebars) have their own parsers, use the one of the file
+    ASTNode oldBlock = Pair.getFirst(chameleon.getUserData(BlockSupport.TREE_TO_BE_REPARSED));
+    Language fileLanguage = (oldBlock != null ? oldBlock.getPsi() : psi).getContainingFile().getLanguage();
+    ParserDefinition parserDefinition = LanguageParserDefinitions.INSTANCE.forLanguage(fileLanguage);
+    Project project = psi.getProject();
+
+    PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(project, chameleon, parserDefinition.createLexer(project),
+                                                                       fileLanguage, chameleon.getChars());
+    PsiBuilder.Marker root = builder.mark();
+    HbParser parser = (HbParser)parserDefinition.createParser(project);
+    parser.getParsing(builder).parseBlock(builder);
+    if (!builder.eof()) {
+      // not expected after isParsable(), isValidReparse() rejects such a block
+      PsiBuilder.Marker rest = builder.mark();
+      while (!builder.eof()) {
+        builder.advanceLexer();
+      }
+      rest.error(HbBundle.message("hb.parsing.invalid"));
+    }
+    root.done(this);
+    return builder.getTreeBuilt().getFirstChildNode();
+  }
+
+  /**
+   * The lexer check in {@link #isParsable} can't tell if the parser ends the block exactly where the text ends,
+   * e.g. when the close mustache is broken. Such a reparse is rejected and the whole file is reparsed instead.
+   */
+  @Override
+  public boolean isValidReparse(@NotNull ASTNode oldNode, @NotNull ASTNode newNode) {
+    ASTNode lastChild = newNode.getLastChildNode();
+    if (lastChild == null || lastChild.getElementType() != CLOSE_BLOCK_STACHE) return false;
+
+    ASTNode close = lastChild.getLastChildNode();
+    return close != null && close.getElementType() == CLOSE;
+  }
+}
@@ -3,6 +3,7 @@ package com.dmarcotte.handlebars.parsing;
 import com.dmarcotte.handlebars.HbBundle;
 import com.intellij.lang.PsiBuilder;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -38,6 +39,8 @@ public class HbParsing {
     RECOVERY_SET.add(CONTENT);
   }
 
+  private static final TokenSet BLOCK_OPENERS = TokenSet.create(OPEN_BLOCK, OPEN_INVERSE, OPEN_RAW_BLOCK, OPEN_PARTIAL_BLOCK);
+
   public HbParsing(final PsiBuilder builder) {
     this.builder = builder;
   }
@@ -129,56 +132,21 @@ public class HbParsing {
   private boolean parseStatement(PsiBuilder builder) {
     IElementType tokenType = builder.getTokenType();
 
-    /*
-     * block
-     * : openBlock program inverseChain? closeBlock
-     * | openInverse program inverseAndProgram? closeBlock
-     */
-    {
-      if (builder.getTokenType() == OPEN_INVERSE) {
-        if (builder.lookAhead(1) == CLOSE) {
-                /* HB_CUSTOMIZATION */
-          // this is actually a `{{^}}` simple inverse.  Bail out.  It gets parsed outside of `statement`
-          return false;
-        }
-
-        PsiBuilder.Marker blockMarker = builder.mark();
-        if (parseOpenInverse(builder)) {
-          parseProgram(builder);
-          parseInverseAndProgram(builder);
-          parseCloseBlock(builder);
-          blockMarker.done(BLOCK_WRAPPER);
-        }
-        else {
-          return false;
-        }
+    if (tokenType == OPEN_INVERSE && builder.lookAhead(1) == CLOSE) {
+      /* HB_CUSTOMIZATION */
+      // this is actually a `{{^}}` simple inverse.  Bail out.  It gets parsed outside of `statement`
+      return false;
+    }
 
+    if (BLOCK_OPENERS.contains(tokenType)) {
+      PsiBuilder.Marker blockMarker = builder.mark();
+      if (parseBlock(builder)) {
+        blockMarker.done(BLOCK_WRAPPER);
         return true;
       }
 
-      if (tokenType == OPEN_BLOCK) {
-        PsiBuilder.Marker blockMarker = builder.mark();
-
-        // this is a fairly lo-fi way to detect this, but it's how it's done in handlebars.js (https://github.com/wycats/handlebars.js/commit/408192ba9f262bb82be88091ab3ec3c16dc02c6d#diff-e85944a1a496f573d1227511819c9e23R128)
-        // so we avoid unneeded complexity by directly porting it
-        boolean hasDecorator = (builder.getTokenText() != null && builder.getTokenText().equals("{{#*"));
-        if (parseOpenBlock(builder)) {
-          parseProgram(builder);
-          PsiBuilder.Marker inverseMarker = builder.mark();
-          if (parseInverseChain(builder) && hasDecorator) {
-            inverseMarker.error(HbBundle.message("hb.parsing.unexpected.decorator.inverse"));
-          } else {
-            inverseMarker.drop();
-          }
-          parseCloseBlock(builder);
-          blockMarker.done(BLOCK_WRAPPER);
-        }
-        else {
-          return false;
-        }
-
-        return true;
-      }
+      blockMarker.drop();
+      return false;
     }
 
     /*
@@ -205,49 +173,11 @@ public class HbParsing {
       }
     }
 
-    /*
-     * rawBlock
-     * : openRawBlock CONTENT endRawBlock
-     */
-    if (tokenType == OPEN_RAW_BLOCK) {
-      PsiBuilder.Marker blockMarker = builder.mark();
-      if (parseOpenRawBlock(builder)) {
-        if (builder.getTokenType() == CONTENT) {
-          builder.advanceLexer(); // eat non-HB content
-        }
-        parseCloseRawBlock(builder);
-        blockMarker.done(BLOCK_WRAPPER);
-      }
-      else {
-        return false;
-      }
-
-      return true;
-    }
-
     if (tokenType == OPEN_PARTIAL) {
       parsePartial(builder);
       return true;
     }
 
-    /*
-     * partialBlock
-     +  : openPartialBlock program closeBlock
-     */
-    if (tokenType == OPEN_PARTIAL_BLOCK) {
-      PsiBuilder.Marker blockMarker = builder.mark();
-      if (parseOpenPartialBlock(builder)) {
-        parseProgram(builder);
-        parseCloseBlock(builder);
-        blockMarker.done(BLOCK_WRAPPER);
-      }
-      else {
-        return false;
-      }
-
-      return true;
-    }
-
     if (tokenType == ESCAPE_CHAR) {
       builder.advanceLexer(); // ignore the escape character
       return true;
@@ -274,6 +204,82 @@ public class HbParsing {
     return false;
   }
 
+  /**
+   * Parses a block without the {@link HbTokenTypes#BLOCK_WRAPPER} around it.
+   * Also used to reparse a single block, see {@link HbBlockWrapperElementType}.
+   * <p/>
+   * block
+   * : openBlock program inverseChain? closeBlock
+   * | openInverse program inverseAndProgram? closeBlock
+   * | rawBlock
+   * | partialBlock
+   */
+  boolean parseBlock(PsiBuilder builder) {
+    IElementType tokenType = builder.getTokenType();
+
+    if (tokenType == OPEN_INVERSE) {
+      if (parseOpenInverse(builder)) {
+        parseProgram(builder);
+        parseInverseAndProgram(builder);
+        parseCloseBlock(builder);
+        return true;
+      }
+
+      return false;
+    }
+
+    if (tokenType == OPEN_BLOCK) {
+      // this is a fairly lo-fi way to detect this, but it's how it's done in handlebars.js (https://github.com/wycats/handlebars.js/commit/408192ba9f262bb82be88091ab3ec3c16dc02c6d#diff-e85944a1a496f573d1227511819c9e23R128)
+      // so we avoid unneeded complexity by directly porting it
+      boolean hasDecorator = (builder.getTokenText() != null && builder.getTokenText().equals("{{#*"));
+      if (parseOpenBlock(builder)) {
+        parseProgram(builder);
+        PsiBuilder.Marker inverseMarker = builder.mark();
+        if (parseInverseChain(builder) && hasDecorator) {
+          inverseMarker.error(HbBundle.message("hb.parsing.unexpected.decorator.inverse"));
+        } else {
+          inverseMarker.drop();
+        }
+        parseCloseBlock(builder);
+        return true;
+      }
+
+      return false;
+    }
+
+    /*
+     * rawBlock
+     * : openRawBlock CONTENT endRawBlock
+     */
+    if (tokenType == OPEN_RAW_BLOCK) {
+      if (parseOpenRawBlock(builder)) {
+        if (builder.getTokenType() == CONTENT) {
+          builder.advanceLexer(); // eat non-HB content
+        }
+        parseCloseRawBlock(builder);
+        return true;
+      }
+
+      return false;
+    }
+
+    /*
+     * partialBlock
+     +  : openPartialBlock program closeBlock
+     */
+    if (tokenType == OPEN_PARTIAL_BLOCK) {
+      if (parseOpenPartialBlock(builder)) {
+        parseProgram(builder);
+        parseCloseBlock(builder);
+        return true;
+      }
+
+      return false;
+    }
+
+    return false;
+  }
+
   /**
    * inverseChain
    * : openInverseChain program inverseChain?
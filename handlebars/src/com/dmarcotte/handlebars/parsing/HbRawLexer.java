@@ -1,10 +1,19 @@
 package com.dmarcotte.handlebars.parsing;
 
 import com.intellij.lexer.FlexAdapter;
+import org.jetbrains.annotations.NotNull;
 
 
 public class HbRawLexer extends FlexAdapter {
   public HbRawLexer() {
     super(new _HbLexer(null));
   }
+
+  @Override
+  public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+    // the state stack is not a part of the lexer state: the lexer is restartable from any state returned by getState()
+    // only if nothing is left on the stack from the previous run
+    ((_HbLexer)getFlex()).clearStateStack();
+    super.start(buffer, startOffset, endOffset, initialState);
+  }
 }
\ No newline at end of file
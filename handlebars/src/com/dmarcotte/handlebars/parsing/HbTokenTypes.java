@@ -12,7 +12,7 @@ public final class HbTokenTypes {
   private HbTokenTypes() {
   }
 
-  public static final IElementType BLOCK_WRAPPER = new HbCompositeElementType("BLOCK_WRAPPER");
+  public static final IElementType BLOCK_WRAPPER = new HbBlockWrapperElementType();
     // used to delineate blocks in the PSI tree. The formatter requires this extra structure.
   public static final IElementType OPEN_BLOCK_STACHE = new HbCompositeElementType("OPEN_BLOCK_STACHE");
   public static final IElementType OPEN_PARTIAL_BLOCK_STACHE = new HbCompositeElementType("OPEN_PARTIAL_BLOCK_STACHE");
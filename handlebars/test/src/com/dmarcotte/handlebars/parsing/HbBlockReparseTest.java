@@ -0,0 +1,89 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package com.dmarcotte.handlebars.parsing;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.file.HbFileType;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+public class HbBlockReparseTest extends BasePlatformTestCase {
+  private static final HbBlockWrapperElementType BLOCK_WRAPPER = (HbBlockWrapperElementType)HbTokenTypes.BLOCK_WRAPPER;
+
+  public void testIsParsable() {
+    assertParsable(true, "{{#if a}}{{/if}}");
+    assertParsable(true, "{{#if a}}<div>{{foo}}</div>{{else}}bar{{/if}}");
+    assertParsable(true, "{{^if a}}{{#each b}}{{^}}{{/each}}{{/if}}");
+    assertParsable(true, "{{#> layout}}{{!-- comment --}}{{/layout}}");
+    assertParsable(true, "{{~#if a~}} x {{~/if~}}");
+
+    assertParsable(false, "{{#if a}}{{/if}} ");
+    assertParsable(false, "{{#if a}}{{/if}}{{#if b}}{{/if}}");
+    assertParsable(false, "{{#if a}}{{#if b}}{{/if}}");
+    assertParsable(false, "{{#if a}}{{/if");
+    assertParsable(false, "{{foo}}");
+    assertParsable(false, " {{#if a}}{{/if}}");
+    assertParsable(false, "{{{{raw}}}}{{{{/raw}}}}");
+    assertParsable(false, "{{#if a}}{{! unclosed comment {{/if}}");
+  }
+
+  public void testTypeInBlock() {
+    doTestTyping("<div>{{#if a}}<span><caret></span>{{/if}}</div>{{#each b}}{{this}}{{/each}}", "{{foo bar=baz}}");
+  }
+
+  public void testTypeInNestedBlock() {
+    doTestTyping("{{#if a}}{{#each b}}<caret>{{/each}}{{else}}{{^c}}x{{/c}}{{/if}}", "text {{#with d}}{{e}}{{/with}}");
+  }
+
+  public void testOpenBlockInBlock() {
+    doTestTyping("{{#if a}}<caret>{{/if}}{{/each}}", "{{#each b}}");
+  }
+
+  public void testBreakCloseMustache() {
+    doTestTyping("{{#if a}}{{foo}}{{/if<caret>}}text", "}");
+  }
+
+  public void testTypingInLargeTemplatePerformance() {
+    StringBuilder text = new StringBuilder("<html><body>\n");
+    for (int i = 0; i < 1000; i++) {
+      text.append("{{#if cond").append(i).append("}}\n")
+        .append("  <div class=\"item\">{{#each items}}<span>{{name}} {{value}}</span>{{/each}}</div>\n")
+        .append("{{else}}\n  <p>{{fallback}}</p>\n{{/if}}\n");
+    }
+    int caret = text.indexOf("{{fallback}}", text.length() / 2);
+    text.insert(caret, "<caret>");
+    text.append("</body></html>\n");
+    myFixture.configureByText(HbFileType.INSTANCE, text.toString());
+
+    PlatformTestUtil.startPerformanceTest(getTestName(false), 2_000, () -> {
+      for (int i = 0; i < 50; i++) {
+        myFixture.type("x");
+        PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+      }
+    }).attempts(1).assertTiming();
+    checkReparsedTree();
+  }
+
+  private void assertParsable(boolean expected, String text) {
+    assertEquals(text, expected, BLOCK_WRAPPER.isParsable(text, HbLanguage.INSTANCE, getProject()));
+  }
+
+  private void doTestTyping(String text, String typed) {
+    myFixture.configureByText(HbFileType.INSTANCE, text);
+    myFixture.type(typed);
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    checkReparsedTree();
+  }
+
+  private void checkReparsedTree() {
+    PsiFile file = myFixture.getFile();
+    PsiFile expected = PsiFileFactory.getInstance(getProject())
+      .createFileFromText("expected.hbs", HbFileType.INSTANCE, file.getText());
+    assertEquals(StringUtil.trimEnd(DebugUtil.psiToString(expected, true), "\n"),
+                 StringUtil.trimEnd(DebugUtil.psiToString(file, true), "\n"));
+  }
+}
@@ -0,0 +1,183 @@
+// Copyright 2000-2022 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.jetbrains.osgi.jps.build;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.incremental.CompileContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Digest of everything that goes into a bundle: the facet configuration, the class directories, the source roots, the library
+ * jars and the descriptor files (.bnd, Bundlor template, manifest, additional contents). Sources and libraries are usually large
+ * and change rarely, so only their paths, sizes and modification times are digested. When the digest of a target matches the one recorded after
+ * its last successful build and the bundles are still in place, running Bnd again would produce the same result.
+ */
+final class BundleFingerprint {
+  private static final Logger LOG = Logger.getInstance(BundleFingerprint.class);
+
+  private final MessageDigest myDigest;
+
+  private BundleFingerprint() {
+    try {
+      myDigest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static @NotNull String compute(@NotNull OsmorcBuildTarget target,
+                                 @NotNull Collection<File> outputs,
+                                 File @NotNull [] classPath,
+                                 File @NotNull [] sources,
+                                 @NotNull Collection<File> libraries,
+                                 @NotNull Collection<File> descriptors,
+                                 @NotNull Map<?, ?> properties) throws IOException {
+    BundleFingerprint fingerprint = new BundleFingerprint();
+
+    StringWriter configuration = new StringWriter();
+    try (PrintWriter writer = new PrintWriter(configuration)) {
+      target.writeConfiguration(null, writer);
+    }
+    fingerprint.add(configuration.toString());
+
+    for (File output : outputs) {
+      fingerprint.add(output.getAbsolutePath());
+    }
+
+    for (Map.Entry<String, String> entry : new TreeMap<>(toStrings(properties)).entrySet()) {
+      fingerprint.add(entry.getKey());
+      fingerprint.add(entry.getValue());
+    }
+
+    for (File root : classPath) {
+      fingerprint.addTree(root);
+    }
+
+    for (File root : sources) {
+      fingerprint.addStamps(root);
+    }
+
+    for (File library : libraries) {
+      fingerprint.addStamps(library);
+    }
+
+    for (File descriptor : descriptors) {
+      fingerprint.addTree(descriptor);
+    }
+
+    return StringUtil.toHexString(fingerprint.myDigest.digest());
+  }
+
+  private void add(String value) {
+    myDigest.update(value.getBytes(StandardCharsets.UTF_8));
+    myDigest.update((byte)0);
+  }
+
+  private void addTree(File root) throws IOException {
+    add(root.getAbsolutePath());
+    if (root.isFile()) {
+      myDigest.update(Files.readAllBytes(root.toPath()));
+    }
+    else if (root.isDirectory()) {
+      Path rootPath = root.toPath();
+      List<Path> files;
+      try (Stream<Path> stream = Files.walk(rootPath)) {
+        files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+      }
+      for (Path file : files) {
+        add(FileUtil.toSystemIndependentName(rootPath.relativize(file).toString()));
+        myDigest.update(Files.readAllBytes(file));
+      }
+    }
+  }
+
+  private void addStamps(File root) throws IOException {
+    add(root.getAbsolutePath());
+    if (root.isFile()) {
+      add(root.length() + ":" + root.lastModified());
+    }
+    else if (root.isDirectory()) {
+      Path rootPath = root.toPath();
+      List<Path> files;
+      try (Stream<Path> stream = Files.walk(rootPath)) {
+        files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+      }
+      for (Path file : files) {
+        add(FileUtil.toSystemIndependentName(rootPath.relativize(file).toString()));
+        add(Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+      }
+    }
+  }
+
+  private static Map<String, String> toStrings(Map<?, ?> properties) {
+    Map<String, String> result = new HashMap<>();
+    for (Map.Entry<?, ?> entry : properties.entrySet()) {
+      result.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the fingerprint and build duration recorded for the target, or {@code null} when there is none.
+   */
+  static @Nullable Record load(@NotNull OsmorcBuildTarget target, @NotNull CompileContext context) {
+    File file = getStorage(target, context);
+    if (!file.isFile()) return null;
+    try {
+      List<String> lines = StringUtil.split(FileUtil.loadFile(file, StandardCharsets.UTF_8), "\n");
+      if (lines.size() == 2) {
+        return new Record(lines.get(0), Long.parseLong(lines.get(1)));
+      }
+    }
+    catch (IOException | NumberFormatException e) {
+      LOG.debug(e);
+    }
+    return null;
+  }
+
+  static void save(@NotNull OsmorcBuildTarget target, @NotNull CompileContext context, @Nullable Record record) {
+    File file = getStorage(target, context);
+    try {
+      if (record == null) {
+        FileUtil.delete(file);
+      }
+      else {
+        FileUtil.writeToFile(file, record.fingerprint + '\n' + record.buildTime);
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Cannot save bundle fingerprint to " + file, e);
+    }
+  }
+
+  private static File getStorage(OsmorcBuildTarget target, CompileContext context) {
+    File dataRoot = context.getProjectDescriptor().dataManager.getDataPaths().getTargetDataRoot(target);
+    return new File(dataRoot, "bundle-fingerprint.txt");
+  }
+
+  static final class Record {
+    final String fingerprint;
+    final long buildTime;
+
+    Record(@NotNull String fingerprint, long buildTime) {
+      this.fingerprint = fingerprint;
+      this.buildTime = buildTime;
+    }
+  }
+}
@@ -26,28 +26,42 @@ package org.jetbrains.osgi.jps.build;
 
 import aQute.bnd.osgi.Constants;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.IOUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
 /**
  * This is a helper class which helps to provide information about bundles (that do not necessarily belong to the project).
+ * <p>
+ * The cache is safe to use from parallel builds and may be persisted between build process runs
+ * (see {@link #load(File)} and {@link #save(File)}), so that library .jar files are not reopened on each build.
+ * Entries are keyed by path and checked against the file's length and modification time; they are held softly,
+ * and the IDE drops entries of changed files with {@link #invalidate(Collection)}.
  *
  * @author <a href="mailto:janthomae@janthomae.de">Jan Thomä</a>
  */
 public final class CachingBundleInfoProvider {
-  private static final Map<String, Pair<Long, Manifest>> ourCache = new WeakHashMap<>();
+  private static final Logger LOG = Logger.getInstance(CachingBundleInfoProvider.class);
+
+  private static final int STORAGE_VERSION = 2;
+
+  private static final ConcurrentMap<String, BundleInfo> ourCache = ContainerUtil.createConcurrentSoftValueMap();
+  private static volatile boolean ourModified = false;
 
   /**
    * True for .jar files or exploded directories with Bundle-SymbolicName in their manifests.
@@ -86,44 +100,179 @@ public final class CachingBundleInfoProvider {
   }
 
   @Nullable
-  public synchronized static String getBundleAttribute(@NotNull String path, @NotNull String attribute) {
-    Pair<Long, Manifest> pair = ourCache.remove(path);
+  public static String getBundleAttribute(@NotNull String path, @NotNull String attribute) {
+    long[] stamp = getStamp(path);
+    if (stamp == null) {
+      ourCache.remove(path);
+      return null;
+    }
 
+    BundleInfo info = ourCache.get(path);
+    if (info == null || !info.isUpToDate(stamp[0], stamp[1])) {
+      info = new BundleInfo(stamp[0], stamp[1], readManifest(path));
+      ourCache.put(path, info);
+      ourModified = true;
+    }
+    return info.myAttributes.get(attribute);
+  }
+
+  /**
+   * @return length and last modification time of a .jar file or of the manifest of an exploded directory,
+   * or null if there is no such file or directory
+   */
+  private static long @Nullable [] getStamp(@NotNull String path) {
     try {
       BasicFileAttributes attributes = Files.readAttributes(Paths.get(path), BasicFileAttributes.class);
       if (attributes.isDirectory()) {
         File manifestFile = new File(path, JarFile.MANIFEST_NAME);
-        if (pair == null || pair.first != manifestFile.lastModified()) {
-          pair = null;
+        return new long[]{manifestFile.length(), manifestFile.lastModified()};
+      }
+      if (attributes.isRegularFile()) {
+        return new long[]{attributes.size(), attributes.lastModifiedTime().toMillis()};
+      }
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+    }
+    return null;
+  }
+
+  /**
+   * Drops entries of the given files or directories, of the files under them and of exploded bundles containing them.
+   */
+  public static void invalidate(@NotNull Collection<String> paths) {
+    if (ourCache.isEmpty() || paths.isEmpty()) return;
+    ourCache.keySet().removeIf(key -> {
+      for (String path : paths) {
+        if (FileUtil.isAncestor(key, path, false) || FileUtil.isAncestor(path, key, false)) return true;
+      }
+      return false;
+    });
+  }
+
+  /**
+   * Merges previously saved entries into the cache; entries already present in memory take precedence.
+   */
+  public static void load(@NotNull File storage) {
+    if (!storage.isFile()) return;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(storage)))) {
+      if (in.readInt() != STORAGE_VERSION) return;
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String path = in.readUTF();
+        long length = in.readLong(), lastModified = in.readLong();
+        Map<String, String> attributes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int attributeCount = in.readInt();
+        for (int j = 0; j < attributeCount; j++) {
+          attributes.put(in.readUTF(), IOUtil.readUTF(in));
+        }
+        ourCache.putIfAbsent(path, new BundleInfo(length, lastModified, attributes));
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Cannot load bundle info cache from " + storage, e);
+    }
+  }
+
+  /**
+   * Writes the cache to the given file, if it has changed since the last load or save.
+   * Entries of files which no longer exist or have changed since they were cached are not written.
+   */
+  public static void save(@NotNull File storage) {
+    if (!ourModified) return;
+    ourModified = false;
+
+    Map<String, BundleInfo> snapshot = new HashMap<>();
+    for (Map.Entry<String, BundleInfo> entry : ourCache.entrySet()) {
+      long[] stamp = getStamp(entry.getKey());
+      if (stamp != null && entry.getValue().isUpToDate(stamp[0], stamp[1])) {
+        snapshot.put(entry.getKey(), entry.getValue());
+      }
+    }
+    if (!FileUtil.createParentDirs(storage)) {
+      LOG.info("Cannot create directory for " + storage);
+      return;
+    }
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(storage)))) {
+      out.writeInt(STORAGE_VERSION);
+      out.writeInt(snapshot.size());
+      for (Map.Entry<String, BundleInfo> entry : snapshot.entrySet()) {
+        BundleInfo info = entry.getValue();
+        out.writeUTF(entry.getKey());
+        out.writeLong(info.myLength);
+        out.writeLong(info.myLastModified);
+        out.writeInt(info.myAttributes.size());
+        for (Map.Entry<String, String> attribute : info.myAttributes.entrySet()) {
+          out.writeUTF(attribute.getKey());
+          IOUtil.writeUTF(out, attribute.getValue());
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Cannot save bundle info cache to " + storage, e);
+      FileUtil.delete(storage);
+    }
+  }
+
+  @TestOnly
+  public static void clearCache() {
+    ourCache.clear();
+    ourModified = false;
+  }
+
+  @TestOnly
+  public static boolean isCachedBundle(@NotNull String path) {
+    return ourCache.containsKey(path);
+  }
+
+  @Nullable
+  private static Manifest readManifest(String path) {
+    try {
+      File file = new File(path);
+      if (file.isDirectory()) {
+        File manifestFile = new File(file, JarFile.MANIFEST_NAME);
+        if (manifestFile.isFile()) {
           try (FileInputStream stream = new FileInputStream(manifestFile)) {
-            Manifest manifest = new Manifest(stream);
-            pair = Pair.create(manifestFile.lastModified(), manifest);
+            return new Manifest(stream);
           }
         }
       }
-      else if (attributes.isRegularFile()) {
-        long lastModified = attributes.lastModifiedTime().toMillis();
-        if (pair == null || pair.first != lastModified) {
-          pair = null;
-          try (JarFile jar = new JarFile(path)) {
-            Manifest manifest = jar.getManifest();
-            if (manifest != null) {
-              pair = Pair.create(lastModified, manifest);
-            }
-          }
+      else if (file.isFile()) {
+        try (JarFile jar = new JarFile(file)) {
+          return jar.getManifest();
         }
       }
     }
     catch (IOException e) {
-      Logger.getInstance(CachingBundleInfoProvider.class).debug(e);
+      LOG.debug(e);
+    }
+    return null;
+  }
+
+  private static final class BundleInfo {
+    private final long myLength;
+    private final long myLastModified;
+    private final Map<String, String> myAttributes;
+
+    private BundleInfo(long length, long lastModified, @Nullable Manifest manifest) {
+      // manifest header names are case-insensitive
+      this(length, lastModified, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+      if (manifest != null) {
+        for (Map.Entry<Object, Object> entry : manifest.getMainAttributes().entrySet()) {
+          myAttributes.put(entry.getKey().toString(), String.valueOf(entry.getValue()));
+        }
+      }
     }
 
-    if (pair != null) {
-      ourCache.put(path, pair);
-      return pair.second.getMainAttributes().getValue(attribute);
+    private BundleInfo(long length, long lastModified, Map<String, String> attributes) {
+      myLength = length;
+      myLastModified = lastModified;
+      myAttributes = attributes;
     }
-    else {
-      return null;
+
+    private boolean isUpToDate(long length, long lastModified) {
+      return myLength == length && myLastModified == lastModified;
     }
   }
 }
@@ -8,6 +8,7 @@ import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.ArrayUtilRt;
 import com.intellij.util.SmartList;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -54,7 +55,11 @@ public class OsgiBuildSession implements Reporter {
   private BndWrapper myBndWrapper;
   private String mySourceToReport = null;
 
-  public void build(@NotNull OsmorcBuildTarget target, @NotNull CompileContext context) throws IOException {
+  /**
+   * Builds bundles of the target. Unless {@code force} is set, Bnd is not run when the fingerprint of bundle inputs
+   * matches the one recorded by the previous successful build and all the bundles are in place.
+   */
+  public void build(@NotNull OsmorcBuildTarget target, @NotNull CompileContext context, boolean force) throws IOException {
     myTarget = target;
     myContext = context;
     myExtension = target.getExtension();
@@ -63,11 +68,24 @@ public class OsgiBuildSession implements Reporter {
 
     progress(message("session.progress"));
 
+    long start = System.currentTimeMillis();
+    String fingerprint;
     try {
       prepare();
+
+      fingerprint = computeFingerprint();
+      BundleFingerprint.Record previous = BundleFingerprint.load(myTarget, myContext);
+      if (!force && fingerprint != null && previous != null && fingerprint.equals(previous.fingerprint) &&
+          ContainerUtil.and(myOutputJarFiles, File::isFile)) {
+        info(message("session.up.to.date", previous.buildTime));
+        return;
+      }
+
+      cleanOutputs();
       doBuild();
     }
     catch (OsgiBuildException e) {
+      BundleFingerprint.save(myTarget, myContext, null);
       error(e.getMessage(), e.getCause(), e.getSourcePath(), -1);
       return;
     }
@@ -79,6 +97,8 @@ public class OsgiBuildSession implements Reporter {
       }
     }
 
+    BundleFingerprint.save(myTarget, myContext, fingerprint != null ? new BundleFingerprint.Record(fingerprint, System.currentTimeMillis() - start) : null);
+
     ProjectBuilderLogger logger = context.getLoggingManager().getProjectBuilderLogger();
     if (logger.isEnabled()) {
       logger.logCompiledFiles(myOutputJarFiles, OsmorcBuilder.ID, "Built OSGi bundles:");
@@ -101,15 +121,6 @@ public class OsgiBuildSession implements Reporter {
     myOutputJarFile = new File(jarFileLocation);
     myOutputJarFiles = myTarget.getOutputRoots(myContext);
 
-    for (File jarFile : myOutputJarFiles) {
-      if (!FileUtil.delete(jarFile)) {
-        throw new OsgiBuildException(message("session.cannot.delete.bundle", jarFile));
-      }
-    }
-    if (!FileUtil.createParentDirs(myOutputJarFile)) {
-      throw new OsgiBuildException(message("session.cannot.create.output", myOutputJarFile.getParent()));
-    }
-
     List<File> classes = new SmartList<>();
     if (myModuleOutputDir.exists()) {
       classes.add(myModuleOutputDir);
@@ -139,6 +150,69 @@ public class OsgiBuildSession implements Reporter {
     myBndWrapper = new BndWrapper(this);
   }
 
+  private void cleanOutputs() throws OsgiBuildException {
+    for (File jarFile : myOutputJarFiles) {
+      if (!FileUtil.delete(jarFile)) {
+        throw new OsgiBuildException(message("session.cannot.delete.bundle", jarFile));
+      }
+    }
+    if (!FileUtil.createParentDirs(myOutputJarFile)) {
+      throw new OsgiBuildException(message("session.cannot.create.output", myOutputJarFile.getParent()));
+    }
+  }
+
+  /**
+   * Returns a digest of the bundle inputs, or {@code null} when it cannot be computed (in which case the bundle is always rebuilt).
+   */
+  private @Nullable String computeFingerprint() {
+    List<File> descriptors = new ArrayList<>();
+    Map<Object, Object> properties = new HashMap<>(myExtension.getAdditionalProperties());
+
+    File descriptorFile = myExtension.getBundleDescriptorFile();
+    if (descriptorFile != null) {
+      descriptors.add(descriptorFile);
+    }
+    if (myExtension.isUseBndFile()) {
+      // sub-bundles and includes are usually kept next to the main .bnd file
+      File bndFile = OsgiBuildUtil.findFileInModuleContentRoots(myModule, myExtension.getBndFileLocation());
+      File[] siblings = bndFile != null ? bndFile.getParentFile().listFiles((dir, name) -> name.endsWith(".bnd")) : null;
+      if (siblings != null) {
+        Arrays.sort(siblings);
+        descriptors.addAll(Arrays.asList(siblings));
+      }
+    }
+    else if (myExtension.isUseBndMavenPlugin()) {
+      File mavenProjectPath = OsgiBuildUtil.getMavenProjectPath(myContext, myModule);
+      if (mavenProjectPath != null) {
+        descriptors.add(mavenProjectPath);
+        descriptors.add(new File(mavenProjectPath.getParentFile(), "bnd.bnd"));
+      }
+      properties.putAll(OsgiBuildUtil.getMavenProjectProperties(myContext, myModule));
+    }
+    else if (myExtension.isUseBundlorFile()) {
+      properties.putAll(OsgiBuildUtil.getMavenProjectProperties(myContext, myModule));
+    }
+    File manifestFile = myExtension.isManifestManuallyEdited() ? myExtension.getManifestFile() : null;
+    if (manifestFile != null) {
+      descriptors.add(manifestFile);
+    }
+    for (OsmorcJarContentEntry contentEntry : myExtension.getAdditionalJarContents()) {
+      descriptors.add(new File(contentEntry.mySource));
+    }
+
+    try {
+      // library jars may be embedded into the bundle (Include-Resource, -includeresource)
+      Collection<File> libraries = JpsJavaExtensionService.dependencies(myModule)
+        .productionOnly().withoutSdk().withoutModuleSourceEntries().withoutDepModules()
+        .classes().getRoots();
+      return BundleFingerprint.compute(myTarget, myOutputJarFiles, myClasses, mySources, libraries, descriptors, properties);
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.debug(e);
+      return null;
+    }
+  }
+
   private void doBuild() throws OsgiBuildException {
     progress(message("session.running.bnd"));
 
@@ -345,6 +419,10 @@ public class OsgiBuildSession implements Reporter {
     myContext.processMessage(new ProgressMessage(myModulePrefix + message));
   }
 
+  private void info(@NotNull @Nls String message) {
+    myContext.processMessage(new CompilerMessage(OsmorcBuilder.ID, BuildMessage.Kind.INFO, myModulePrefix + message));
+  }
+
   @Override
   public void warning(@NotNull String message, @Nullable Throwable t, @Nullable String sourcePath, int lineNum) {
     process(BuildMessage.Kind.WARNING, message, t, sourcePath, lineNum);
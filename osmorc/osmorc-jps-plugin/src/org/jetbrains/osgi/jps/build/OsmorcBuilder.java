@@ -10,6 +10,7 @@ import org.jetbrains.jps.builders.java.JavaBuilderUtil;
 import org.jetbrains.jps.incremental.CompileContext;
 import org.jetbrains.jps.incremental.TargetBuilder;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 
@@ -28,15 +29,30 @@ public class OsmorcBuilder extends TargetBuilder<BuildRootDescriptor, OsmorcBuil
     return ID;
   }
 
+  @Override
+  public void buildStarted(CompileContext context) {
+    CachingBundleInfoProvider.load(getBundleInfoStorage(context));
+  }
+
+  @Override
+  public void buildFinished(CompileContext context) {
+    CachingBundleInfoProvider.save(getBundleInfoStorage(context));
+  }
+
   @Override
   public void build(@NotNull OsmorcBuildTarget target,
                     @NotNull DirtyFilesHolder<BuildRootDescriptor, OsmorcBuildTarget> holder,
                     @NotNull BuildOutputConsumer outputConsumer,
                     @NotNull CompileContext context) throws IOException {
-    if (target.getExtension().isAlwaysRebuildBundleJar() ||
-        JavaBuilderUtil.isForcedRecompilationAllJavaModules(context) ||
-        holder.hasDirtyFiles() || holder.hasRemovedFiles()) {
-      new OsgiBuildSession().build(target, context);
+    if (target.getExtension().isAlwaysRebuildBundleJar() || JavaBuilderUtil.isForcedRecompilationAllJavaModules(context)) {
+      new OsgiBuildSession().build(target, context, true);
+    }
+    else if (holder.hasDirtyFiles() || holder.hasRemovedFiles()) {
+      new OsgiBuildSession().build(target, context, false);
     }
   }
+
+  private static File getBundleInfoStorage(CompileContext context) {
+    return new File(context.getProjectDescriptor().dataManager.getDataPaths().getDataStorageRoot(), "osgi/bundle-info.dat");
+  }
 }
@@ -1,7 +1,9 @@
 // Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.osgi.jps
 
+import org.jetbrains.jps.incremental.messages.BuildMessage
 import org.jetbrains.jps.model.module.JpsModule
+import org.jetbrains.osgi.jps.build.OsmorcBuilder
 import org.jetbrains.osgi.jps.model.ManifestGenerationMode
 import org.jetbrains.osgi.jps.model.OsmorcJarContentEntry
 import java.io.File
@@ -116,7 +118,7 @@ class OsgiBuildTest : OsgiBuildTestCase() {
     assertJar(myModule, setOf("META-INF/MANIFEST.MF", "main/Main.class"))
     buildAllModules().assertUpToDate()
 
-    changeFile("main/src/main/Main.java", "package main;\n\npublic interface Main { String greeting(); }\n")
+    changeFile("main/src/main/Main.java", "package main;\n\npublic interface Main { String greeting(); String farewell(); }")
     buildAllModules().assertBundleCompiled(myModule)
     buildAllModules().assertUpToDate()
 
@@ -132,6 +134,29 @@ class OsgiBuildTest : OsgiBuildTestCase() {
     buildAllModules().assertBundleCompiled(myModule)
   }
 
+  fun testNoRebuildWhenClassesUnchanged() {
+    bndBuild(myModule)
+    createFile("main/bnd.bnd", "Bundle-SymbolicName: main\nBundle-Version: 1.0.0\nExport-Package: main")
+    createFile("main/src/main/Main.java", "package main;\n\npublic interface Main { String greeting(); }")
+    buildAllModules().assertBundleCompiled(myModule)
+
+    // an old timestamp makes a rewrite of the bundle detectable regardless of the file system's timestamp resolution
+    val jar = File(extension(myModule).jarFileLocation)
+    val stamp = jar.lastModified() - 60_000
+    assertTrue(jar.setLastModified(stamp))
+    val length = jar.length()
+
+    changeFile("main/src/main/Main.java", "package main;\n\npublic interface Main { String greeting(); }\n")
+    val result = buildAllModules()
+    result.assertSuccessful()
+    result.assertCompiled(OsmorcBuilder.ID)
+    assertJar(myModule, setOf("META-INF/MANIFEST.MF", "main/Main.class"))
+    assertEquals("the bundle must not be rewritten", stamp, jar.lastModified())
+    assertEquals(length, jar.length())
+    val upToDate = OsgiJpsBundle.message("session.up.to.date", 0).substringBefore(" (")
+    assertTrue(result.getMessages(BuildMessage.Kind.INFO).any { it.messageText.contains(upToDate) })
+  }
+
   fun testRebuildOnDependencyChange() {
     bndBuild(myModule)
     val subModule = module("sub", false)
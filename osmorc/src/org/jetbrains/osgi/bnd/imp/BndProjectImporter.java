@@ -5,6 +5,9 @@ import aQute.bnd.build.Container;
 import aQute.bnd.build.Project;
 import aQute.bnd.build.Workspace;
 import aQute.bnd.header.Attrs;
+import aQute.bnd.header.Parameters;
+import aQute.bnd.osgi.Constants;
+import aQute.bnd.osgi.Processor;
 import aQute.bnd.service.Refreshable;
 import aQute.bnd.service.RepositoryPlugin;
 import com.intellij.compiler.CompilerConfiguration;
@@ -40,6 +43,7 @@ import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.pom.java.LanguageLevel;
 import com.intellij.util.ObjectUtils;
 import com.intellij.util.PathUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.containers.CollectionFactory;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
@@ -57,6 +61,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -71,6 +77,9 @@ public final class BndProjectImporter {
   private static final Logger LOG = Logger.getInstance(BndProjectImporter.class);
 
   private static final Key<Workspace> BND_WORKSPACE_KEY = Key.create("bnd.workspace.key");
+  private static final Key<Map<String, Long>> BND_INPUT_STAMPS_KEY = Key.create("bnd.input.stamps.key");
+
+  private static final int RESOLVE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 
   private static final String JAVAC_SOURCE = "javac.source";
   private static final String JAVAC_TARGET = "javac.target";
@@ -157,36 +166,163 @@ public final class BndProjectImporter {
   }
 
   private boolean resolve(@Nullable ProgressIndicator indicator) {
-    int progress = 0;
+    Map<Project, CompletableFuture<Boolean>> tasks = new LinkedHashMap<>();
+    Map<Project, Collection<Project>> dependencies = getDependencyGraph();
+    ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Bnd Resolve", RESOLVE_THREADS);
+    AtomicInteger progress = new AtomicInteger();
+    try {
+      for (Project project : myProjects) {
+        scheduleResolve(project, dependencies, tasks, new HashSet<>(), executor, indicator, progress);
+      }
+      for (CompletableFuture<Boolean> task : tasks.values()) {
+        if (!task.join()) {
+          return false;
+        }
+      }
+    }
+    catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+      if (cause instanceof Error) throw (Error)cause;
+      throw e;
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
     for (Project project : myProjects) {
-      LOG.info("resolving: " + project.getBase());
+      findSources(project);
+    }
 
-      if (indicator != null) {
-        indicator.checkCanceled();
-        indicator.setText(project.getName());
-      }
+    rememberInputStamps();
 
-      try {
-        project.prepare();
-      }
-      catch (Exception e) {
-        checkErrors(project, e);
-        return false;
+    return true;
+  }
+
+  /**
+   * Schedules {@code project.prepare()} to run once all workspace projects it depends upon are prepared, so that independent
+   * projects are resolved in parallel and a project never re-enters preparation of a dependency being prepared by another thread.
+   */
+  private CompletableFuture<Boolean> scheduleResolve(Project project,
+                                                     Map<Project, Collection<Project>> dependencies,
+                                                     Map<Project, CompletableFuture<Boolean>> tasks,
+                                                     Set<Project> visiting,
+                                                     Executor executor,
+                                                     @Nullable ProgressIndicator indicator,
+                                                     AtomicInteger progress) {
+    CompletableFuture<Boolean> task = tasks.get(project);
+    if (task != null) {
+      return task;
+    }
+
+    visiting.add(project);
+    List<CompletableFuture<Boolean>> prerequisites = new ArrayList<>();
+    for (Project dependency : dependencies.getOrDefault(project, Collections.emptyList())) {
+      if (!visiting.contains(dependency)) {  // cycles are reported by bnd itself
+        prerequisites.add(scheduleResolve(dependency, dependencies, tasks, visiting, executor, indicator, progress));
       }
+    }
+    visiting.remove(project);
 
-      checkWarnings(project, project.getErrors(), true);
-      checkWarnings(project, project.getWarnings(), false);
+    int total = dependencies.size();
+    task = CompletableFuture.allOf(prerequisites.toArray(new CompletableFuture[0]))
+      .thenApplyAsync(__ -> {
+        if (!ContainerUtil.and(prerequisites, CompletableFuture::join)) {
+          return false;
+        }
+        if (indicator != null) {
+          indicator.checkCanceled();
+          indicator.setText(project.getName());
+        }
+        boolean success = resolveProject(project);
+        if (indicator != null) {
+          indicator.setFraction((double)progress.incrementAndGet() / total);
+        }
+        return success;
+      }, executor);
+    tasks.put(project, task);
+    return task;
+  }
 
-      findSources(project);
+  private boolean resolveProject(Project project) {
+    LOG.info("resolving: " + project.getBase());
 
-      if (indicator != null) {
-        indicator.setFraction((double)(++progress) / myProjects.size());
-      }
+    try {
+      project.prepare();
+    }
+    catch (Exception e) {
+      checkErrors(project, e);
+      return false;
     }
 
+    checkWarnings(project, project.getErrors(), true);
+    checkWarnings(project, project.getWarnings(), false);
     return true;
   }
 
+  /**
+   * Guesses dependencies between imported projects from their {@code -dependson}, {@code -buildpath} and {@code -testpath}
+   * instructions; only the names are inspected, since anything more (e.g. {@link Project#getDependson()}) prepares the project.
+   */
+  private Map<Project, Collection<Project>> getDependencyGraph() {
+    Map<String, Project> byName = new HashMap<>();
+    for (Project project : myProjects) {
+      byName.put(project.getName(), project);
+    }
+
+    Map<Project, Collection<Project>> graph = new LinkedHashMap<>();
+    for (Project project : myProjects) {
+      Set<Project> dependencies = new LinkedHashSet<>();
+      for (String instruction : new String[]{Constants.DEPENDSON, Constants.BUILDPATH, Constants.TESTPATH}) {
+        String value = project.getProperty(instruction);
+        if (StringUtil.isEmptyOrSpaces(value)) continue;
+        for (String name : new Parameters(value).keySet()) {
+          Project dependency = byName.get(Processor.removeDuplicateMarker(name));
+          if (dependency != null && dependency != project) {
+            dependencies.add(dependency);
+          }
+        }
+      }
+      graph.put(project, dependencies);
+    }
+    return graph;
+  }
+
+  private void rememberInputStamps() {
+    Map<String, Long> stamps = myProject.getUserData(BND_INPUT_STAMPS_KEY);
+    if (stamps == null) {
+      stamps = myProject.putUserDataIfAbsent(BND_INPUT_STAMPS_KEY, new ConcurrentHashMap<>());
+    }
+    stamps.put(CNF_DIR, getWorkspaceInputStamp(myWorkspace));
+    for (Project project : myProjects) {
+      stamps.put(project.getBase().getPath(), getProjectInputStamp(project.getBase()));
+    }
+  }
+
+  private static long getWorkspaceInputStamp(Workspace workspace) {
+    File cnf = new File(workspace.getBase(), CNF_DIR);
+    long stamp = new File(cnf, BUILD_FILE).lastModified();
+    File[] extensions = new File(cnf, "ext").listFiles((dir, name) -> name.endsWith(".bnd"));
+    if (extensions != null) {
+      for (File extension : extensions) {
+        stamp = 31 * stamp + extension.lastModified();
+      }
+    }
+    return stamp;
+  }
+
+  private static long getProjectInputStamp(File projectDir) {
+    long stamp = 0;
+    File[] descriptors = projectDir.listFiles((dir, name) -> name.endsWith(".bnd"));
+    if (descriptors != null) {
+      Arrays.sort(descriptors);
+      for (File descriptor : descriptors) {
+        stamp = 31 * stamp + descriptor.lastModified();
+      }
+    }
+    return stamp;
+  }
+
   private void findSources(Project project) {
     try {
       findSources(project.getBootclasspath());
@@ -580,6 +716,30 @@ public final class BndProjectImporter {
     }
   }
 
+  /**
+   * Reloads only projects whose .bnd files were modified since the last import; falls back to reloading the entire workspace
+   * when the workspace configuration ({@code cnf/build.bnd}, {@code cnf/ext/*.bnd}) was modified or nothing was imported yet.
+   */
+  public static void reimportChangedProjects(@NotNull com.intellij.openapi.project.Project project) {
+    Workspace workspace = getWorkspace(project);
+    Map<String, Long> stamps = project.getUserData(BND_INPUT_STAMPS_KEY);
+    if (workspace == null || stamps == null || !Objects.equals(stamps.get(CNF_DIR), getWorkspaceInputStamp(workspace))) {
+      reimportWorkspace(project);
+      return;
+    }
+
+    List<String> changed = new ArrayList<>();
+    for (Project p : getWorkspaceProjects(workspace)) {
+      String dir = p.getBase().getPath();
+      if (!Objects.equals(stamps.get(dir), getProjectInputStamp(p.getBase()))) {
+        changed.add(dir);
+      }
+    }
+    if (!changed.isEmpty()) {
+      reimportProjects(project, changed);
+    }
+  }
+
   public static void reimportProjects(@NotNull com.intellij.openapi.project.Project project, @NotNull Collection<String> projectDirs) {
     if (!isUnitTestMode()) {
       new Task.Backgroundable(project, message("bnd.reimport.task"), true) {
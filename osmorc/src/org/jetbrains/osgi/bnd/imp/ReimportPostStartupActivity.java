@@ -59,7 +59,7 @@ final class ReimportPostStartupActivity implements StartupActivity.DumbAware {
 
             ProjectSettings projectSettings = ProjectSettings.getInstance(project);
             if (projectSettings.isBndAutoImport()) {
-              BndProjectImporter.reimportWorkspace(project);
+              BndProjectImporter.reimportChangedProjects(project);
               return;
             }
 
@@ -77,7 +77,7 @@ final class ReimportPostStartupActivity implements StartupActivity.DumbAware {
                   if (e.getDescription().equals("auto")) {
                     projectSettings.setBndAutoImport(true);
                   }
-                  BndProjectImporter.reimportWorkspace(project);
+                  BndProjectImporter.reimportChangedProjects(project);
                 }
               })
               .whenExpired(() -> reimportNotification.set(false))
@@ -0,0 +1,44 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.osmorc.impl;
+
+import com.intellij.openapi.vfs.AsyncFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.osgi.jps.build.CachingBundleInfoProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops cached bundle info of .jar files and exploded bundles changed, moved or deleted in the VFS.
+ */
+final class BundleInfoCacheInvalidator implements AsyncFileListener {
+  @Override
+  public @Nullable ChangeApplier prepareChange(@NotNull List<? extends @NotNull VFileEvent> events) {
+    List<String> paths = new ArrayList<>();
+    for (VFileEvent event : events) {
+      if (!event.getFileSystem().isReadOnly()) {
+        paths.add(event.getPath());
+        if (event instanceof VFileMoveEvent) {
+          paths.add(((VFileMoveEvent)event).getOldPath());
+        }
+        else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent)event).isRename()) {
+          paths.add(((VFilePropertyChangeEvent)event).getOldPath());
+        }
+      }
+    }
+    if (paths.isEmpty()) {
+      return null;
+    }
+
+    return new ChangeApplier() {
+      @Override
+      public void afterVfsChange() {
+        CachingBundleInfoProvider.invalidate(paths);
+      }
+    };
+  }
+}
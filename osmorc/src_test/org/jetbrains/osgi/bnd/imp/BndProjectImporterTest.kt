@@ -158,6 +158,20 @@ class BndProjectImporterTest : JavaProjectTestCase() {
     assertNotNull(OsmorcFacet.getInstance(module))
   }
 
+  fun testReimportChangedProjects() {
+    assertNotNull(BndProjectImporter.findWorkspace(myProject))
+    BndProjectImporter.reimportWorkspace(myProject)
+
+    val module = ModuleManager.getInstance(myProject).findModuleByName("hello.tests")!!
+    assertThat(getDependencies(module)).containsExactly("<jdk>", "<src>", "hello.provider", "hello.consumer")
+
+    val bndFile = File(myProjectDir, "hello.tests/bnd.bnd")
+    bndFile.writeText("-nobundles: true\n-testpath: hello.consumer")
+    bndFile.setLastModified(bndFile.lastModified() + 2000)
+    BndProjectImporter.reimportChangedProjects(myProject)
+
+    assertThat(getDependencies(module)).containsExactly("<jdk>", "<src>", "hello.consumer")
+  }
 
   private fun getDependencies(it: Module): List<String> {
     val dependencies: MutableList<String> = arrayListOf()
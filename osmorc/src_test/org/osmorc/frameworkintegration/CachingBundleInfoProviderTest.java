@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.osmorc.OsgiTestUtil;
 
 import java.io.File;
+import java.util.Collections;
 
 import static org.junit.Assert.*;
 
@@ -55,6 +56,7 @@ public class CachingBundleInfoProviderTest {
 
   @After
   public void tearDown() {
+    CachingBundleInfoProvider.clearCache();
     FileUtil.delete(myTempDir);
   }
 
@@ -85,4 +87,62 @@ public class CachingBundleInfoProviderTest {
     assertFalse(CachingBundleInfoProvider.isFragmentBundle(myJarBundle));
     assertFalse(CachingBundleInfoProvider.isFragmentBundle(myInvalidDirBundle));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testAllAttributesAreCached() {
+    assertEquals("1.0", CachingBundleInfoProvider.getBundleAttribute(myJarBundle, "Manifest-Version"));
+    assertTrue(CachingBundleInfoProvider.isCachedBundle(myJarBundle));
+    assertEquals("jarbundle", CachingBundleInfoProvider.getBundleAttribute(myJarBundle, "bundle-symbolicname"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    assertTrue(CachingBundleInfoProvider.isBundle(myJarBundle));
+    assertTrue(CachingBundleInfoProvider.isBundle(myDirBundle));
+
+    CachingBundleInfoProvider.invalidate(Collections.singletonList(myJarBundle));
+    assertFalse(CachingBundleInfoProvider.isCachedBundle(myJarBundle));
+    assertTrue(CachingBundleInfoProvider.isCachedBundle(myDirBundle));
+
+    // a change of the manifest of an exploded bundle
+    CachingBundleInfoProvider.invalidate(Collections.singletonList(new File(myDirBundle, "META-INF/MANIFEST.MF").getPath()));
+    assertFalse(CachingBundleInfoProvider.isCachedBundle(myDirBundle));
+
+    // a deletion of a directory containing bundles
+    assertTrue(CachingBundleInfoProvider.isBundle(myJarBundle));
+    CachingBundleInfoProvider.invalidate(Collections.singletonList(new File(myTempDir, "t0").getPath()));
+    assertFalse(CachingBundleInfoProvider.isCachedBundle(myJarBundle));
+  }
+
+  @Test
+  public void testPersistentCache() {
+    File storage = new File(myTempDir, "bundle-info.dat");
+    assertTrue(CachingBundleInfoProvider.isBundle(myJarBundle));
+    CachingBundleInfoProvider.save(storage);
+    assertTrue(storage.isFile());
+
+    CachingBundleInfoProvider.clearCache();
+    assertFalse(CachingBundleInfoProvider.isCachedBundle(myJarBundle));
+    CachingBundleInfoProvider.load(storage);
+    assertTrue(CachingBundleInfoProvider.isCachedBundle(myJarBundle));
+    assertEquals("jarbundle", CachingBundleInfoProvider.getBundleSymbolicName(myJarBundle));
+    assertEquals("1.0.0", CachingBundleInfoProvider.getBundleVersion(myJarBundle));
+    assertEquals("1.0", CachingBundleInfoProvider.getBundleAttribute(myJarBundle, "Manifest-Version"));
+  }
+
+  @Test
+  public void testPersistentCacheSkipsDeletedBundles() throws Exception {
+    File storage = new File(myTempDir, "bundle-info.dat");
+    File copy = new File(myTempDir, "t0/copy.jar");
+    FileUtil.copy(new File(myJarBundle), copy);
+    assertTrue(CachingBundleInfoProvider.isBundle(myJarBundle));
+    assertTrue(CachingBundleInfoProvider.isBundle(copy.getPath()));
+    assertTrue(copy.delete());
+    CachingBundleInfoProvider.save(storage);
+
+    CachingBundleInfoProvider.clearCache();
+    CachingBundleInfoProvider.load(storage);
+    assertTrue(CachingBundleInfoProvider.isCachedBundle(myJarBundle));
+    assertFalse(CachingBundleInfoProvider.isCachedBundle(copy.getPath()));
+  }
+}
@@ -10,8 +10,10 @@ import com.intellij.util.indexing.FindSymbolParameters;
 import com.intellij.util.indexing.IdFilter;
 import org.intellij.plugins.postcss.psi.PostCssCustomMedia;
 import org.intellij.plugins.postcss.psi.PostCssCustomSelector;
+import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
 import org.intellij.plugins.postcss.psi.stubs.PostCssCustomMediaIndex;
 import org.intellij.plugins.postcss.psi.stubs.PostCssCustomSelectorIndex;
+import org.intellij.plugins.postcss.psi.stubs.PostCssSimpleVariableIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -23,6 +25,8 @@ public class PostCssGotoSymbolContributor implements ChooseByNameContributorEx {
                                            scope, filter);
     StubIndex.getInstance()
       .processAllKeys(PostCssCustomMediaIndex.KEY, s -> processor.process(s) && processor.process("--" + s), scope, filter);
+    StubIndex.getInstance()
+      .processAllKeys(PostCssSimpleVariableIndex.KEY, s -> processor.process(s) && processor.process("$" + s), scope, filter);
   }
 
   @Override
@@ -39,11 +43,17 @@ public class PostCssGotoSymbolContributor implements ChooseByNameContributorEx {
       StubIndex.getInstance().processElements(PostCssCustomMediaIndex.KEY, name.substring(2), parameters.getProject(),
                                               parameters.getSearchScope(), PostCssCustomMedia.class, processor);
     }
+    else if (StringUtil.startsWith(name, "$")) {
+      StubIndex.getInstance().processElements(PostCssSimpleVariableIndex.KEY, name.substring(1), parameters.getProject(),
+                                              parameters.getSearchScope(), PostCssSimpleVariableDeclaration.class, processor);
+    }
     else {
       StubIndex.getInstance().processElements(PostCssCustomSelectorIndex.KEY, name, parameters.getProject(),
                                               parameters.getSearchScope(), PostCssCustomSelector.class, processor);
       StubIndex.getInstance().processElements(PostCssCustomMediaIndex.KEY, name, parameters.getProject(),
                                               parameters.getSearchScope(), PostCssCustomMedia.class, processor);
+      StubIndex.getInstance().processElements(PostCssSimpleVariableIndex.KEY, name, parameters.getProject(),
+                                              parameters.getSearchScope(), PostCssSimpleVariableDeclaration.class, processor);
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package org.intellij.plugins.postcss.psi.stubs.types;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.css.CssStylesheet;
+import com.intellij.psi.css.impl.CssElementTypes;
+import com.intellij.psi.css.impl.stubs.base.CssNamedStub;
+import com.intellij.psi.css.impl.stubs.base.CssSimpleNamedStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import org.intellij.plugins.postcss.PostCssLanguage;
+import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
+import org.intellij.plugins.postcss.psi.impl.PostCssSimpleVariableDeclarationImpl;
+import org.intellij.plugins.postcss.psi.stubs.PostCssSimpleVariableIndex;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+public class PostCssSimpleVariableDeclarationStubElementType extends CssSimpleNamedStubElementType<PostCssSimpleVariableDeclaration> {
+
+  public PostCssSimpleVariableDeclarationStubElementType(@NonNls @NotNull String debugName) {
+    super(debugName, PostCssLanguage.INSTANCE);
+  }
+
+  @Override
+  public PsiElement createElement(ASTNode node) {
+    return new PostCssSimpleVariableDeclarationImpl(node);
+  }
+
+  @Override
+  public PostCssSimpleVariableDeclaration createPsi(@NotNull CssNamedStub<PostCssSimpleVariableDeclaration> stub) {
+    return new PostCssSimpleVariableDeclarationImpl(stub, this);
+  }
+
+  /**
+   * Only top-level declarations are visible from other files
+   */
+  @Override
+  public boolean shouldCreateStub(ASTNode node) {
+    ASTNode parent = node.getTreeParent();
+    return super.shouldCreateStub(node) &&
+           parent != null && parent.getElementType() == CssElementTypes.CSS_RULESET_LIST &&
+           parent.getTreeParent() != null && parent.getTreeParent().getPsi() instanceof CssStylesheet;
+  }
+
+  @Override
+  public void indexStub(@NotNull final CssNamedStub<PostCssSimpleVariableDeclaration> stub, @NotNull final IndexSink sink) {
+    sink.occurrence(PostCssSimpleVariableIndex.KEY, stub.getName());
+  }
+}
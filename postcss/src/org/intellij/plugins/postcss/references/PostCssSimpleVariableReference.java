@@ -13,18 +13,24 @@ import com.intellij.psi.PsiReferenceBase;
 import com.intellij.psi.css.*;
 import com.intellij.psi.css.impl.util.CssUtil;
 import com.intellij.psi.css.reference.CssReference;
+import com.intellij.psi.impl.source.PsiFileImpl;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubTree;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.Processor;
 import com.intellij.util.SmartList;
 import org.intellij.plugins.postcss.PostCssLanguage;
+import org.intellij.plugins.postcss.PostCssStubElementTypes;
 import org.intellij.plugins.postcss.lexer.PostCssTokenTypes;
 import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Set;
+import java.util.*;
 
 public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement> implements CssReference {
   private static final ResolveCache.AbstractResolver<PostCssSimpleVariableReference, PostCssSimpleVariableDeclaration> RESOLVER =
@@ -33,12 +39,9 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
       if (varName.isEmpty()) return null;
 
       final Ref<PostCssSimpleVariableDeclaration> result = Ref.create();
-      processSimpleVariableDeclarations(reference.getElement(), element -> {
-        if (varName.equals(element.getName())) {
-          result.set(element);
-          return false;
-        }
-        return true;
+      processSimpleVariableTables(reference.getElement(), variables -> {
+        result.set(variables.get(varName));
+        return result.isNull();
       });
 
       return result.get();
@@ -77,13 +80,19 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
   @Override
   public Object @NotNull [] getVariants() {
     final SmartList<LookupElement> result = new SmartList<>();
-    processSimpleVariableDeclarations(myElement, element -> {
-      LookupElementBuilder lookup = LookupElementBuilder.create(element).withIcon(AllIcons.Nodes.Variable);
-      CssTermList initializer = element.getInitializer();
-      if (initializer != null) {
-        lookup = lookup.withTailText(" " + initializer.getText(), true);
+    final Set<String> names = new HashSet<>();
+    processSimpleVariableTables(myElement, variables -> {
+      for (PostCssSimpleVariableDeclaration element : variables.values()) {
+        // a variable of the current file shadows the one with the same name in an imported file
+        if (!names.add(element.getName())) continue;
+
+        LookupElementBuilder lookup = LookupElementBuilder.create(element).withIcon(AllIcons.Nodes.Variable);
+        CssTermList initializer = element.getInitializer();
+        if (initializer != null) {
+          lookup = lookup.withTailText(" " + initializer.getText(), true);
+        }
+        result.add(lookup);
       }
-      result.add(lookup);
       return true;
     });
 
@@ -111,36 +120,68 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
     return myElement;
   }
 
-  private static void processSimpleVariableDeclarations(@NotNull PsiElement context,
-                                                        @NotNull Processor<PostCssSimpleVariableDeclaration> processor) {
+  /**
+   * Processes variables visible at the {@code context}: the ones declared in the same ruleset list, then the ones of the files
+   * imported with {@code @import}, file by file.
+   */
+  private static void processSimpleVariableTables(@NotNull PsiElement context,
+                                                  @NotNull Processor<Map<String, PostCssSimpleVariableDeclaration>> processor) {
     CssRulesetList rulesetList = PsiTreeUtil.getParentOfType(context, CssRulesetList.class);
     if (rulesetList == null) return;
 
-    if (!processSimpleVarsInRulesetList(rulesetList, processor)) return;
+    if (!processor.process(getSimpleVariables(rulesetList))) return;
 
     PsiFile contextFile = context.getContainingFile();
     Set<VirtualFile> otherFiles = CssUtil.getImportedFiles(context.getContainingFile(), context, true);
     for (VirtualFile otherFile : otherFiles) {
       PsiFile otherPsiFile = contextFile.getManager().findFile(otherFile);
       if (otherPsiFile instanceof StylesheetFile && !otherFile.equals(contextFile.getVirtualFile())) {
-        CssStylesheet otherStylesheet = ((StylesheetFile)otherPsiFile).getStylesheet();
-        CssRulesetList otherRulesetList = otherStylesheet == null ? null : otherStylesheet.getRulesetList();
-        if (otherRulesetList != null) {
-          if (!processSimpleVarsInRulesetList(otherRulesetList, processor)) return;
-        }
+        if (!processor.process(getSimpleVariables((StylesheetFile)otherPsiFile))) return;
       }
     }
   }
 
-  private static boolean processSimpleVarsInRulesetList(@NotNull CssRulesetList rulesetList,
-                                                        @NotNull Processor<PostCssSimpleVariableDeclaration> processor) {
-    PsiElement child = rulesetList.getLastChild();
-    while (child != null) {
-      if (child instanceof PostCssSimpleVariableDeclaration) {
-        if (!processor.process((PostCssSimpleVariableDeclaration)child)) return false;
+  /**
+   * @return variables declared directly in the ruleset list by name, the last declaration of a variable wins
+   */
+  @NotNull
+  private static Map<String, PostCssSimpleVariableDeclaration> getSimpleVariables(@NotNull CssRulesetList rulesetList) {
+    return CachedValuesManager.getCachedValue(rulesetList, () -> {
+      Map<String, PostCssSimpleVariableDeclaration> result = new LinkedHashMap<>();
+      for (PsiElement child = rulesetList.getFirstChild(); child != null; child = child.getNextSibling()) {
+        if (child instanceof PostCssSimpleVariableDeclaration) {
+          result.put(((PostCssSimpleVariableDeclaration)child).getName(), (PostCssSimpleVariableDeclaration)child);
+        }
       }
-      child = child.getPrevSibling();
-    }
-    return true;
+      return CachedValueProvider.Result.create(Collections.unmodifiableMap(result), rulesetList.getContainingFile());
+    });
+  }
+
+  /**
+   * @return top-level variables of the file by name, the last declaration of a variable wins.
+   * The stub tree is used if the file isn't parsed, so files imported by the current one are not parsed to resolve variables.
+   */
+  @NotNull
+  private static Map<String, PostCssSimpleVariableDeclaration> getSimpleVariables(@NotNull StylesheetFile file) {
+    return CachedValuesManager.getCachedValue(file, () -> {
+      Map<String, PostCssSimpleVariableDeclaration> result;
+      StubTree stubTree = file instanceof PsiFileImpl ? ((PsiFileImpl)file).getStubTree() : null;
+      if (stubTree != null) {
+        result = new LinkedHashMap<>();
+        for (StubElement<?> stub : stubTree.getPlainList()) {
+          if (stub.getStubType() == PostCssStubElementTypes.POST_CSS_SIMPLE_VARIABLE_DECLARATION) {
+            PostCssSimpleVariableDeclaration declaration = (PostCssSimpleVariableDeclaration)stub.getPsi();
+            result.put(declaration.getName(), declaration);
+          }
+        }
+        result = Collections.unmodifiableMap(result);
+      }
+      else {
+        CssStylesheet stylesheet = file.getStylesheet();
+        CssRulesetList rulesetList = stylesheet == null ? null : stylesheet.getRulesetList();
+        result = rulesetList == null ? Collections.emptyMap() : getSimpleVariables(rulesetList);
+      }
+      return CachedValueProvider.Result.create(result, file);
+    });
   }
 }
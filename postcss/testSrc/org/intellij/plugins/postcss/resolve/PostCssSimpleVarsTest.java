@@ -10,6 +10,8 @@ import com.intellij.testFramework.TestDataPath;
 import org.intellij.plugins.postcss.PostCssFixtureTestCase;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 @TestDataPath("$CONTENT_ROOT/testData/resolve/simpleVars")
 public class PostCssSimpleVarsTest extends PostCssFixtureTestCase {
   private void doResolveTest(@NotNull String text, @NotNull String expectedTarget) {
@@ -63,6 +65,66 @@ public class PostCssSimpleVarsTest extends PostCssFixtureTestCase {
     );
   }
 
+  public void testResolveLastDeclaration() {
+    doResolveTest("""
+                    $foo: 10px;
+                    $foo: 20px;
+                    .header {
+                        width: $<caret>foo;
+                    }""",
+                  "$foo: 20px;"
+    );
+  }
+
+  public void testResolveFromImportedFile() {
+    myFixture.addFileToProject("tokens.pcss", """
+      $foo: 10px;
+      @media screen {
+        $bar: 20px;
+      }""");
+    myFixture.addFileToProject("other.pcss", "$baz: 30px;");
+    doResolveTest("""
+                    @import 'tokens.pcss';
+                    .header {
+                        width: $<caret>foo;
+                    }""",
+                  "$foo: 10px;"
+    );
+  }
+
+  public void testLocalDeclarationShadowsImported() {
+    myFixture.addFileToProject("tokens.pcss", "$foo: 10px;");
+    doResolveTest("""
+                    @import 'tokens.pcss';
+                    $foo: 20px;
+                    .header {
+                        width: $<caret>foo;
+                    }""",
+                  "$foo: 20px;"
+    );
+  }
+
+  public void testCompletionFromImportedFiles() {
+    myFixture.addFileToProject("tokens.pcss", """
+      $foo: 10px;
+      $bar: 20px;
+      @media screen {
+        $nested: 20px;
+      }""");
+    myFixture.addFileToProject("other.pcss", "$baz: 30px;");
+    myFixture.configureByText("foo.pcss", """
+      @import 'tokens.pcss';
+      $foo: 0;
+      $local: 1px;
+      .header {
+          width: $<caret>;
+      }""");
+    myFixture.completeBasic();
+    List<String> strings = myFixture.getLookupElementStrings();
+    assertNotNull(strings);
+    assertSameElements(strings, "foo", "local", "bar");
+  }
+
   public void testFindUsages() {
     doTestFindUsages("""
                        $f<caret>oo: 10px;
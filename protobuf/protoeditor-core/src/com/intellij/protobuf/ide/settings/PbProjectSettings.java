@@ -36,6 +36,9 @@ import java.util.Objects;
 /** A persistent service that stores protobuf settings. */
 @State(name = "ProtobufLanguageSettings", storages = @Storage("protoeditor.xml"))
 public final class PbProjectSettings implements PersistentStateComponent<PbProjectSettings.State> {
+  // Incremented by every setter and by loadState, so that caches depending on the settings never
+  // miss a change, even when notifyUpdated is called later or not at all.
+  private final SimpleModificationTracker modificationTracker = new SimpleModificationTracker();
   private State state;
 
   public PbProjectSettings() {
@@ -52,12 +55,17 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
   }
 
   public static void notifyUpdated(Project project) {
-    getInstance(project).state.incModificationCount();
+    getInstance(project).modificationTracker.incModificationCount();
     DaemonCodeAnalyzer.getInstance(project).restart();
   }
 
   public static ModificationTracker getModificationTracker(Project project) {
-    return getInstance(project).state;
+    return getInstance(project).modificationTracker;
+  }
+
+  /** Returns the tracker of this settings object, which may be a copy not registered as a service. */
+  ModificationTracker getSettingsModificationTracker() {
+    return modificationTracker;
   }
 
   @Override
@@ -73,6 +81,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
   @Override
   public void loadState(@NotNull State state) {
     this.state = state;
+    modificationTracker.incModificationCount();
   }
 
   public void copyState(PbProjectSettings other) {
@@ -88,6 +97,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
       importPathEntries = Collections.emptyList();
     }
     state.importPathEntries = importPathEntries;
+    modificationTracker.incModificationCount();
   }
 
   @NlsSafe
@@ -97,6 +107,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setDescriptorPath(String descriptorPath) {
     state.descriptorPath = StringUtil.defaultIfEmpty(descriptorPath, "");
+    modificationTracker.incModificationCount();
   }
 
   public boolean isAutoConfigEnabled() {
@@ -105,6 +116,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
 
   public void setAutoConfigEnabled(boolean autoConfigEnabled) {
     state.autoConfigEnabled = autoConfigEnabled;
+    modificationTracker.incModificationCount();
   }
 
   public PbProjectSettings copy() {
@@ -193,7 +205,7 @@ public final class PbProjectSettings implements PersistentStateComponent<PbProje
    * Persistent state holder.
    * <p>Values must be public to be serialized. The initial values below represent defaults.</p>
    */
-  static class State extends SimpleModificationTracker {
+  static class State {
     public boolean autoConfigEnabled = true;
     public List<ImportPathEntry> importPathEntries = new ArrayList<>();
     @NlsSafe
@@ -127,6 +127,12 @@ public class SettingsFileResolveProvider implements FileResolveProvider {
     return null;
   }
 
+  @NotNull
+  @Override
+  public Object[] getCacheDependencies(@NotNull Project project) {
+    return new Object[] {getSettings(project).getSettingsModificationTracker()};
+  }
+
   @NotNull
   @Override
   public GlobalSearchScope getSearchScope(@NotNull Project project) {
@@ -175,4 +175,18 @@ public interface FileResolveProvider {
    */
   @NotNull
   GlobalSearchScope getSearchScope(@NotNull Project project);
+
+  /**
+   * Returns the dependencies that change when results of {@link #findFile} and {@link
+   * #getChildEntries} may change, besides changes of VFS structure and project roots, which are
+   * always tracked. {@link PbFileResolver} caches resolved paths only if all providers return
+   * non-null dependencies.
+   *
+   * @param project the project
+   * @return the dependencies, or <code>null</code> if results of this provider can't be cached.
+   */
+  @Nullable
+  default Object[] getCacheDependencies(@NotNull Project project) {
+    return null;
+  }
 }
@@ -23,6 +23,7 @@ import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.util.ArrayUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -88,6 +89,13 @@ public class LocalRootsFileResolveProvider implements FileResolveProvider {
         project, /* withSubDirectories= */ true, getProjectRoots(project));
   }
 
+  @NotNull
+  @Override
+  public Object[] getCacheDependencies(@NotNull Project project) {
+    // Content roots are tracked by PbFileResolver.
+    return ArrayUtil.EMPTY_OBJECT_ARRAY;
+  }
+
   private List<ChildEntry> getChildEntriesForFile(VirtualFile file) {
     if (file != null && file.isDirectory()) {
       return VfsUtil.getChildren(file, PROTO_AND_DIRECTORY_FILTER)
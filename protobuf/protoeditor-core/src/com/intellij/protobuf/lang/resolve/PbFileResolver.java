@@ -18,21 +18,34 @@ package com.intellij.protobuf.lang.resolve;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.UserDataHolder;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.protobuf.lang.psi.PbFile;
 import com.intellij.protobuf.lang.resolve.FileResolveProvider.ChildEntry;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /** A helper class for finding files given path names. */
 public class PbFileResolver {
 
+  private static final Key<CachedValue<ResolvedPaths>> RESOLVED_PATHS_KEY =
+      Key.create("protobuf.resolved.import.paths");
+
   @NotNull
   public static List<PbFile> findFilesForContext(
       @NotNull String path, @NotNull PsiElement context) {
@@ -49,7 +62,12 @@ public class PbFileResolver {
     if (!isValidImportPath(path)) {
       return Collections.emptyList();
     }
-    return findFiles(module.getProject(), (provider) -> provider.findFile(path, module));
+    Project project = module.getProject();
+    return findFiles(
+        project,
+        getResolvedPaths(project, module),
+        path,
+        (provider) -> provider.findFile(path, module));
   }
 
   @NotNull
@@ -57,7 +75,11 @@ public class PbFileResolver {
     if (!isValidImportPath(path)) {
       return Collections.emptyList();
     }
-    return findFiles(project, (provider) -> provider.findFile(path, project));
+    return findFiles(
+        project,
+        getResolvedPaths(project, project),
+        path,
+        (provider) -> provider.findFile(path, project));
   }
 
   @NotNull
@@ -77,7 +99,12 @@ public class PbFileResolver {
     if (!isValidImportPath(path)) {
       return Collections.emptyList();
     }
-    return getChildEntries(module.getProject(), provider -> provider.getChildEntries(path, module));
+    Project project = module.getProject();
+    return getChildEntries(
+        project,
+        getResolvedPaths(project, module),
+        path,
+        provider -> provider.getChildEntries(path, module));
   }
 
   @NotNull
@@ -86,7 +113,11 @@ public class PbFileResolver {
     if (!isValidImportPath(path)) {
       return Collections.emptyList();
     }
-    return getChildEntries(project, provider -> provider.getChildEntries(path, project));
+    return getChildEntries(
+        project,
+        getResolvedPaths(project, project),
+        path,
+        provider -> provider.getChildEntries(path, project));
   }
 
   public static boolean isValidImportPath(@NotNull String path) {
@@ -115,14 +146,66 @@ public class PbFileResolver {
     return scope;
   }
 
+  /**
+   * Files and child entries found by all providers for import paths, cached per project or module
+   * until VFS structure, project roots or any of the {@link
+   * FileResolveProvider#getCacheDependencies provider dependencies} change. So resolving the same
+   * imports again, e.g. from the annotator and completion, doesn't probe every root of every
+   * provider.
+   */
+  private static final class ResolvedPaths {
+    final Map<String, List<VirtualFile>> files = new ConcurrentHashMap<>();
+    final Map<String, Collection<ChildEntry>> childEntries = new ConcurrentHashMap<>();
+  }
+
+  /** Returns <code>null</code> if some provider's results can't be cached. */
+  @Nullable
+  private static ResolvedPaths getResolvedPaths(
+      @NotNull Project project, @NotNull UserDataHolder scope) {
+    return CachedValuesManager.getManager(project)
+        .getCachedValue(
+            scope,
+            RESOLVED_PATHS_KEY,
+            () -> {
+              List<Object> dependencies = new ArrayList<>();
+              dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+              dependencies.add(ProjectRootModificationTracker.getInstance(project));
+              for (FileResolveProvider provider : getProviders(project)) {
+                Object[] providerDependencies = provider.getCacheDependencies(project);
+                if (providerDependencies == null) {
+                  return Result.create(null, ModificationTracker.EVER_CHANGED);
+                }
+                Collections.addAll(dependencies, providerDependencies);
+              }
+              return Result.create(new ResolvedPaths(), dependencies);
+            },
+            false);
+  }
+
   @NotNull
   private static List<PbFile> findFiles(
-      Project project, Function<FileResolveProvider, VirtualFile> fn) {
-    Set<PbFile> results = new LinkedHashSet<>();
+      Project project,
+      @Nullable ResolvedPaths resolvedPaths,
+      String path,
+      Function<FileResolveProvider, VirtualFile> fn) {
+    List<VirtualFile> files = resolvedPaths != null ? resolvedPaths.files.get(path) : null;
+    if (files == null) {
+      Set<VirtualFile> found = new LinkedHashSet<>();
+      for (FileResolveProvider provider : getProviders(project)) {
+        VirtualFile file = fn.apply(provider);
+        if (file != null && file.exists()) {
+          found.add(file);
+        }
+      }
+      files = new ArrayList<>(found);
+      if (resolvedPaths != null) {
+        resolvedPaths.files.put(path, files);
+      }
+    }
 
-    for (FileResolveProvider provider : getProviders(project)) {
-      VirtualFile file = fn.apply(provider);
-      if (file == null || !file.exists()) {
+    Set<PbFile> results = new LinkedHashSet<>();
+    for (VirtualFile file : files) {
+      if (!file.isValid()) {
         continue;
       }
       PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
@@ -135,12 +218,24 @@ public class PbFileResolver {
 
   @NotNull
   private static Collection<ChildEntry> getChildEntries(
-      Project project, Function<FileResolveProvider, Collection<ChildEntry>> fn) {
+      Project project,
+      @Nullable ResolvedPaths resolvedPaths,
+      String path,
+      Function<FileResolveProvider, Collection<ChildEntry>> fn) {
+    Collection<ChildEntry> cached =
+        resolvedPaths != null ? resolvedPaths.childEntries.get(path) : null;
+    if (cached != null) {
+      return cached;
+    }
     Set<ChildEntry> results = new LinkedHashSet<>();
 
     for (FileResolveProvider provider : getProviders(project)) {
       results.addAll(fn.apply(provider));
     }
-    return results;
+    Collection<ChildEntry> result = Collections.unmodifiableSet(results);
+    if (resolvedPaths != null) {
+      resolvedPaths.childEntries.put(path, result);
+    }
+    return result;
   }
 }
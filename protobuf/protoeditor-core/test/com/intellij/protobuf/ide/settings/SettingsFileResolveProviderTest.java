@@ -20,11 +20,15 @@ import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.protobuf.fixtures.PbCodeInsightFixtureTestCase;
 import com.intellij.protobuf.ide.settings.PbProjectSettings.ImportPathEntry;
+import com.intellij.protobuf.lang.psi.PbFile;
 import com.intellij.protobuf.lang.resolve.FileResolveProvider;
 import com.intellij.protobuf.lang.resolve.FileResolveProvider.ChildEntry;
+import com.intellij.protobuf.lang.resolve.PbFileResolver;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 /** Unit tests for {@link SettingsFileResolveProvider}. */
@@ -115,4 +119,35 @@ public class SettingsFileResolveProviderTest extends PbCodeInsightFixtureTestCas
         ChildEntry.file("foo.proto"),
         ChildEntry.file("bar.proto"));
   }
+
+  public void testResolveFollowsImportPathChanges() throws Exception {
+    FileUtil.writeToFile(new File(tempDir, "path1/dir/foo.proto"), "// foo in path1");
+    FileUtil.writeToFile(new File(tempDir, "path2/dir/foo.proto"), "// foo in path2");
+    FileUtil.writeToFile(new File(tempDir, "path2/dir/bar.proto"), "// bar in path2");
+
+    PbProjectSettings settings = PbProjectSettings.getInstance(getProject());
+    settings.setImportPathEntries(
+        Collections.singletonList(
+            new ImportPathEntry(VfsUtil.pathToUrl(new File(tempDir, "path1").getPath()), "")));
+
+    List<PbFile> foo = PbFileResolver.findFilesInProject("dir/foo.proto", getProject());
+    assertSize(1, foo);
+    assertEquals("// foo in path1", VfsUtil.loadText(foo.get(0).getVirtualFile()));
+    assertEmpty(PbFileResolver.findFilesInProject("dir/bar.proto", getProject()));
+    assertDoesntContain(
+        PbFileResolver.getChildNamesInProject("dir", getProject()), ChildEntry.file("bar.proto"));
+
+    // Resolved paths are cached now. Changing the settings must drop them, even before
+    // notifyUpdated is called.
+    settings.setImportPathEntries(
+        Collections.singletonList(
+            new ImportPathEntry(VfsUtil.pathToUrl(new File(tempDir, "path2").getPath()), "")));
+
+    foo = PbFileResolver.findFilesInProject("dir/foo.proto", getProject());
+    assertSize(1, foo);
+    assertEquals("// foo in path2", VfsUtil.loadText(foo.get(0).getVirtualFile()));
+    assertSize(1, PbFileResolver.findFilesInProject("dir/bar.proto", getProject()));
+    assertContainsElements(
+        PbFileResolver.getChildNamesInProject("dir", getProject()), ChildEntry.file("bar.proto"));
+  }
 }
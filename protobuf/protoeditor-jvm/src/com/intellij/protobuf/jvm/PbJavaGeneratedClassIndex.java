@@ -15,14 +15,18 @@
  */
 package com.intellij.protobuf.jvm;
 
+import com.google.common.collect.ImmutableSetMultimap;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.protobuf.jvm.names.JavaNameGenerator;
 import com.intellij.protobuf.jvm.names.NameGeneratorSelector;
 import com.intellij.protobuf.lang.PbFileType;
-import com.intellij.protobuf.lang.psi.PbFile;
+import com.intellij.protobuf.lang.psi.*;
+import com.intellij.protobuf.lang.psi.util.PbPsiUtil;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.ObjectUtils;
 import com.intellij.util.indexing.*;
 import com.intellij.util.indexing.FileBasedIndex.InputFilter;
@@ -34,21 +38,27 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * Index to map from Java outer class -> proto file.
+ * Index to map from Java class generated by protoc -> proto file. Keys are the outer classes, and
+ * the classes generated for messages (including FooOrBuilder interfaces), enums and oneof case
+ * enums.
+ *
+ * <p>Within a file, {@link #getGeneratedClassSymbols} maps the same class names to the symbols
+ * that generate them, so navigation from generated code only has to match the members of those
+ * symbols instead of every symbol in the file.
  *
  * <p>TODO(jvoung): use a StubIndex? That might be cheaper than parsing for more than stubs. Problem
  * is that we don't have the file option expressions available as stubs.
  */
-public class PbJavaOuterClassIndex extends ScalarIndexExtension<String> {
+public class PbJavaGeneratedClassIndex extends ScalarIndexExtension<String> {
 
-  public static final ID<String, Void> INDEX_ID = ID.create("protoeditor.java.outer.class.index");
+  public static final ID<String, Void> INDEX_ID = ID.create("protoeditor.java.generated.class.index");
   private static final DataIndexer<String, Void, FileContent> INDEXER_INSTANCE =
-      new OuterClassNameIndexer();
+      new GeneratedClassNameIndexer();
 
-  public static Collection<PbFile> getFilesWithOuterClass(
-      Project project, String outerClassName, GlobalSearchScope scope) {
+  public static Collection<PbFile> getFilesWithGeneratedClass(
+      Project project, String className, GlobalSearchScope scope) {
     Collection<VirtualFile> files =
-        FileBasedIndex.getInstance().getContainingFiles(INDEX_ID, outerClassName, scope);
+        FileBasedIndex.getInstance().getContainingFiles(INDEX_ID, className, scope);
     return files
         .stream()
         .map(f -> ObjectUtils.tryCast(PsiManager.getInstance(project).findFile(f), PbFile.class))
@@ -56,6 +66,41 @@ public class PbJavaOuterClassIndex extends ScalarIndexExtension<String> {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the messages, enums and oneofs of the file, keyed by the fully-qualified names of the
+   * Java classes generated for them. Outer classes are not included.
+   */
+  public static ImmutableSetMultimap<String, PbSymbol> getGeneratedClassSymbols(PbFile file) {
+    return CachedValuesManager.getCachedValue(
+        file,
+        () -> CachedValueProvider.Result.create(computeGeneratedClassSymbols(file), file));
+  }
+
+  private static ImmutableSetMultimap<String, PbSymbol> computeGeneratedClassSymbols(PbFile file) {
+    ImmutableSetMultimap.Builder<String, PbSymbol> result = ImmutableSetMultimap.builder();
+    Collection<PbSymbol> symbols = file.getLocalQualifiedSymbolMap().values();
+    for (JavaNameGenerator nameGenerator : NameGeneratorSelector.selectForFile(file)) {
+      for (PbSymbol symbol : symbols) {
+        if (PbPsiUtil.isMessageElement(symbol)) {
+          for (String className : nameGenerator.messageClassNames((PbMessageType) symbol)) {
+            result.put(className, symbol);
+          }
+        } else if (PbPsiUtil.isEnumElement(symbol)) {
+          String className = nameGenerator.enumClassName((PbEnumDefinition) symbol);
+          if (className != null) {
+            result.put(className, symbol);
+          }
+        } else if (PbPsiUtil.isOneofElement(symbol)) {
+          String className = nameGenerator.oneofEnumClassName((PbOneofDefinition) symbol);
+          if (className != null) {
+            result.put(className, symbol);
+          }
+        }
+      }
+    }
+    return result.build();
+  }
+
   @NotNull
   @Override
   public InputFilter getInputFilter() {
@@ -95,7 +140,7 @@ public class PbJavaOuterClassIndex extends ScalarIndexExtension<String> {
     return 0;
   }
 
-  private static class OuterClassNameIndexer implements DataIndexer<String, Void, FileContent> {
+  private static class GeneratedClassNameIndexer implements DataIndexer<String, Void, FileContent> {
 
     @Override
     @NotNull
@@ -104,23 +149,16 @@ public class PbJavaOuterClassIndex extends ScalarIndexExtension<String> {
       if (pbFile == null) {
         return Collections.emptyMap();
       }
-      Collection<String> outerClassNames = computeOuterClassNames(pbFile);
       Map<String, Void> result = new HashMap<>();
-      for (String outerClassName : outerClassNames) {
-        result.put(outerClassName, null);
+      for (JavaNameGenerator nameGenerator : NameGeneratorSelector.selectForFile(pbFile)) {
+        for (String outerClassName : nameGenerator.outerClassNames()) {
+          result.put(outerClassName, null);
+        }
       }
-      return result;
-    }
-
-    /** Return all of the java outer class names that can be generated from this proto file. */
-    @NotNull
-    private Collection<String> computeOuterClassNames(PbFile file) {
-      List<JavaNameGenerator> nameGenerators = NameGeneratorSelector.selectForFile(file);
-      List<String> results = new ArrayList<>();
-      for (JavaNameGenerator nameGenerator : nameGenerators) {
-        results.addAll(nameGenerator.outerClassNames());
+      for (String className : computeGeneratedClassSymbols(pbFile).keySet()) {
+        result.put(className, null);
       }
-      return results;
+      return result;
     }
   }
 }
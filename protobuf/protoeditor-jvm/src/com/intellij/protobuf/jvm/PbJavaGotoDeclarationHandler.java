@@ -16,6 +16,7 @@
 package com.intellij.protobuf.jvm;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.intellij.codeInsight.navigation.actions.GotoDeclarationHandler;
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.editor.Editor;
@@ -32,10 +33,7 @@ import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
  * Handles goto declaration from java generated code -> .proto files.
@@ -77,11 +75,11 @@ public class PbJavaGotoDeclarationHandler implements GotoDeclarationHandler {
     }
     Project project = resolved.getProject();
     Collection<PbFile> matchedFiles =
-      PbJavaOuterClassIndex.getFilesWithOuterClass(
+      PbJavaGeneratedClassIndex.getFilesWithGeneratedClass(
         project, context.outerClass.getQualifiedName(), GlobalSearchScope.allScope(project));
     if (matchedFiles.isEmpty()) {
       // Try looking for the .proto file through source comments (ideally an annotation) if we
-      // didn't index the .proto file so PbJavaOuterClassIndex doesn't know about it.
+      // didn't index the .proto file so PbJavaGeneratedClassIndex doesn't know about it.
       PbFile matchingFile = matchingProtoFileFromSource(resolved);
       if (matchingFile == null) {
         return null;
@@ -130,11 +128,12 @@ public class PbJavaGotoDeclarationHandler implements GotoDeclarationHandler {
     List<NameMatcher> nameMatchers =
       ContainerUtil.map(NameGeneratorSelector.selectForFile(file),
                         generator -> generator.toNameMatcher(context));
+    Collection<PbSymbol> candidates = findCandidateSymbols(file, contextClass);
     if (context.javaClass.isEnum()) {
-      findMatchingEnumElement(file, context, nameMatchers, results, matchedTypeElements);
+      findMatchingEnumElement(candidates, context, nameMatchers, results, matchedTypeElements);
     }
     else {
-      findMatchingClassElement(file, context, nameMatchers, results, matchedTypeElements);
+      findMatchingClassElement(candidates, context, nameMatchers, results, matchedTypeElements);
     }
     if (results.isEmpty()) {
       return matchedTypeElements;
@@ -142,14 +141,32 @@ public class PbJavaGotoDeclarationHandler implements GotoDeclarationHandler {
     return results;
   }
 
+  /**
+   * Returns the symbols generating the context class or one of its containing classes (matchers may
+   * normalize e.g. a Builder to the message class). Falls back to all symbols of the file, in case
+   * a name generator matches classes it doesn't report.
+   */
+  private static Collection<PbSymbol> findCandidateSymbols(PbFile file, PsiClass contextClass) {
+    ImmutableSetMultimap<String, PbSymbol> generatedClassSymbols =
+      PbJavaGeneratedClassIndex.getGeneratedClassSymbols(file);
+    Set<PbSymbol> candidates = new LinkedHashSet<>();
+    for (PsiClass psiClass = contextClass; psiClass != null; psiClass = psiClass.getContainingClass()) {
+      String className = psiClass.getQualifiedName();
+      if (className != null) {
+        candidates.addAll(generatedClassSymbols.get(className));
+      }
+    }
+    return candidates.isEmpty() ? file.getLocalQualifiedSymbolMap().values() : candidates;
+  }
+
   private static void findMatchingEnumElement(
-    PbFile file,
+    Collection<PbSymbol> candidates,
     PbJavaGotoDeclarationContext context,
     List<NameMatcher> nameMatchers,
     List<PsiElement> results,
     List<PsiElement> matchedTypeElements) {
     boolean searchEnumValues = context.resolvedElement instanceof PsiEnumConstant;
-    for (PbSymbol symbol : file.getLocalQualifiedSymbolMap().values()) {
+    for (PbSymbol symbol : candidates) {
       if (PbPsiUtil.isEnumElement(symbol)) {
         PbEnumDefinition enumDefinition = (PbEnumDefinition)symbol;
         for (NameMatcher matcher : nameMatchers) {
@@ -198,13 +215,13 @@ public class PbJavaGotoDeclarationHandler implements GotoDeclarationHandler {
   }
 
   private static void findMatchingClassElement(
-    PbFile file,
+    Collection<PbSymbol> candidates,
     PbJavaGotoDeclarationContext context,
     List<NameMatcher> nameMatchers,
     List<PsiElement> results,
     List<PsiElement> matchedTypeElements) {
     boolean searchFields = context.resolvedElement instanceof PsiMember;
-    for (PbSymbol symbol : file.getLocalQualifiedSymbolMap().values()) {
+    for (PbSymbol symbol : candidates) {
       if (PbPsiUtil.isMessageElement(symbol)) {
         PbMessageType message = (PbMessageType)symbol;
         for (NameMatcher matcher : nameMatchers) {
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.protobuf;
+
+import com.intellij.protobuf.jvm.PbJavaGeneratedClassIndex;
+import com.intellij.protobuf.lang.psi.PbFile;
+import com.intellij.protobuf.lang.psi.PbSymbol;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.util.containers.ContainerUtil;
+
+import java.util.Collection;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+/** Tests for {@link PbJavaGeneratedClassIndex}. */
+public class PbJavaGeneratedClassIndexTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private static final String MESSAGES =
+      "message Msg {\n"
+          + "  enum Kind {\n"
+          + "    UNKNOWN = 0;\n"
+          + "  }\n"
+          + "  message Nested {}\n"
+          + "  oneof choice {\n"
+          + "    int32 number = 1;\n"
+          + "    string text = 2;\n"
+          + "  }\n"
+          + "}\n"
+          + "enum Color {\n"
+          + "  RED = 0;\n"
+          + "}\n";
+
+  public void testOuterClassName() {
+    PsiFile file =
+        myFixture.addFileToProject(
+            "foo/types.proto",
+            "syntax = \"proto2\";\n"
+                + "package foo;\n"
+                + "option java_package = \"com.example\";\n"
+                + "option java_outer_classname = \"MyProtos\";\n"
+                + MESSAGES);
+
+    assertGeneratedBy(file, "com.example.MyProtos");
+    assertGeneratedBy(file, "com.example.MyProtos.Msg");
+    assertGeneratedBy(file, "com.example.MyProtos.MsgOrBuilder");
+    assertGeneratedBy(file, "com.example.MyProtos.Msg.Kind");
+    assertGeneratedBy(file, "com.example.MyProtos.Msg.Nested");
+    assertGeneratedBy(file, "com.example.MyProtos.Msg.ChoiceCase");
+    assertGeneratedBy(file, "com.example.MyProtos.Color");
+
+    // Without java_multiple_files, everything is nested in the outer class.
+    assertNotGenerated("com.example.Types");
+    assertNotGenerated("com.example.Msg");
+    assertNotGenerated("com.example.Color");
+
+    assertSymbols(file, "com.example.MyProtos.Msg", "Msg");
+    assertSymbols(file, "com.example.MyProtos.MsgOrBuilder", "Msg");
+    assertSymbols(file, "com.example.MyProtos.Msg.ChoiceCase", "choice");
+    assertThat(PbJavaGeneratedClassIndex.getGeneratedClassSymbols((PbFile) file))
+        .doesNotContainKey("com.example.MyProtos");
+  }
+
+  public void testMultipleFiles() {
+    PsiFile file =
+        myFixture.addFileToProject(
+            "foo/my_types.proto",
+            "syntax = \"proto2\";\n"
+                + "package foo;\n"
+                + "option java_package = \"com.example\";\n"
+                + "option java_multiple_files = true;\n"
+                + MESSAGES);
+
+    assertGeneratedBy(file, "com.example.MyTypes");
+    assertGeneratedBy(file, "com.example.Msg");
+    assertGeneratedBy(file, "com.example.MsgOrBuilder");
+    assertGeneratedBy(file, "com.example.Msg.Kind");
+    assertGeneratedBy(file, "com.example.Msg.Nested");
+    assertGeneratedBy(file, "com.example.Msg.ChoiceCase");
+    assertGeneratedBy(file, "com.example.Color");
+
+    assertNotGenerated("com.example.MyTypes.Msg");
+    assertNotGenerated("com.example.MyTypes.Color");
+
+    assertSymbols(file, "com.example.Msg", "Msg");
+    assertSymbols(file, "com.example.Msg.Nested", "Nested");
+    assertSymbols(file, "com.example.Color", "Color");
+  }
+
+  public void testJavaPackageDiffersFromProtoPackage() {
+    PsiFile withJavaPackage =
+        myFixture.addFileToProject(
+            "foo/bar/with_java_package.proto",
+            "syntax = \"proto2\";\n"
+                + "package foo.bar;\n"
+                + "option java_package = \"com.example\";\n"
+                + "message Msg {}\n");
+    PsiFile withoutJavaPackage =
+        myFixture.addFileToProject(
+            "foo/baz/without_java_package.proto",
+            "syntax = \"proto2\";\n"
+                + "package foo.baz;\n"
+                + "message Msg {}\n");
+
+    // Generated classes are in the Java package, not in the proto package.
+    assertGeneratedBy(withJavaPackage, "com.example.WithJavaPackage");
+    assertGeneratedBy(withJavaPackage, "com.example.WithJavaPackage.Msg");
+    assertNotGenerated("foo.bar.WithJavaPackage");
+    assertNotGenerated("foo.bar.WithJavaPackage.Msg");
+
+    // Without java_package, the proto package is used.
+    assertGeneratedBy(withoutJavaPackage, "foo.baz.WithoutJavaPackage");
+    assertGeneratedBy(withoutJavaPackage, "foo.baz.WithoutJavaPackage.Msg");
+    assertNotGenerated("com.example.WithoutJavaPackage.Msg");
+  }
+
+  public void testIndexIsUpdatedOnOptionChange() {
+    PsiFile file =
+        myFixture.addFileToProject(
+            "foo/types.proto",
+            "syntax = \"proto2\";\n"
+                + "package foo;\n"
+                + "option java_package = \"com.example\";\n"
+                + "message Msg {}\n");
+    assertGeneratedBy(file, "com.example.Types.Msg");
+
+    myFixture.saveText(
+        file.getVirtualFile(),
+        "syntax = \"proto2\";\n"
+            + "package foo;\n"
+            + "option java_package = \"com.example.renamed\";\n"
+            + "message Msg {}\n");
+
+    assertNotGenerated("com.example.Types.Msg");
+    assertGeneratedBy(getPsiManager().findFile(file.getVirtualFile()), "com.example.renamed.Types.Msg");
+  }
+
+  private void assertGeneratedBy(PsiFile expected, String className) {
+    Collection<PbFile> files =
+        PbJavaGeneratedClassIndex.getFilesWithGeneratedClass(
+            getProject(), className, GlobalSearchScope.allScope(getProject()));
+    assertWithMessage(className).that(files).containsExactly(expected);
+  }
+
+  private void assertNotGenerated(String className) {
+    Collection<PbFile> files =
+        PbJavaGeneratedClassIndex.getFilesWithGeneratedClass(
+            getProject(), className, GlobalSearchScope.allScope(getProject()));
+    assertWithMessage(className).that(files).isEmpty();
+  }
+
+  private static void assertSymbols(PsiFile file, String className, String... symbolNames) {
+    Collection<PbSymbol> symbols =
+        PbJavaGeneratedClassIndex.getGeneratedClassSymbols((PbFile) file).get(className);
+    assertWithMessage(className)
+        .that(ContainerUtil.map(symbols, PbSymbol::getName))
+        .containsExactlyElementsIn(symbolNames);
+  }
+}
@@ -18,6 +18,7 @@ var TsLintCommands;
 (function (TsLintCommands) {
     TsLintCommands.GetErrors = "GetErrors";
     TsLintCommands.FixErrors = "FixErrors";
+    TsLintCommands.FixErrorsBatch = "FixErrorsBatch";
 })(TsLintCommands || (TsLintCommands = {}));
 var Response = /** @class */ (function () {
     function Response() {
@@ -37,6 +38,9 @@ var TSLintPlugin = /** @class */ (function () {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.FixErrorsBatch: {
+                return this.fixErrorsBatch(parsedObject.arguments);
+            }
         }
         return null;
     };
@@ -59,6 +63,7 @@ var TSLintPlugin = /** @class */ (function () {
         }
         if (result) {
             response.body = result.output;
+            response.fileErrors = result.fileErrors;
         }
         writer.write(JSON.stringify(response));
     };
@@ -70,6 +75,27 @@ var TSLintPlugin = /** @class */ (function () {
         var contents = (0, fs_1.readFileSync)(toProcess.filePath, "utf8");
         return this.processLinting(__assign(__assign({}, toProcess), { content: contents }), this.getOptions(true));
     };
+    /**
+     * Fixes all the files in one request; a file that fails doesn't stop processing of the others,
+     * its error is reported along with the path of the file.
+     */
+    TSLintPlugin.prototype.fixErrorsBatch = function (toProcess) {
+        var failures = [];
+        var fileErrors = [];
+        for (var _i = 0, _a = toProcess.files; _i < _a.length; _i++) {
+            var file = _a[_i];
+            try {
+                var output = this.fixErrors(file).output;
+                if (output) {
+                    failures = failures.concat(JSON.parse(output));
+                }
+            }
+            catch (e) {
+                fileErrors.push({ filePath: file.filePath, error: e.toString() });
+            }
+        }
+        return { output: JSON.stringify(failures), fileErrors: fileErrors };
+    };
     TSLintPlugin.prototype.getOptions = function (fix) {
         return {
             formatter: "json",
@@ -37,9 +37,9 @@ public final class TsLinterError extends JSLinterError {
     myIsGlobal = false;
   }
 
-  private TsLinterError(final @NotNull @InspectionMessage String description) {
+  private TsLinterError(final @Nullable String path, final @NotNull @InspectionMessage String description) {
     super(1, 1, description, null);
-    myPath = null;
+    myPath = path;
     myEndLine = 1;
     myEndColumn = 1;
     myFixInfo = null;
@@ -86,6 +86,13 @@ public final class TsLinterError extends JSLinterError {
   }
 
   public static TsLinterError createGlobalError(final @NotNull @InspectionMessage String description) {
-    return new TsLinterError(description);
+    return new TsLinterError(null, description);
+  }
+
+  /**
+   * Creates an error that prevented processing of the whole file at {@code path}, e.g. when fixing several files at once.
+   */
+  public static TsLinterError createGlobalError(final @NotNull String path, final @NotNull @InspectionMessage String description) {
+    return new TsLinterError(path, description);
   }
 }
@@ -4,6 +4,7 @@ package com.intellij.lang.javascript.linter.tslint.fix;
 
 import com.intellij.execution.ExecutionException;
 import com.intellij.history.LocalHistory;
+import com.intellij.javascript.nodejs.util.NodePackage;
 import com.intellij.lang.javascript.DialectDetector;
 import com.intellij.lang.javascript.JavaScriptBundle;
 import com.intellij.lang.javascript.ecmascript6.TypeScriptUtil;
@@ -22,15 +23,16 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.MessageType;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.Consumer;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.Future;
 
 public class TsLintFileFixAction extends JSLinterFixAction {
+  private static final int BATCH_SIZE = 20;
 
   public TsLintFileFixAction() {
     super(TsLintBundle.messagePointer("tslint.framework.title"),
@@ -61,22 +63,49 @@ public class TsLintFileFixAction extends JSLinterFixAction {
     Consumer<ProgressIndicator> task = indicator -> {
       TslintLanguageServiceManager languageServiceManager = TslintLanguageServiceManager.getInstance(project);
       TsLintState state = TsLintConfiguration.getInstance(project).getExtendedState().getState();
+      // files served by the same TSLint package and working directory are fixed with a single request per batch
+      // instead of a request per file; a service is only used within useService, so files are grouped by what identifies it
+      Map<Pair<NodePackage, VirtualFile>, List<VirtualFile>> filesByService = new LinkedHashMap<>();
       for (VirtualFile file : filesToProcess) {
-        indicator.setText(TsLintBundle.message("tslint.progress.text.processing.file", file.getCanonicalPath()));
-        languageServiceManager.useService(file, state.getNodePackageRef(), service -> {
-          if (service == null) {
+        indicator.checkCanceled();
+        Pair<NodePackage, VirtualFile> serviceKey = languageServiceManager.useService(
+          file, state.getNodePackageRef(),
+          service -> service != null ? Pair.create(service.getNodePackage(), service.getWorkingDirectory()) : null);
+        if (serviceKey != null) {
+          filesByService.computeIfAbsent(serviceKey, key -> new ArrayList<>()).add(file);
+        }
+      }
+
+      for (List<VirtualFile> files : filesByService.values()) {
+        for (int start = 0; start < files.size(); start += BATCH_SIZE) {
+          indicator.checkCanceled();
+          List<VirtualFile> batch = files.subList(start, Math.min(start + BATCH_SIZE, files.size()));
+          VirtualFile first = batch.get(0);
+          indicator.setText(TsLintBundle.message("tslint.progress.text.processing.file", first.getCanonicalPath()));
+          languageServiceManager.useService(first, state.getNodePackageRef(), service -> {
+            if (service == null) {
+              return null;
+            }
+            final Future<List<TsLinterError>> future = ReadAction.compute(() -> service.highlightAndFix(batch, state));
+            try {
+              List<TsLinterError> errors = JSLanguageServiceUtil.awaitLanguageService(future, service, first);
+              if (errors != null) {
+                for (TsLinterError error : errors) {
+                  if (error.isGlobal() && error.getAbsoluteFilePath() != null) {
+                    JSLinterGuesser.NOTIFICATION_GROUP.createNotification(
+                      TsLintBundle.message("tslint.notification.file.content", error.getAbsoluteFilePath(), error.getDescription()),
+                      MessageType.ERROR).notify(project);
+                  }
+                }
+              }
+            }
+            catch (ExecutionException e) {
+              JSLinterGuesser.NOTIFICATION_GROUP.createNotification(
+                TsLintBundle.message("tslint.notification.content", e.getMessage()), MessageType.ERROR).notify(project);
+            }
             return null;
-          }
-          final Future<List<TsLinterError>> future = ReadAction.compute(() -> service.highlightAndFix(file, state));
-          try {
-            JSLanguageServiceUtil.awaitLanguageService(future, service, file);
-          }
-          catch (ExecutionException e) {
-            JSLinterGuesser.NOTIFICATION_GROUP.createNotification(
-              TsLintBundle.message("tslint.notification.content", e.getMessage()), MessageType.ERROR).notify(project);
-          }
-          return null;
-        });
+          });
+        }
       }
 
       completeCallback.run();
@@ -8,6 +8,8 @@ import com.intellij.lang.javascript.linter.tslint.TslintUtil;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintConfiguration;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
@@ -15,6 +17,7 @@ import org.jetbrains.annotations.NotNull;
  * @author Irina.Chernushina on 6/4/2015.
  */
 public final class TsLintConfigFileChangeTracker extends JSLinterConfigChangeTracker {
+  private final SimpleModificationTracker myConfigModificationTracker = new SimpleModificationTracker();
 
   public TsLintConfigFileChangeTracker(@NotNull Project project) {
     super(project, JsonFileType.INSTANCE);
@@ -24,8 +27,22 @@ public final class TsLintConfigFileChangeTracker extends JSLinterConfigChangeTra
     return project.getService(TsLintConfigFileChangeTracker.class);
   }
 
+  /**
+   * Changes on every change of a file this tracker is notified about, see {@link #isAnalyzerRestartNeeded}.
+   * Config files may extend other config files with any name, so linting results may depend on any of them.
+   */
+  @NotNull
+  public ModificationTracker getConfigModificationTracker() {
+    return myConfigModificationTracker;
+  }
+
   @Override
   protected boolean isAnalyzerRestartNeeded(@NotNull Project project, @NotNull VirtualFile changedFile) {
+    myConfigModificationTracker.incModificationCount();
+    return isConfigFile(project, changedFile);
+  }
+
+  private static boolean isConfigFile(@NotNull Project project, @NotNull VirtualFile changedFile) {
     final TsLintConfiguration configuration = TsLintConfiguration.getInstance(project);
     final TsLintState state = configuration.getExtendedState().getState();
     if (state.isCustomConfigFileUsed() && state.getCustomConfigFilePath() != null) {
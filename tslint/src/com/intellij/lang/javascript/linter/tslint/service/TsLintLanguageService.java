@@ -13,23 +13,27 @@ import com.intellij.lang.javascript.linter.tslint.config.TsLintConfiguration;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
 import com.intellij.lang.javascript.linter.tslint.execution.TsLintOutputJsonParser;
 import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
+import com.intellij.lang.javascript.linter.tslint.highlight.TsLintConfigFileChangeTracker;
 import com.intellij.lang.javascript.service.*;
 import com.intellij.lang.javascript.service.protocol.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.EmptyConsumer;
 import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.DigestUtil;
 import com.intellij.util.text.SemVer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 
@@ -39,6 +43,15 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
 
   private final @NotNull VirtualFile myWorkingDirectory;
   private final @NotNull NodePackage myNodePackage;
+  /**
+   * Results of {@link #highlight} by file path. A result is reused while the file content, the config files, the custom rules,
+   * the TSLint version, the settings and the service process are the same, so the annotator doesn't lint an unchanged file again,
+   * e.g. after a change in another file.
+   */
+  private final Map<String, Pair<ErrorsCacheKey, List<TsLinterError>>> myErrorsCache =
+    ContainerUtil.createConcurrentSoftValueMap();
+  // incremented each time a service process is created, results of a previous process are never reused
+  private volatile int myProcessGeneration;
 
   public TsLintLanguageService(@NotNull Project project, @NotNull NodePackage nodePackage, @NotNull VirtualFile workingDirectory) {
     super(project);
@@ -51,25 +64,71 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     return myNodePackage;
   }
 
+  @NotNull
+  public VirtualFile getWorkingDirectory() {
+    return myWorkingDirectory;
+  }
+
   @Nullable
   public CompletableFuture<List<TsLinterError>> highlight(@NotNull VirtualFile virtualFile,
                                                           @Nullable VirtualFile config,
                                                           @Nullable String content,
                                                           @NotNull TsLintState state) {
-    return createHighlightFuture(virtualFile, config, state,
-                                 (filePath, configPath) -> new GetErrorsCommand(filePath, configPath,StringUtil.notNullize(content)));
+    String text = StringUtil.notNullize(content);
+    String path = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(virtualFile);
+    ErrorsCacheKey cacheKey = path != null && config != null
+                              ? new ErrorsCacheKey(text, config, state, myProject, myNodePackage, myProcessGeneration)
+                              : null;
+    if (cacheKey != null) {
+      Pair<ErrorsCacheKey, List<TsLinterError>> cached = myErrorsCache.get(path);
+      if (cached != null && cacheKey.equals(cached.first)) {
+        return CompletableFuture.completedFuture(new ArrayList<>(cached.second));
+      }
+    }
+    return createHighlightFuture(virtualFile, config, state, cacheKey,
+                                 (filePath, configPath) -> new GetErrorsCommand(filePath, configPath, text));
   }
 
   @Nullable
   public CompletableFuture<List<TsLinterError>> highlightAndFix(@NotNull VirtualFile virtualFile, @NotNull TsLintState state) {
     VirtualFile config = TslintUtil.getConfig(state, myProject, virtualFile);
     //doesn't pass content (file should be saved before)
-    return createHighlightFuture(virtualFile, config, state, FixErrorsCommand::new);
+    return createHighlightFuture(virtualFile, config, state, null, FixErrorsCommand::new);
+  }
+
+  /**
+   * Fixes problems in all the files with a single request to the service, files should be saved before.
+   * Files without a config are skipped. A file that can't be processed doesn't stop the others,
+   * it's reported by a global error with the path of the file.
+   */
+  @NotNull
+  public CompletableFuture<List<TsLinterError>> highlightAndFix(@NotNull Collection<? extends VirtualFile> files,
+                                                                @NotNull TsLintState state) {
+    List<FileArguments> arguments = new ArrayList<>();
+    for (VirtualFile file : files) {
+      String path = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(file);
+      String configPath = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(TslintUtil.getConfig(state, myProject, file));
+      if (path != null && configPath != null) {
+        arguments.add(new FileArguments(LocalFilePath.create(path), LocalFilePath.create(configPath)));
+      }
+    }
+    if (arguments.isEmpty()) {
+      return CompletableFuture.completedFuture(ContainerUtil.emptyList());
+    }
+
+    final JSLanguageServiceQueue process = getProcess();
+    if (process == null) {
+      return CompletableFuture.completedFuture(Collections.singletonList(
+        TsLinterError.createGlobalError(JSLanguageServiceUtil.getLanguageServiceCreationError(this))));
+    }
+    return process.execute(new FixErrorsBatchCommand(arguments),
+                           (object, answer) -> parseBatchResults(answer, JSLanguageServiceUtil.getGson(this)));
   }
 
   private CompletableFuture<List<TsLinterError>> createHighlightFuture(@NotNull VirtualFile virtualFile,
                                                                        @Nullable VirtualFile config,
                                                                        @NotNull TsLintState state,
+                                                                       @Nullable ErrorsCacheKey cacheKey,
                                                                        @NotNull BiFunction<LocalFilePath,LocalFilePath, BaseCommand> commandProvider) {
     String configFilePath = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(config);
     if (configFilePath == null) {
@@ -93,16 +152,24 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     //doesn't pass content (file should be saved before)
     BaseCommand command = commandProvider.apply(LocalFilePath.create(path),
                                                     LocalFilePath.create(configFilePath));
-    return process.execute(command, createHighlightProcessor(path));
+    return process.execute(command, createHighlightProcessor(path, cacheKey));
   }
 
   @NotNull
-  private JSLanguageServiceCommandProcessor<List<TsLinterError>> createHighlightProcessor(@NotNull String path) {
-    return (object, answer) -> parseResults(answer, path, JSLanguageServiceUtil.getGson(this));
+  private JSLanguageServiceCommandProcessor<List<TsLinterError>> createHighlightProcessor(@NotNull String path,
+                                                                                         @Nullable ErrorsCacheKey cacheKey) {
+    return (object, answer) -> {
+      List<TsLinterError> errors = parseResults(answer, path, JSLanguageServiceUtil.getGson(this));
+      // global errors are problems of the service or of the config, not of the file, don't keep them
+      if (cacheKey != null && errors != null && !ContainerUtil.exists(errors, TsLinterError::isGlobal)) {
+        myErrorsCache.put(path, Pair.create(cacheKey, new ArrayList<>(errors)));
+      }
+      return errors;
+    };
   }
 
   @Nullable
-  private static List<TsLinterError> parseResults(@NotNull JSLanguageServiceAnswer answer, @NotNull String path, @NotNull Gson gson) {
+  private static List<TsLinterError> parseResults(@NotNull JSLanguageServiceAnswer answer, @Nullable String path, @NotNull Gson gson) {
     final JsonObject element = answer.getElement();
     final JsonElement error = element.get("error");
     if (error != null) {
@@ -117,6 +184,21 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     return new ArrayList<>(parser.getErrors());
   }
 
+  @Nullable
+  private static List<TsLinterError> parseBatchResults(@NotNull JSLanguageServiceAnswer answer, @NotNull Gson gson) {
+    final List<TsLinterError> errors = parseResults(answer, null, gson);
+    final JsonElement fileErrors = answer.getElement().get("fileErrors");
+    if (fileErrors == null || !fileErrors.isJsonArray() || fileErrors.getAsJsonArray().size() == 0) {
+      return errors;
+    }
+    final List<TsLinterError> result = errors != null ? new ArrayList<>(errors) : new ArrayList<>();
+    for (JsonElement fileError : fileErrors.getAsJsonArray()) {
+      final JsonObject object = fileError.getAsJsonObject();
+      result.add(TsLinterError.createGlobalError(object.get("filePath").getAsString(), object.get("error").getAsString())); //NON-NLS
+    }
+    return result;
+  }
+
   private static JsonElement parseBody(@NotNull JsonObject element) {
     final JsonElement body = element.get("body");
     if (body == null) {
@@ -141,6 +223,9 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
 
   @Override
   protected JSLanguageServiceQueue createLanguageServiceQueue() {
+    // a new process may load another TSLint version or other custom rules
+    myProcessGeneration++;
+    myErrorsCache.clear();
     return new JSLanguageServiceQueueImpl(myProject, new Protocol(myNodePackage, myWorkingDirectory, myProject), myProcessConnector,
                                           myDefaultReporter,
                                           new JSLanguageServiceDefaultCacheData());
@@ -151,6 +236,73 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     return false;
   }
 
+  private static final class ErrorsCacheKey {
+    private final String myContentHash;
+    private final String myConfigPath;
+    private final long myConfigModificationStamp;
+    private final long myConfigModificationCount;
+    private final String myRulesHash;
+    private final String myTsLintVersion;
+    private final TsLintState myState;
+    private final int myProcessGeneration;
+
+    private ErrorsCacheKey(@NotNull String content,
+                           @NotNull VirtualFile config,
+                           @NotNull TsLintState state,
+                           @NotNull Project project,
+                           @NotNull NodePackage nodePackage,
+                           int processGeneration) {
+      myContentHash = DigestUtil.sha256Hex(content.getBytes(StandardCharsets.UTF_8));
+      myConfigPath = config.getPath();
+      myConfigModificationStamp = config.getModificationStamp();
+      myConfigModificationCount =
+        TsLintConfigFileChangeTracker.getInstance(project).getConfigModificationTracker().getModificationCount();
+      myRulesHash = hashRulesDirectory(state.getRulesDirectory());
+      myTsLintVersion = String.valueOf(nodePackage.getVersion(project));
+      myState = state;
+      myProcessGeneration = processGeneration;
+    }
+
+    /**
+     * Hash of paths and modification stamps of all files in the custom rules directory, changes when a rule is added, removed or edited.
+     */
+    @NotNull
+    private static String hashRulesDirectory(@Nullable String rulesDirectory) {
+      if (StringUtil.isEmptyOrSpaces(rulesDirectory)) return "";
+      VirtualFile directory = LocalFileSystem.getInstance().findFileByPath(FileUtil.toSystemIndependentName(rulesDirectory));
+      if (directory == null || !directory.isDirectory()) return "";
+      StringBuilder stamps = new StringBuilder();
+      VfsUtilCore.iterateChildrenRecursively(directory, null, file -> {
+        if (!file.isDirectory()) {
+          stamps.append(file.getPath()).append(':').append(file.getModificationStamp()).append('\n');
+        }
+        return true;
+      });
+      return DigestUtil.sha256Hex(stamps.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      ErrorsCacheKey key = (ErrorsCacheKey)o;
+      return myConfigModificationStamp == key.myConfigModificationStamp &&
+             myConfigModificationCount == key.myConfigModificationCount &&
+             myProcessGeneration == key.myProcessGeneration &&
+             myContentHash.equals(key.myContentHash) &&
+             myConfigPath.equals(key.myConfigPath) &&
+             myRulesHash.equals(key.myRulesHash) &&
+             myTsLintVersion.equals(key.myTsLintVersion) &&
+             myState.equals(key.myState);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(myContentHash, myConfigPath, myConfigModificationStamp, myConfigModificationCount, myRulesHash, myTsLintVersion,
+                          myState, myProcessGeneration);
+    }
+  }
+
   private static abstract class BaseCommand implements JSLanguageServiceCommand, JSLanguageServiceSimpleCommand, JSLanguageServiceObject {
     public LocalFilePath filePath;
     @Nullable
@@ -194,6 +346,37 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     }
   }
 
+  private static final class FileArguments {
+    public LocalFilePath filePath;
+    public LocalFilePath configPath;
+
+    private FileArguments(LocalFilePath filePath, LocalFilePath configPath) {
+      this.filePath = filePath;
+      this.configPath = configPath;
+    }
+  }
+
+  private static final class FixErrorsBatchCommand
+    implements JSLanguageServiceCommand, JSLanguageServiceSimpleCommand, JSLanguageServiceObject {
+    public List<FileArguments> files;
+
+    private FixErrorsBatchCommand(List<FileArguments> files) {
+      this.files = files;
+    }
+
+    @NotNull
+    @Override
+    public JSLanguageServiceObject toSerializableObject() {
+      return this;
+    }
+
+    @NotNull
+    @Override
+    public String getCommand() {
+      return "FixErrorsBatch";
+    }
+  }
+
   private static final class Protocol extends JSLanguageServiceNodeStdProtocolBase {
     private final NodePackage myNodePackage;
     private final VirtualFile myWorkingDirectory;
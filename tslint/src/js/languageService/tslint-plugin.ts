@@ -6,6 +6,7 @@ import {readFileSync} from "fs"
 namespace TsLintCommands {
     export let GetErrors: string = "GetErrors";
     export let FixErrors: string = "FixErrors";
+    export let FixErrorsBatch: string = "FixErrorsBatch";
 }
 
 type LinterApi = {
@@ -19,6 +20,7 @@ class Response {
     request_seq: number;
     body: string | null;
     error: string | null;
+    fileErrors?: FileError[];
 }
 
 export class TSLintPlugin implements LanguagePlugin {
@@ -39,6 +41,9 @@ export class TSLintPlugin implements LanguagePlugin {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.FixErrorsBatch: {
+                return this.fixErrorsBatch(parsedObject.arguments);
+            }
         }
 
         return null;
@@ -63,6 +68,7 @@ export class TSLintPlugin implements LanguagePlugin {
         }
         if (result) {
             response.body = (<any>result).output;
+            response.fileErrors = (<any>result).fileErrors;
         }
         writer.write(JSON.stringify(response));
     }
@@ -77,6 +83,26 @@ export class TSLintPlugin implements LanguagePlugin {
         return this.processLinting({...toProcess, content: contents}, this.getOptions(true));
     }
 
+    /**
+     * Fixes all the files in one request; a file that fails doesn't stop processing of the others,
+     * its error is reported along with the path of the file.
+     */
+    private fixErrorsBatch(toProcess: FixErrorsBatchArguments): { output: string, fileErrors: FileError[] } {
+        let failures: any[] = [];
+        let fileErrors: FileError[] = [];
+        for (let file of toProcess.files) {
+            try {
+                let output = this.fixErrors(file).output;
+                if (output) {
+                    failures = failures.concat(JSON.parse(output));
+                }
+            } catch (e) {
+                fileErrors.push({filePath: file.filePath, error: e.toString()});
+            }
+        }
+        return {output: JSON.stringify(failures), fileErrors: fileErrors};
+    }
+
     private getOptions(fix: boolean) {
         return {
             formatter: "json",
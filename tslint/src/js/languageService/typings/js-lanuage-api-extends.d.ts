@@ -62,4 +62,23 @@ interface GetErrorsArguments extends CommandArguments {
 }
 
 interface FixErrorsArguments extends CommandArguments {
+}
+
+interface FixErrorsBatchArguments {
+    /**
+     * Files to fix
+     */
+    readonly files: FixErrorsArguments[];
+}
+
+interface FileError {
+    /**
+     * Absolute path of the file that could not be processed
+     */
+    readonly filePath: string;
+
+    /**
+     * Error message
+     */
+    readonly error: string;
 }
\ No newline at end of file
@@ -0,0 +1,3 @@
+function testFunction() {
+    <error descr="TSLint: Use of debugger statements is forbidden (no-debugger)">debugger</error>;
+}
@@ -0,0 +1 @@
+var s = 'Hello';
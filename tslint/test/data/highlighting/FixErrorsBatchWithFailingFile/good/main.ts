@@ -0,0 +1 @@
+var s = <error descr="TSLint: ' should be &quot; (quotemark)">'Hello'</error>;
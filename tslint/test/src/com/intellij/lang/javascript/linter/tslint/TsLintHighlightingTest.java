@@ -1,7 +1,9 @@
 // Copyright 2000-2021 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.intellij.lang.javascript.linter.tslint;
 
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
 import com.intellij.codeInspection.InspectionProfileEntry;
+import com.intellij.execution.ExecutionException;
 import com.intellij.javascript.nodejs.library.yarn.pnp.YarnPnpNodePackage;
 import com.intellij.javascript.nodejs.util.NodePackage;
 import com.intellij.javascript.nodejs.util.NodePackageRef;
@@ -12,13 +14,21 @@ import com.intellij.lang.javascript.linter.AutodetectLinterPackage;
 import com.intellij.lang.javascript.linter.LinterHighlightingTest;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintConfiguration;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
+import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
 import com.intellij.lang.javascript.linter.tslint.highlight.TsLintInspection;
+import com.intellij.lang.javascript.linter.tslint.service.TslintLanguageServiceManager;
 import com.intellij.lang.javascript.nodejs.library.yarn.AbstractYarnPnpIntegrationTest;
 import com.intellij.lang.javascript.service.JSLanguageServiceUtil;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.LineSeparator;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -65,6 +75,43 @@ public class TsLintHighlightingTest extends LinterHighlightingTest {
     });
   }
 
+  public void testConfigChangeAfterHighlighting() {
+    doEditorHighlightingTest("main.ts");
+
+    // the file itself and its tslint.json stay the same, only the config extended by tslint.json changes
+    VirtualFile baseConfig = Objects.requireNonNull(myFixture.findFileInTempDir("tslint-base.json"));
+    myFixture.saveText(baseConfig, "{\n  \"rules\": {\n    \"no-debugger\": false\n  }\n}\n");
+
+    List<HighlightInfo> infos = myFixture.doHighlighting();
+    assertEmpty(ContainerUtil.filter(infos, info -> info.getDescription() != null && info.getDescription().contains("no-debugger")));
+  }
+
+  public void testFixErrorsBatchWithFailingFile() throws Exception {
+    doEditorHighlightingTest("good/main.ts");
+    VirtualFile good = Objects.requireNonNull(myFixture.findFileInTempDir("good/main.ts"));
+    // the config of this file is broken, so TSLint fails to process it
+    VirtualFile bad = Objects.requireNonNull(myFixture.findFileInTempDir("bad/main.ts"));
+    FileDocumentManager.getInstance().saveAllDocuments();
+
+    TsLintState state = TsLintConfiguration.getInstance(getProject()).getExtendedState().getState();
+    List<TsLinterError> errors = TslintLanguageServiceManager.getInstance(getProject()).useService(
+      good, state.getNodePackageRef(), service -> {
+        try {
+          return JSLanguageServiceUtil.awaitLanguageService(service.highlightAndFix(List.of(good, bad), state), service, good);
+        }
+        catch (ExecutionException e) {
+          throw new RuntimeException(e);
+        }
+      });
+
+    assertNotNull(errors);
+    TsLinterError badFileError = ContainerUtil.find(errors, error -> error.isGlobal() && error.getAbsoluteFilePath() != null &&
+                                                                     FileUtil.pathsEqual(error.getAbsoluteFilePath(), bad.getPath()));
+    assertNotNull(errors.toString(), badFileError);
+    // the failure doesn't prevent fixing the other file of the batch
+    assertEquals("var s = \"Hello\";", Files.readString(Path.of(good.getPath())).trim());
+  }
+
   public void testWithYamlConfig() {
     doEditorHighlightingTest("main.ts");
   }